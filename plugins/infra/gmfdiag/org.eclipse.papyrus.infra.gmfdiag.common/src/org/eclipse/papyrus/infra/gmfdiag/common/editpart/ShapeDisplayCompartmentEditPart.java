@@ -16,11 +16,18 @@
 package org.eclipse.papyrus.infra.gmfdiag.common.editpart;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import org.eclipse.draw2d.AbstractLayout;
+import org.eclipse.draw2d.ColorConstants;
+import org.eclipse.draw2d.Graphics;
 import org.eclipse.draw2d.IFigure;
 import org.eclipse.draw2d.MarginBorder;
+import org.eclipse.draw2d.RectangleFigure;
 import org.eclipse.draw2d.ScrollPane;
 import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.draw2d.geometry.Rectangle;
@@ -42,8 +49,10 @@ import org.eclipse.papyrus.infra.gmfdiag.common.figure.node.ScalableCompartmentF
 import org.eclipse.papyrus.infra.gmfdiag.common.figure.node.ShapeFlowLayout;
 import org.eclipse.papyrus.infra.gmfdiag.common.figure.node.SubCompartmentLayoutManager;
 import org.eclipse.papyrus.infra.gmfdiag.common.model.NotationUtils;
+import org.eclipse.papyrus.infra.gmfdiag.common.service.shape.AsyncShapeLoader;
 import org.eclipse.papyrus.infra.gmfdiag.common.service.shape.ShapeService;
 import org.eclipse.papyrus.infra.gmfdiag.common.utils.NamedStyleProperties;
+import org.eclipse.swt.widgets.Display;
 
 /**
  * CompartmentEditPart in charge of shpae display.
@@ -53,6 +62,9 @@ public class ShapeDisplayCompartmentEditPart extends ResizableCompartmentEditPar
 	/** Title of this compartment */
 	public static final String COMPARTMENT_NAME = "symbol"; // $NON-NLS-1$
 
+	/** the background loading of the shapes in progress */
+	private Future<?> shapesLoading;
+
 	/**
 	 * Creates a new ShapeDisplayCompartmentEditPart
 	 *
@@ -77,6 +89,7 @@ public class ShapeDisplayCompartmentEditPart extends ResizableCompartmentEditPar
 	 */
 	@Override
 	public void deactivate() {
+		cancelShapesLoading();
 		super.deactivate();
 	}
 
@@ -129,7 +142,13 @@ public class ShapeDisplayCompartmentEditPart extends ResizableCompartmentEditPar
 			}
 
 		}
-		int nbShapeToDisplay = ShapeService.getInstance().getShapesToDisplay(getPrimaryView()).size();
+		// The displayed shapes, which may still be loading
+		int nbShapeToDisplay = 0;
+		for (Object subFigure : contentPane.getChildren()) {
+			if (subFigure instanceof BorderedScalableImageFigure) {
+				nbShapeToDisplay++;
+			}
+		}
 		if (!maintainRatio && nbShapeToDisplay == 1) {
 			OneShapeLayoutManager layout = new OneShapeLayoutManager();
 			contentPane.setLayoutManager(layout);
@@ -170,11 +189,71 @@ public class ShapeDisplayCompartmentEditPart extends ResizableCompartmentEditPar
 	 * <P>
 	 * To be sure everything is clean, it removes all the current displayed shapes and then redraw all of the demanded shapes. This could be probably improved in case of performance issues.
 	 * </P>
+	 * <P>
+	 * The shapes not computed yet are loaded in background by the {@link AsyncShapeLoader}: a placeholder is displayed meanwhile.
+	 * </P>
 	 *
 	 * @param contentPane
 	 *            the figure where to add the new shapes
 	 */
 	protected void refreshShapes(IFigure contentPane) {
+		cancelShapesLoading();
+		EObject view = getNotationView().eContainer();
+		Display display = Display.getCurrent();
+		if (!AsyncShapeLoader.getInstance().isEnabled() || display == null || ShapeService.getInstance().hasCachedShapes(view)) {
+			displayShapes(contentPane, ShapeService.getInstance().getShapesToDisplay(view));
+			return;
+		}
+
+		// The styles of the view are read here, on the display thread
+		Callable<List<RenderedImage>> computation = ShapeService.getInstance().prepareShapesToDisplay(view);
+		displayShapes(contentPane, Collections.<RenderedImage> emptyList());
+		contentPane.add(createShapePlaceholder());
+		shapesLoading = AsyncShapeLoader.getInstance().load(computation, display, new Consumer<List<RenderedImage>>() {
+
+			@Override
+			public void accept(List<RenderedImage> shapes) {
+				// Not called once the loading is cancelled, by a refresh or the deactivation
+				shapesLoading = null;
+				displayShapes(getContentPane(), shapes);
+				refreshSymbolCompartment();
+			}
+		});
+	}
+
+	/**
+	 * Cancels the loading of the shapes in progress, if any. Its shapes are not displayed.
+	 */
+	protected void cancelShapesLoading() {
+		if (shapesLoading != null) {
+			shapesLoading.cancel(false);
+			shapesLoading = null;
+		}
+	}
+
+	/**
+	 * Creates the figure displayed while the shapes are loading.
+	 *
+	 * @return the placeholder figure
+	 */
+	protected IFigure createShapePlaceholder() {
+		RectangleFigure placeholder = new RectangleFigure();
+		placeholder.setFill(false);
+		placeholder.setLineStyle(Graphics.LINE_DOT);
+		placeholder.setForegroundColor(ColorConstants.lightGray);
+		placeholder.setPreferredSize(16, 16);
+		return placeholder;
+	}
+
+	/**
+	 * Replaces the figures of the content pane by the given shapes.
+	 *
+	 * @param contentPane
+	 *            the figure where to add the new shapes
+	 * @param shapesToDisplay
+	 *            the shapes
+	 */
+	private void displayShapes(IFigure contentPane, List<RenderedImage> shapesToDisplay) {
 		List<Object> children = new ArrayList<Object>(contentPane.getChildren());
 		for (Object child : children) {
 			if (child instanceof IFigure) {
@@ -182,7 +261,6 @@ public class ShapeDisplayCompartmentEditPart extends ResizableCompartmentEditPar
 			}
 		}
 
-		List<RenderedImage> shapesToDisplay = ShapeService.getInstance().getShapesToDisplay(getNotationView().eContainer());
 		if (shapesToDisplay != null && !shapesToDisplay.isEmpty()) {
 			for (RenderedImage image : shapesToDisplay) {
 				if (image != null) {
@@ -20,8 +20,11 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 
+import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.gmf.runtime.diagram.core.listener.DiagramEventBroker;
@@ -30,6 +33,7 @@ import org.eclipse.gmf.runtime.draw2d.ui.render.RenderedImage;
 import org.eclipse.gmf.runtime.draw2d.ui.render.factory.RenderedImageFactory;
 import org.eclipse.gmf.runtime.notation.NotationPackage;
 import org.eclipse.gmf.runtime.notation.StringValueStyle;
+import org.eclipse.gmf.runtime.notation.Style;
 import org.eclipse.gmf.runtime.notation.View;
 import org.eclipse.papyrus.infra.gmfdiag.common.Activator;
 import org.eclipse.papyrus.infra.gmfdiag.common.model.NotationUtils;
@@ -52,19 +56,12 @@ public class StyleBasedShapeProvider extends AbstractShapeProvider {
 	 */
 	protected static final String IMAGE_PATH_PROPERTY = "imagePath"; //$NON-NLS-1$
 
-	private ProviderNotificationManager manager;
-
 	private List<SVGDocument> listEmptySVG;
 	private List<RenderedImage> listEmptyRendered;
-	private List<SVGDocument> listSingletonSVG;
-	private List<RenderedImage> listRenderedImages;
 
 	public StyleBasedShapeProvider() {
 		listEmptySVG = new ArrayList<SVGDocument>(0);
 		listEmptyRendered = new ArrayList<RenderedImage>(0);
-		listSingletonSVG = new ArrayList<SVGDocument>(1);
-		listSingletonSVG.add(null);
-		listRenderedImages = new ArrayList<RenderedImage>();
 	}
 
 	/**
@@ -85,50 +82,106 @@ public class StyleBasedShapeProvider extends AbstractShapeProvider {
 	}
 
 	protected List<RenderedImage> doGetShapes(final View view) {
-		if (null != listRenderedImages) {
-			listRenderedImages.clear();
-		}
+		// A new list on each call: the shapes may be computed concurrently, see AsyncShapeLoader
+		List<RenderedImage> listRenderedImages = new ArrayList<RenderedImage>();
 
 		// Check the 'svg' document with the property 'svgFile'
-		List<SVGDocument> documents = getSVGDocument(view);
-		if ((null != documents) && (!documents.isEmpty())) {
-			for (SVGDocument document : documents) {
-				if (null == document) {
-					continue;
+		renderSVGDocuments(view, getSVGDocument(view), listRenderedImages);
+
+		// Check the other image file with the property 'imagePath'
+		for (URL url : getImageURLs(view)) {
+			listRenderedImages.add(RenderedImageFactory.getInstance(url));
+		}
+
+		return listRenderedImages;
+	}
+
+	/**
+	 * The styles of the view are read by this method; the SVG document is loaded and rendered by the returned computation.
+	 *
+	 * @see org.eclipse.papyrus.infra.gmfdiag.common.service.shape.AbstractShapeProvider#prepareShapes(org.eclipse.emf.ecore.EObject)
+	 */
+	@Override
+	public Callable<List<RenderedImage>> prepareShapes(EObject view) {
+		if (!(view instanceof View) || !isShapeStyleEnable((View) view)) {
+			return super.prepareShapes(view);
+		}
+		final View v = (View) view;
+
+		String svgFile = extract((StringValueStyle) v.getNamedStyle(NotationPackage.eINSTANCE.getStringValueStyle(), STYLE_PROPERTY));
+		final String location = svgFile != null ? getSVGDocumentLocation(v, svgFile) : null;
+		final List<URL> imageURLs = getImageURLs(v);
+		return new Callable<List<RenderedImage>>() {
+
+			@Override
+			public List<RenderedImage> call() {
+				List<RenderedImage> listRenderedImages = new ArrayList<RenderedImage>();
+				if (location != null) {
+					renderSVGDocuments(v, Collections.singletonList(getSVGDocument(location)), listRenderedImages);
 				}
-				try {
-					RenderedImage renderSVGDocument = renderSVGDocument(view, document);
-					if (null != renderSVGDocument) {
-						listRenderedImages.add(renderSVGDocument);
-					}
-				} catch (IOException ex) {
-					Activator.log.error(ex);
+				for (URL url : imageURLs) {
+					listRenderedImages.add(RenderedImageFactory.getInstance(url));
 				}
+				return listRenderedImages;
 			}
-		}
+		};
+	}
 
-		// Check the other image file with the property 'imagePath'
-		String path = NotationUtils.getStringValue(view, IMAGE_PATH_PROPERTY, null);
-		if ((null != path) && (0 < path.length())) {
-			URL url;
+	/**
+	 * Renders the given SVG documents.
+	 *
+	 * @param view
+	 *            the view displaying the documents
+	 * @param documents
+	 *            the documents, some of them may be null
+	 * @param listRenderedImages
+	 *            the list where to add the rendered images
+	 */
+	private void renderSVGDocuments(View view, List<SVGDocument> documents, List<RenderedImage> listRenderedImages) {
+		if ((null == documents) || documents.isEmpty()) {
+			return;
+		}
+		for (SVGDocument document : documents) {
+			if (null == document) {
+				continue;
+			}
 			try {
-				url = new URL(path);
-				listRenderedImages.add(RenderedImageFactory.getInstance(url));
-			} catch (MalformedURLException e) {
-				URI typeResourceURI = view.eResource().getURI();
-				if (null != typeResourceURI) {
-					String workspaceRelativeFolderPath = typeResourceURI.trimSegments(1).toPlatformString(true);
-					try {
-						url = new URL("platform:/resource/" + workspaceRelativeFolderPath + File.separatorChar + path); //$NON-NLS-1$
-						listRenderedImages.add(RenderedImageFactory.getInstance(url));
-					} catch (MalformedURLException e1) {
-						Activator.log.error(e1);
-					}
+				RenderedImage renderSVGDocument = renderSVGDocument(view, document);
+				if (null != renderSVGDocument) {
+					listRenderedImages.add(renderSVGDocument);
 				}
+			} catch (IOException ex) {
+				Activator.log.error(ex);
 			}
 		}
+	}
 
-		return listRenderedImages;
+	/**
+	 * Returns the URLs of the image files given by the property 'imagePath' of the view.
+	 *
+	 * @param view
+	 *            the view
+	 * @return the URLs of the images, possibly empty
+	 */
+	private List<URL> getImageURLs(View view) {
+		String path = NotationUtils.getStringValue(view, IMAGE_PATH_PROPERTY, null);
+		if ((null == path) || (0 == path.length())) {
+			return Collections.emptyList();
+		}
+		try {
+			return Collections.singletonList(new URL(path));
+		} catch (MalformedURLException e) {
+			URI typeResourceURI = view.eResource().getURI();
+			if (null != typeResourceURI) {
+				String workspaceRelativeFolderPath = typeResourceURI.trimSegments(1).toPlatformString(true);
+				try {
+					return Collections.singletonList(new URL("platform:/resource/" + workspaceRelativeFolderPath + File.separatorChar + path)); //$NON-NLS-1$
+				} catch (MalformedURLException e1) {
+					Activator.log.error(e1);
+				}
+			}
+		}
+		return Collections.emptyList();
 	}
 
 	/**
@@ -174,8 +227,7 @@ public class StyleBasedShapeProvider extends AbstractShapeProvider {
 			return listEmptySVG;
 		}
 		SVGDocument svg = getSVGDocument(view, svgFile);
-		listSingletonSVG.set(0, svg);
-		return listSingletonSVG;
+		return Collections.singletonList(svg);
 	}
 
 	/**
@@ -240,16 +292,48 @@ public class StyleBasedShapeProvider extends AbstractShapeProvider {
 	 */
 	@Override
 	public ProviderNotificationManager createProviderNotificationManager(DiagramEventBroker diagramEventBroker, EObject view, NotificationListener notificationListener) {
-		if (manager != null) {
-			return manager;
-		}
-		manager = new ProviderNotificationManager(diagramEventBroker, view, notificationListener) {
+		// One manager per view: the shapes depend on the styles of the view
+		return new ProviderNotificationManager(diagramEventBroker, view, notificationListener) {
+
+			private NotificationListener styleListener;
+
 			@Override
 			protected void registerListeners() {
+				if (diagramEventBroker == null || view == null) {
+					return;
+				}
+				// The broker forwards the notifications of the styles to the listeners of their view
+				styleListener = new NotificationListener() {
+					@Override
+					public void notifyChanged(Notification notification) {
+						if (listener != null && isStyleNotification(notification)) {
+							listener.notifyChanged(notification);
+						}
+					}
+				};
+				diagramEventBroker.addNotificationListener(view, styleListener);
+			}
 
+			@Override
+			public void dispose() {
+				if (styleListener != null && diagramEventBroker != null) {
+					diagramEventBroker.removeNotificationListener(view, styleListener);
+					styleListener = null;
+				}
+				super.dispose();
 			}
 		};
-		return manager;
+	}
+
+	/**
+	 * Checks if the given notification is a change of the styles of a view, which may change its shapes.
+	 *
+	 * @param notification
+	 *            the notification received for a view
+	 * @return <code>true</code> if a style, or the list of styles of the view, changed
+	 */
+	private static boolean isStyleNotification(Notification notification) {
+		return notification.getNotifier() instanceof Style || notification.getFeature() == NotationPackage.eINSTANCE.getView_Styles();
 	}
 
 }
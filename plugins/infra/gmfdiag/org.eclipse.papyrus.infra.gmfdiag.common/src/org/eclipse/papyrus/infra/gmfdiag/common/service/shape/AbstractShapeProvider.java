@@ -19,8 +19,13 @@ package org.eclipse.papyrus.infra.gmfdiag.common.service.shape;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.apache.batik.dom.svg.SAXSVGDocumentFactory;
 import org.apache.batik.dom.util.DOMUtilities;
@@ -44,7 +49,9 @@ import org.eclipse.papyrus.infra.gmfdiag.common.handler.IRefreshHandlerPart;
 import org.eclipse.papyrus.infra.gmfdiag.common.handler.RefreshHandler;
 import org.eclipse.papyrus.infra.gmfdiag.common.utils.PositionEnum;
 import org.eclipse.papyrus.infra.ui.editor.IMultiDiagramEditor;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.PlatformUI;
 import org.w3c.dom.Document;
 import org.w3c.dom.svg.SVGDocument;
 
@@ -87,9 +94,22 @@ public abstract class AbstractShapeProvider extends AbstractProvider implements
 	 */
 	private WeakHashMap<Resource, Map<String, String>> relativePaths;
 
-	/** Cache for the loaded SVG document */
-	private Map<String, SVGDocument> cache;
+	/** maximum number of SVG documents kept in the cache */
+	private static final int CACHE_SIZE = 128;
 
+	/**
+	 * Cache for the loading of the SVG documents, shared by all the providers so that a document is parsed only once.
+	 * The least recently used documents are dropped, and the cache is cleared when the last editor is closed (see {@link SVGDocumentCacheService}).
+	 */
+	private static final Map<String, FutureTask<SVGDocument>> cache = new LinkedHashMap<String, FutureTask<SVGDocument>>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, FutureTask<SVGDocument>> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
 
 	/**
 	 * Initializes this provider
@@ -165,7 +185,22 @@ public abstract class AbstractShapeProvider extends AbstractProvider implements
 	 *            The location to load the document from
 	 * @return the Document SVG from its location, can return null if this is not a svg
 	 */
-	protected synchronized SVGDocument getSVGDocument(EObject view, String location) {
+	protected SVGDocument getSVGDocument(EObject view, String location) {
+		String canonical = getSVGDocumentLocation(view, location);
+		return canonical != null ? getSVGDocument(canonical) : null;
+	}
+
+	/**
+	 * Resolves the location of a SVG document referred to by a view, which may depend on the view and on its resource.
+	 *
+	 * @param view
+	 *            The view object to retrieve a svg document for
+	 * @param location
+	 *            The location of the document, as written in the style of the view
+	 * @return the canonical location of the document, which can be given to {@link #getSVGDocument(String)}, or null if
+	 *         the location cannot be resolved
+	 */
+	protected synchronized String getSVGDocumentLocation(EObject view, String location) {
 		if (relativePaths == null) {
 			relativePaths = new WeakHashMap<Resource, Map<String, String>>();
 		}
@@ -197,8 +232,40 @@ public abstract class AbstractShapeProvider extends AbstractProvider implements
 			}
 		}
 
-		String canonical = getCanonicalURI(view, location);
-		return getSVGDocument(canonical);
+		return getCanonicalURI(view, location);
+	}
+
+	/**
+	 * Prepares the computation of the shapes of the given view, which may then run on another thread (see {@link AsyncShapeLoader}).
+	 * <P>
+	 * This method is called on the display thread: it reads everything the shapes depend on, e.g. the styles of the view, so that the
+	 * returned computation does not access the view or the model any more. The default implementation computes the shapes right away;
+	 * the providers which override {@link #getShapes(EObject)} may override this method to defer the loading and the rendering of their shapes.
+	 * </P>
+	 *
+	 * @param view
+	 *            the view whose shapes are computed
+	 * @return the computation of the same shapes as {@link #getShapes(EObject)}
+	 */
+	public Callable<List<RenderedImage>> prepareShapes(EObject view) {
+		return computed(getShapes(view));
+	}
+
+	/**
+	 * Wraps shapes already computed.
+	 *
+	 * @param shapes
+	 *            the computed shapes
+	 * @return a computation returning the given shapes
+	 */
+	protected static Callable<List<RenderedImage>> computed(final List<RenderedImage> shapes) {
+		return new Callable<List<RenderedImage>>() {
+
+			@Override
+			public List<RenderedImage> call() {
+				return shapes;
+			}
+		};
 	}
 
 	/**
@@ -226,16 +293,35 @@ public abstract class AbstractShapeProvider extends AbstractProvider implements
 	 *            The location to load the document from
 	 * @return the Document SVG from its location, can return null if this is not a svg
 	 */
-	protected synchronized SVGDocument getSVGDocument(String location) {
-		if (cache == null) {
-			cache = new HashMap<String, SVGDocument>();
+	protected SVGDocument getSVGDocument(final String location) {
+		FutureTask<SVGDocument> loading;
+		boolean loader = false;
+		synchronized (cache) {
+			loading = cache.get(location);
+			if (loading == null) {
+				loading = new FutureTask<SVGDocument>(new Callable<SVGDocument>() {
+
+					@Override
+					public SVGDocument call() {
+						return doGetSVGDocument(location);
+					}
+				});
+				cache.put(location, loading);
+				loader = true;
+			}
 		}
-		if (cache.containsKey(location)) {
-			return cache.get(location);
+		// The document is parsed outside of the lock: the other threads only wait for the documents they ask for
+		if (loader) {
+			loading.run();
 		}
-		SVGDocument doc = doGetSVGDocument(location);
-		cache.put(location, doc);
-		return doc;
+		try {
+			return loading.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			org.eclipse.papyrus.infra.core.Activator.log.error(e.getCause());
+		}
+		return null;
 	}
 
 	/**
@@ -312,13 +398,58 @@ public abstract class AbstractShapeProvider extends AbstractProvider implements
 	}
 
 	protected RenderedImage renderSVGDocument(EObject view, SVGDocument document) throws IOException {
-		postProcess(view, document);
-		String svgAsText = toString(document);
+		String svgAsText;
+		// The cached documents are shared by the views, and may be rendered concurrently (see AsyncShapeLoader):
+		// the post-processors transform a copy of the document
+		if (isPostProcessed()) {
+			SVGDocument copy;
+			synchronized (document) {
+				copy = (SVGDocument) document.cloneNode(true);
+			}
+			postProcessOnDisplay(view, copy);
+			svgAsText = toString(copy);
+		} else {
+			synchronized (document) {
+				svgAsText = toString(document);
+			}
+		}
 		byte[] buffer = svgAsText.getBytes();
 
 		return RenderedImageFactory.getInstance(buffer);
 	}
 
+	/**
+	 * Post-processes a copy of a SVG document. The post-processors may read the view, so they run on the display thread
+	 * when the document is rendered by another thread (see {@link AsyncShapeLoader}); the rest of the rendering does not.
+	 *
+	 * @param view
+	 *            the view displaying the document
+	 * @param document
+	 *            the copy of the document to post-process
+	 */
+	private void postProcessOnDisplay(final EObject view, final SVGDocument document) {
+		if (Display.getCurrent() != null || !PlatformUI.isWorkbenchRunning()) {
+			postProcess(view, document);
+			return;
+		}
+		PlatformUI.getWorkbench().getDisplay().syncExec(new Runnable() {
+
+			@Override
+			public void run() {
+				postProcess(view, document);
+			}
+		});
+	}
+
+	/**
+	 * Checks if the SVG documents are post-processed before their rendering.
+	 *
+	 * @return <code>true</code> if SVG post-processors are declared
+	 */
+	protected boolean isPostProcessed() {
+		return !(SVGPostProcessor.instance instanceof SVGPostProcessorImpl) || !((SVGPostProcessorImpl) SVGPostProcessor.instance).isEmpty();
+	}
+
 	protected void postProcess(EObject view, SVGDocument document) {
 		SVGPostProcessor.instance.postProcess(view, document);
 	}
@@ -338,11 +469,18 @@ public abstract class AbstractShapeProvider extends AbstractProvider implements
 	public synchronized void refresh(IEditorPart editorPart) {
 		// Clears the cache of loaded SVG documents
 		// This will force their reloading
-		if (cache != null) {
-			cache.clear();
-		}
+		clearCache();
 		if (relativePaths != null) {
 			relativePaths.clear();
 		}
 	}
+
+	/**
+	 * Clears the cache of loaded SVG documents, shared by all the providers.
+	 */
+	static void clearCache() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
 }
@@ -0,0 +1,171 @@
+/*****************************************************************************
+ * Copyright (c) 2019 Telefonaktiebolaget LM Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.papyrus.infra.gmfdiag.common.service.shape;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gmf.runtime.draw2d.ui.render.RenderedImage;
+import org.eclipse.papyrus.infra.gmfdiag.common.Activator;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Computes the shapes of the views on a small pool of background threads, so the loading and rendering of the
+ * SVG documents do not block the display thread.
+ * <P>
+ * The views are not accessed by the background threads: the styles the shapes depend on are resolved on the display
+ * thread by {@link ShapeService#prepareShapesToDisplay(EObject)}, and the pool only runs the prepared computation. The
+ * shapes are handed to the display thread. Cancelling the returned {@link Future} on the display thread drops the result:
+ * the callback is not called any more, and pending requests are not computed at all.
+ * </P>
+ * <P>
+ * The loading is synchronous when the system property {@value #SYNCHRONOUS_PROPERTY} is set to <code>true</code>.
+ * </P>
+ */
+public class AsyncShapeLoader {
+
+	/** system property disabling the asynchronous loading of the shapes */
+	public static final String SYNCHRONOUS_PROPERTY = "papyrus.shapes.synchronous"; //$NON-NLS-1$
+
+	/** singleton instance */
+	private static AsyncShapeLoader instance;
+
+	private final boolean enabled = !Boolean.getBoolean(SYNCHRONOUS_PROPERTY);
+
+	/** the shapes are shared by the views, so a few threads are enough */
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * Constructor (hidden: singleton instance).
+	 */
+	protected AsyncShapeLoader() {
+		int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+		executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Papyrus shape loader " + count.incrementAndGet()); //$NON-NLS-1$
+				thread.setDaemon(true);
+				thread.setPriority(Thread.NORM_PRIORITY - 1);
+				return thread;
+			}
+		});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Returns the singleton instance of this loader.
+	 *
+	 * @return the singleton instance
+	 */
+	public static synchronized AsyncShapeLoader getInstance() {
+		if (instance == null) {
+			instance = new AsyncShapeLoader();
+		}
+		return instance;
+	}
+
+	/**
+	 * @return <code>false</code> if the shapes have to be loaded synchronously
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Computes the shapes to display of a view in background.
+	 *
+	 * @param shapes
+	 *            the computation of the shapes, from {@link ShapeService#prepareShapesToDisplay(EObject)}
+	 * @param display
+	 *            the display in which the shapes are handed
+	 * @param callback
+	 *            called in the display thread with the shapes of the view, unless the request is cancelled or the display is disposed
+	 * @return the future of the request, to cancel it
+	 */
+	public Future<?> load(Callable<List<RenderedImage>> shapes, Display display, Consumer<List<RenderedImage>> callback) {
+		ShapesLoading loading = new ShapesLoading(shapes, display, callback);
+		executor.execute(loading);
+		return loading;
+	}
+
+	/**
+	 * A request of shapes, which hands its result to the display thread unless it is cancelled.
+	 */
+	private static class ShapesLoading extends FutureTask<List<RenderedImage>> {
+
+		private final Display display;
+
+		private final Consumer<List<RenderedImage>> callback;
+
+		/** set by {@link #cancel(boolean)}, which does not succeed once the shapes are computed */
+		private volatile boolean cancelled;
+
+		ShapesLoading(Callable<List<RenderedImage>> shapes, Display display, Consumer<List<RenderedImage>> callback) {
+			super(shapes);
+			this.display = display;
+			this.callback = callback;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			cancelled = true;
+			return super.cancel(mayInterruptIfRunning);
+		}
+
+		@Override
+		protected void done() {
+			if (cancelled) {
+				return;
+			}
+			final List<RenderedImage> shapes;
+			try {
+				shapes = get();
+			} catch (ExecutionException e) {
+				Activator.log.error(e.getCause());
+				return;
+			} catch (InterruptedException | CancellationException e) {
+				return;
+			}
+			try {
+				display.asyncExec(new Runnable() {
+
+					@Override
+					public void run() {
+						// The request may have been cancelled meanwhile
+						if (!cancelled) {
+							callback.accept(shapes);
+						}
+					}
+				});
+			} catch (SWTException e) {
+				// the display has been disposed meanwhile: nothing to show
+			}
+		}
+	}
+}
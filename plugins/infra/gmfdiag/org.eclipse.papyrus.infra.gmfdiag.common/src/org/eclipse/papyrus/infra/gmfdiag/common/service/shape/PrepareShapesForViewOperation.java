@@ -0,0 +1,66 @@
+/*****************************************************************************
+ * Copyright (c) 2019 Telefonaktiebolaget LM Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.papyrus.infra.gmfdiag.common.service.shape;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gmf.runtime.common.core.service.IOperation;
+import org.eclipse.gmf.runtime.common.core.service.IProvider;
+import org.eclipse.gmf.runtime.draw2d.ui.render.RenderedImage;
+
+/**
+ * Operation to prepare the computation of the shapes of a view, see {@link AbstractShapeProvider#prepareShapes(EObject)}
+ */
+public class PrepareShapesForViewOperation implements IOperation, IShapeProviderOperation {
+
+	/** View from which shape has to be retrieved */
+	private final EObject view;
+
+	/**
+	 * Creates a new PrepareShapesForViewOperation.
+	 *
+	 * @param view
+	 *            the EObject for which shapes has to be found
+	 */
+	protected PrepareShapesForViewOperation(EObject view) {
+		assert null != view : "PrepareShapesForViewOperation constructor received NULL as argument"; //$NON-NLS-1$
+		this.view = view;
+	}
+
+	/**
+	 * @{inheritDoc
+	 */
+	@Override
+	public Callable<List<RenderedImage>> execute(IProvider provider) {
+		if (provider instanceof AbstractShapeProvider) {
+			return ((AbstractShapeProvider) provider).prepareShapes(getView());
+		}
+		if (!(provider instanceof IShapeProvider)) {
+			return null;
+		}
+		// The other providers compute their shapes right away
+		return AbstractShapeProvider.computed(((IShapeProvider) provider).getShapes(getView()));
+	}
+
+	/**
+	 * Returns the view for which this operation is looking for shapes
+	 *
+	 * @return the view for which this operation is looking for shapes
+	 */
+	protected EObject getView() {
+		return view;
+	}
+}
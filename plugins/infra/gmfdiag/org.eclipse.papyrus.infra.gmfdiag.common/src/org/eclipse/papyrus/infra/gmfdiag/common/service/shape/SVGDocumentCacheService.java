@@ -0,0 +1,57 @@
+/*****************************************************************************
+ * Copyright (c) 2019 Telefonaktiebolaget LM Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *****************************************************************************/
+package org.eclipse.papyrus.infra.gmfdiag.common.service.shape;
+
+import org.eclipse.papyrus.infra.core.services.IService;
+import org.eclipse.papyrus.infra.core.services.ServiceException;
+import org.eclipse.papyrus.infra.core.services.ServicesRegistry;
+
+/**
+ * A service that clears the SVG documents cached by the shape providers when the last editor is closed.
+ * It is started with the services registry of each editor, and only counts the open registries.
+ */
+public class SVGDocumentCacheService implements IService {
+
+	/** number of started services, i.e. of open editors */
+	private static int openServices;
+
+	private boolean started;
+
+	@Override
+	public void init(ServicesRegistry servicesRegistry) throws ServiceException {
+		// Nothing to initialize
+	}
+
+	@Override
+	public void startService() throws ServiceException {
+		synchronized (SVGDocumentCacheService.class) {
+			if (!started) {
+				started = true;
+				openServices++;
+			}
+		}
+	}
+
+	@Override
+	public void disposeService() throws ServiceException {
+		synchronized (SVGDocumentCacheService.class) {
+			if (started) {
+				started = false;
+				if (--openServices == 0) {
+					AbstractShapeProvider.clearCache();
+				}
+			}
+		}
+	}
+}
@@ -68,6 +68,13 @@ public class SVGPostProcessorImpl implements SVGPostProcessor, IRefreshHandlerPa
 	}
 
 
+	/**
+	 * @return <code>true</code> if no post-processor is declared
+	 */
+	public boolean isEmpty() {
+		return processors.isEmpty();
+	}
+
 	/**
 	 * @see org.eclipse.papyrus.infra.gmfdiag.common.handler.IRefreshHandlerPart#refresh(org.eclipse.ui.IEditorPart)
 	 *
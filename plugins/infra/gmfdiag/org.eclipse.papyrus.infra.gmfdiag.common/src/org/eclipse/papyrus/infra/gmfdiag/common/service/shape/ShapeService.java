@@ -18,9 +18,13 @@ package org.eclipse.papyrus.infra.gmfdiag.common.service.shape;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.gmf.runtime.common.core.service.ExecutionStrategy;
 import org.eclipse.gmf.runtime.common.core.service.IOperation;
@@ -32,13 +36,21 @@ import org.eclipse.gmf.runtime.diagram.core.listener.NotificationListener;
 import org.eclipse.gmf.runtime.draw2d.ui.render.RenderedImage;
 import org.eclipse.gmf.runtime.notation.View;
 import org.eclipse.papyrus.infra.gmfdiag.common.Activator;
+import org.eclipse.papyrus.infra.gmfdiag.common.handler.IRefreshHandlerPart;
+import org.eclipse.papyrus.infra.gmfdiag.common.handler.RefreshHandler;
 import org.eclipse.papyrus.infra.gmfdiag.common.model.NotationUtils;
+import org.eclipse.ui.IEditorPart;
 import org.w3c.dom.svg.SVGDocument;
 
 /**
  * Service that manages shape.
+ * <P>
+ * The shapes computed by the providers are cached per view, and shared by the <code>hasShape*</code> and <code>get*</code> methods.
+ * Only the views watched by a {@link NotificationManager} are cached: the notifications of its provider managers
+ * invalidate the cached shapes of the view, and the cache entry is released when the last manager of the view is disposed.
+ * </P>
  */
-public class ShapeService extends org.eclipse.gmf.runtime.common.core.service.Service {
+public class ShapeService extends org.eclipse.gmf.runtime.common.core.service.Service implements IRefreshHandlerPart {
 
 	/**
 	 * 
@@ -53,6 +65,9 @@ public class ShapeService extends org.eclipse.gmf.runtime.common.core.service.Se
 	/** singleton instance */
 	private static ShapeService instance;
 
+	/** cached shapes, by view. Views are weakly referenced in case a notification manager is not disposed */
+	private final Map<EObject, CachedShapes> cache = new WeakHashMap<EObject, CachedShapes>();
+
 	/**
 	 * Constructor (hidden: singleton instance).
 	 */
@@ -66,15 +81,7 @@ public class ShapeService extends org.eclipse.gmf.runtime.common.core.service.Se
 	 * @return <code>true</code> if a shape should be displayed
 	 */
 	public boolean hasShapeToDisplay(EObject view) {
-		@SuppressWarnings("unchecked")
-		List<List<RenderedImage>> images = execute(ExecutionStrategy.REVERSE, new GetShapesForViewOperation(view));
-		Iterator<List<RenderedImage>> iterator = images.iterator();
-		boolean hasRealImage = false;
-		while (!hasRealImage && iterator.hasNext()) { // strategy gives a lot of null && empty list check if there is a real one
-			List<RenderedImage> next = iterator.next();
-			hasRealImage = next!=null && !next.isEmpty() ;
-		} 
-		return hasRealImage;
+		return !getAllShapes(view).isEmpty();
 	}	
 
 	/**
@@ -83,15 +90,7 @@ public class ShapeService extends org.eclipse.gmf.runtime.common.core.service.Se
 	 * @return <code>true</code> if one or several decorations should be displayed
 	 */
 	public boolean hasShapeDecorationToDisplay(EObject view) {
-		@SuppressWarnings("unchecked")
-		List<List<RenderedImage>> images = execute(ExecutionStrategy.REVERSE, new GetShapeDecorationsForViewOperation(view));
-		Iterator<List<RenderedImage>> iterator = images.iterator();
-		boolean hasRealImage = false;
-		while (!hasRealImage && iterator.hasNext()) { // strategy gives a lot of null && empty list check if there is a real one
-			List<RenderedImage> next = iterator.next();
-			hasRealImage = next!=null && !next.isEmpty() ;
-		} 
-		return hasRealImage;
+		return !getAllShapeDecorations(view).isEmpty();
 	}
 
 	/**
@@ -102,20 +101,61 @@ public class ShapeService extends org.eclipse.gmf.runtime.common.core.service.Se
 	 * @return the shape to be displayed
 	 */
 	public List<RenderedImage> getShapesToDisplay(EObject view) {
-		@SuppressWarnings("unchecked")
-		List<List<RenderedImage>> listOfListOfImages = execute(ExecutionStrategy.FORWARD, new GetShapesForViewOperation(view));
-		List<RenderedImage> images = new ArrayList<RenderedImage>();
-		for (List<RenderedImage> listOfImages : listOfListOfImages) {
-			if (listOfImages != null && !listOfImages.isEmpty()) {
-				images.addAll(listOfImages);
-			}
-		}
+		List<RenderedImage> images = getAllShapes(view);
 		// Get the number of images to display
 		int nbImagesToDisplay = NotationUtils.getIntValue((View) view, MAX_NUMBER_OF_SYMBOL, getDefaultMaxNumberOfSymbol());
 
-		return images.subList(0, Math.min(nbImagesToDisplay, images.size()));
+		return new ArrayList<RenderedImage>(images.subList(0, Math.min(nbImagesToDisplay, images.size())));
 	}
 	
+	/**
+	 * Prepares the computation of the shapes to be displayed, which may then run on another thread (see {@link AsyncShapeLoader}).
+	 * <P>
+	 * The view and its styles, e.g. the number of symbols to display, are read by this method. The returned computation does not
+	 * access the view: it only loads and renders the shapes, and caches them as {@link #getShapesToDisplay(EObject)} does.
+	 * </P>
+	 *
+	 * @param view
+	 *            the EObject for which the shape is computed
+	 * @return the computation of the shapes to be displayed
+	 */
+	public Callable<List<RenderedImage>> prepareShapesToDisplay(EObject view) {
+		// Get the number of images to display
+		final int nbImagesToDisplay = NotationUtils.getIntValue((View) view, MAX_NUMBER_OF_SYMBOL, getDefaultMaxNumberOfSymbol());
+		final CachedShapes cached;
+		final int version;
+		synchronized (cache) {
+			cached = cache.get(view);
+			if (cached != null && cached.shapes != null) {
+				return AbstractShapeProvider.computed(new ArrayList<RenderedImage>(cached.shapes.subList(0, Math.min(nbImagesToDisplay, cached.shapes.size()))));
+			}
+			version = cached != null ? cached.version : 0;
+		}
+		@SuppressWarnings("unchecked")
+		final List<Callable<List<RenderedImage>>> computations = execute(ExecutionStrategy.FORWARD, new PrepareShapesForViewOperation(view));
+		return new Callable<List<RenderedImage>>() {
+
+			@Override
+			public List<RenderedImage> call() throws Exception {
+				List<RenderedImage> images = new ArrayList<RenderedImage>();
+				for (Callable<List<RenderedImage>> computation : computations) {
+					List<RenderedImage> shapes = computation != null ? computation.call() : null;
+					if (shapes != null && !shapes.isEmpty()) {
+						images.addAll(shapes);
+					}
+				}
+				if (cached != null) {
+					synchronized (cache) {
+						if (cached.version == version) {
+							cached.shapes = images;
+						}
+					}
+				}
+				return new ArrayList<RenderedImage>(images.subList(0, Math.min(nbImagesToDisplay, images.size())));
+			}
+		};
+	}
+
 	/**
 	 * Returns the shape to be displayed
 	 *
@@ -124,18 +164,11 @@ public class ShapeService extends org.eclipse.gmf.runtime.common.core.service.Se
 	 * @return the shape to be displayed
 	 */
 	public List<RenderedImage> getShapeDecorationsToDisplay(EObject view) {
-		@SuppressWarnings("unchecked")
-		List<List<RenderedImage>> listOfListOfImages = execute(ExecutionStrategy.FORWARD, new GetShapeDecorationsForViewOperation(view));
-		List<RenderedImage> images = new ArrayList<RenderedImage>();
-		for (List<RenderedImage> listOfImages : listOfListOfImages) {
-			if (listOfImages != null && !listOfImages.isEmpty()) {
-				images.addAll(listOfImages);
-			}
-		}
+		List<RenderedImage> images = getAllShapeDecorations(view);
 		// Get the number of images to display
 		int nbImagesToDisplay = NotationUtils.getIntValue((View) view, MAX_NUMBER_OF_SYMBOL_DECORATION, getDefaultMaxNumberOfSymbolDecoration());
 
-		return images.subList(0, Math.min(nbImagesToDisplay, images.size()));
+		return new ArrayList<RenderedImage>(images.subList(0, Math.min(nbImagesToDisplay, images.size())));
 	}
 
 	/**
@@ -146,19 +179,144 @@ public class ShapeService extends org.eclipse.gmf.runtime.common.core.service.Se
 	 * @return the shape to be displayed
 	 */
 	public List<SVGDocument> getSVGDocumentToDisplay(EObject view) {
+		List<SVGDocument> images = getAllSVGDocuments(view);
+		// Get the number of images to display
+		int nbImagesToDisplay = NotationUtils.getIntValue((View) view, MAX_NUMBER_OF_SYMBOL, getDefaultMaxNumberOfSymbol());
+
+		return new ArrayList<SVGDocument>(images.subList(0, Math.min(nbImagesToDisplay, images.size())));
+	}
+
+	/**
+	 * Returns all the shapes of the providers for the given view, from the cache if possible.
+	 */
+	private List<RenderedImage> getAllShapes(EObject view) {
+		CachedShapes cached;
+		int version;
+		synchronized (cache) {
+			cached = cache.get(view);
+			if (cached != null && cached.shapes != null) {
+				return cached.shapes;
+			}
+			version = cached != null ? cached.version : 0;
+		}
 		@SuppressWarnings("unchecked")
-		List<List<SVGDocument>> listOfListOfImages = execute(ExecutionStrategy.FORWARD, new GetSVGDocumentForViewOperation(view));
+		List<RenderedImage> shapes = flatten(execute(ExecutionStrategy.FORWARD, new GetShapesForViewOperation(view)));
+		if (cached != null) {
+			synchronized (cache) {
+				if (cached.version == version) {
+					cached.shapes = shapes;
+				}
+			}
+		}
+		return shapes;
+	}
+
+	/**
+	 * Returns all the shape decorations of the providers for the given view, from the cache if possible.
+	 */
+	private List<RenderedImage> getAllShapeDecorations(EObject view) {
+		CachedShapes cached;
+		int version;
+		synchronized (cache) {
+			cached = cache.get(view);
+			if (cached != null && cached.decorations != null) {
+				return cached.decorations;
+			}
+			version = cached != null ? cached.version : 0;
+		}
+		@SuppressWarnings("unchecked")
+		List<RenderedImage> decorations = flatten(execute(ExecutionStrategy.FORWARD, new GetShapeDecorationsForViewOperation(view)));
+		if (cached != null) {
+			synchronized (cache) {
+				if (cached.version == version) {
+					cached.decorations = decorations;
+				}
+			}
+		}
+		return decorations;
+	}
+
+	/**
+	 * Returns all the SVG documents of the providers for the given view, from the cache if possible.
+	 */
+	private List<SVGDocument> getAllSVGDocuments(EObject view) {
+		CachedShapes cached;
+		int version;
+		synchronized (cache) {
+			cached = cache.get(view);
+			if (cached != null && cached.svgDocuments != null) {
+				return cached.svgDocuments;
+			}
+			version = cached != null ? cached.version : 0;
+		}
 		// lists of images are sort by priority from the highest to the lowest
-		List<SVGDocument> images = new ArrayList<SVGDocument>();
-		for (List<SVGDocument> listOfImages : listOfListOfImages) {
-			if (listOfImages != null && !listOfImages.isEmpty()) {
-				images.addAll(listOfImages);
+		@SuppressWarnings("unchecked")
+		List<SVGDocument> svgDocuments = flatten(execute(ExecutionStrategy.FORWARD, new GetSVGDocumentForViewOperation(view)));
+		if (cached != null) {
+			synchronized (cache) {
+				if (cached.version == version) {
+					cached.svgDocuments = svgDocuments;
+				}
 			}
 		}
-		// Get the number of images to display
-		int nbImagesToDisplay = NotationUtils.getIntValue((View) view, MAX_NUMBER_OF_SYMBOL, getDefaultMaxNumberOfSymbol());
+		return svgDocuments;
+	}
+
+	/**
+	 * Concatenates the results of the providers. The strategy gives a lot of null and empty lists.
+	 */
+	private static <T> List<T> flatten(List<List<T>> listOfLists) {
+		List<T> res = new ArrayList<T>();
+		for (List<T> list : listOfLists) {
+			if (list != null && !list.isEmpty()) {
+				res.addAll(list);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Checks if the shapes of the given view are already computed, i.e. if {@link #getShapesToDisplay(EObject)}
+	 * does not need to call the providers.
+	 *
+	 * @param view
+	 *            the view
+	 * @return <code>true</code> if the shapes of the view are cached
+	 */
+	public boolean hasCachedShapes(EObject view) {
+		synchronized (cache) {
+			CachedShapes cached = cache.get(view);
+			return cached != null && cached.shapes != null;
+		}
+	}
+
+	/**
+	 * Discards the cached shapes of the given view, which are computed again on the next request.
+	 *
+	 * @param view
+	 *            the view whose shapes may have changed
+	 */
+	public void invalidate(EObject view) {
+		synchronized (cache) {
+			CachedShapes cached = cache.get(view);
+			if (cached != null) {
+				cached.invalidate();
+			}
+		}
+	}
 
-		return images.subList(0, Math.min(nbImagesToDisplay, images.size()));
+	/**
+	 * Discards the cached shapes of all the views.
+	 *
+	 * @see org.eclipse.papyrus.infra.gmfdiag.common.handler.IRefreshHandlerPart#refresh(org.eclipse.ui.IEditorPart)
+	 */
+	@Override
+	public void refresh(IEditorPart editorPart) {
+		synchronized (cache) {
+			for (CachedShapes cached : cache.values()) {
+				cached.invalidate();
+			}
+		}
 	}
 
 	/**
@@ -201,6 +359,7 @@ public class ShapeService extends org.eclipse.gmf.runtime.common.core.service.Se
 		if (instance == null) {
 			instance = new ShapeService();
 			configureProviders();
+			RefreshHandler.register(instance);
 		}
 		return instance;
 	}
@@ -317,11 +476,64 @@ public class ShapeService extends org.eclipse.gmf.runtime.common.core.service.Se
 	 *            the listener notified when the event broker fires a notification
 	 * @return the created notification provider
 	 */
-	public NotificationManager createNotificationManager(DiagramEventBroker diagramEventBroker, EObject view, NotificationListener notificationListener) {
-		NotificationManager manager = new NotificationManager(view);
-		List<ProviderNotificationManager> providerNotificationManagers = createProviderNotificationManagers(diagramEventBroker, view, notificationListener);
+	public NotificationManager createNotificationManager(DiagramEventBroker diagramEventBroker, final EObject view, final NotificationListener notificationListener) {
+		synchronized (cache) {
+			CachedShapes cached = cache.get(view);
+			if (cached == null) {
+				cached = new CachedShapes();
+				cache.put(view, cached);
+			}
+			cached.managers++;
+		}
+
+		NotificationManager manager = new NotificationManager(view) {
+			@Override
+			public void dispose() {
+				super.dispose();
+				synchronized (cache) {
+					CachedShapes cached = cache.get(view);
+					if (cached != null && --cached.managers <= 0) {
+						cache.remove(view);
+					}
+				}
+			}
+		};
+		// The cached shapes of the view are discarded before the listener refreshes its display.
+		NotificationListener cacheListener = new NotificationListener() {
+			@Override
+			public void notifyChanged(Notification notification) {
+				invalidate(view);
+				notificationListener.notifyChanged(notification);
+			}
+		};
+		List<ProviderNotificationManager> providerNotificationManagers = createProviderNotificationManagers(diagramEventBroker, view, cacheListener);
 		manager.getProviderNotificationManagers().addAll(providerNotificationManagers);
 		return manager;
 	}
 
+	/**
+	 * Shapes of a view computed by the providers, or null if not computed yet.
+	 */
+	private static class CachedShapes {
+
+		/** number of notification managers watching the view */
+		int managers;
+
+		/** incremented on each invalidation, so that shapes computed meanwhile are not cached */
+		int version;
+
+		List<RenderedImage> shapes;
+
+		List<RenderedImage> decorations;
+
+		List<SVGDocument> svgDocuments;
+
+		void invalidate() {
+			version++;
+			shapes = null;
+			decorations = null;
+			svgDocuments = null;
+		}
+	}
+
 }
@@ -24,13 +24,19 @@ import static org.eclipse.papyrus.uml.diagram.common.stereotype.IStereotypePrope
 import static org.eclipse.papyrus.uml.diagram.common.stereotype.IStereotypePropertyReferenceEdgeAdvice.STEREOTYPE_QUALIFIED_NAME_ANNOTATION_KEY;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EAnnotation;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.gmf.runtime.notation.BasicCompartment;
 import org.eclipse.gmf.runtime.notation.DecorationNode;
 import org.eclipse.gmf.runtime.notation.Edge;
@@ -131,6 +137,20 @@ public class GMFUMLElementAdapter extends GMFElementAdapter {
 	 */
 	public static final String QUALIFIER_SEPARATOR = "--"; //$NON-NLS-1$
 
+	/** The cached UML attributes, by name. Null values are cached too. */
+	private final Map<String, String> attributeCache = new HashMap<String, String>();
+
+	/** The last change stamp when the cache was reset. */
+	private long cacheStamp;
+
+	/** The change stamps of the objects the cached attributes depend on. */
+	private List<ChangeStamp> cacheDependencies;
+
+	/** Counters of the attributes got from the caches, or computed. */
+	private static final AtomicLong cacheHits = new AtomicLong();
+
+	private static final AtomicLong cacheMisses = new AtomicLong();
+
 	public GMFUMLElementAdapter(View view, ExtendedCSSEngine engine) {
 		super(view, engine);
 		helper = CSSDOMUMLSemanticElementHelper.getInstance();
@@ -139,7 +159,8 @@ public class GMFUMLElementAdapter extends GMFElementAdapter {
 	/**
 	 * {@inheritDoc}
 	 *
-	 * Applied Stereotypes are manipulated as DOM Attributes
+	 * Applied Stereotypes are manipulated as DOM Attributes. They are computed by
+	 * {@link #doGetUMLAttribute(String)} and cached per adapter.
 	 */
 	@Override
 	protected String doGetAttribute(String attr) {
@@ -150,6 +171,44 @@ public class GMFUMLElementAdapter extends GMFElementAdapter {
 			return parentValue;
 		}
 
+		if (!isAttributeCacheValid()) {
+			resetAttributeCache();
+		}
+		if (attributeCache.containsKey(attr)) {
+			cacheHits.incrementAndGet();
+			return attributeCache.get(attr);
+		}
+		cacheMisses.incrementAndGet();
+		String value = doGetUMLAttribute(attr);
+		if (isCacheable(attr)) {
+			attributeCache.put(attr, value);
+		}
+		return value;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Releases the change stamps the attribute cache depends on.
+	 */
+	@Override
+	public void dispose() {
+		super.dispose();
+		attributeCache.clear();
+		releaseCacheDependencies();
+	}
+
+	/**
+	 * Computes the UML specific attributes (stereotypes, stereotype properties...), when the attribute is
+	 * not resolved by the parent adapter. The result is cached until the view, the semantic element, its
+	 * type or their stereotype applications change, unless it depends on other objects (see
+	 * {@link #isCacheable(String)}).
+	 *
+	 * @param attr
+	 *            the attribute name
+	 * @return the value of the attribute, or null if it is not defined for this element
+	 */
+	protected String doGetUMLAttribute(String attr) {
 
 		// get stereotype Label attribute
 		if (stereotypeHelper.isStereotypeLabel(semanticElement)) {
@@ -298,6 +357,108 @@ public class GMFUMLElementAdapter extends GMFElementAdapter {
 		return null;
 	}
 
+	/**
+	 * Tells whether an attribute only depends on the objects the cache tracks. It is not the case of the
+	 * frame attribute (the container of the view), the connector end type (the roles of the connector),
+	 * the time event action (its triggers), the attributes of the stereotype display views (the displayed
+	 * properties) and the stereotype properties referencing other elements (their names).
+	 *
+	 * @param attr
+	 *            the attribute name
+	 * @return true if the value of the attribute can be cached
+	 */
+	private boolean isCacheable(String attr) {
+		if (IS_FRAME.equals(attr) || CONNECTOR_END_TYPE_PROPERTY.equals(attr) || IS_TIME_EVENT_ACTION_PROPERTY.equals(attr)) {
+			return false;
+		}
+		if (stereotypeHelper.isStereotypeLabel(semanticElement) || stereotypeHelper.isStereotypeCompartment(semanticElement)
+				|| stereotypeHelper.isStereotypeBrace(semanticElement) || stereotypeHelper.isStereotypeProperty(semanticElement)
+				|| stereotypeHelper.isStereotypeBraceProperty(semanticElement)) {
+			return false;
+		}
+		if (semanticElement instanceof Element) {
+			int separator = attr.lastIndexOf(QUALIFIER_SEPARATOR);
+			String propertyName = separator < 0 ? attr : attr.substring(separator + QUALIFIER_SEPARATOR.length());
+			for (EObject stereotypeApplication : ((Element) semanticElement).getStereotypeApplications()) {
+				if (stereotypeApplication.eClass().getEStructuralFeature(propertyName) instanceof EReference) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private boolean isAttributeCacheValid() {
+		if (cacheDependencies == null) {
+			return false;
+		}
+		for (ChangeStamp dependency : cacheDependencies) {
+			if (dependency.stamp > cacheStamp) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void resetAttributeCache() {
+		attributeCache.clear();
+		releaseCacheDependencies();
+		cacheStamp = ChangeStamp.lastStamp.get();
+		cacheDependencies = new ArrayList<ChangeStamp>();
+		addCacheDependency(notationElement);
+		addCacheDependency(semanticElement);
+		if (semanticElement instanceof Element) {
+			// Applying a stereotype is notified on the base element by the Papyrus stereotype listener
+			for (EObject stereotypeApplication : ((Element) semanticElement).getStereotypeApplications()) {
+				addCacheDependency(stereotypeApplication);
+			}
+		}
+		if (semanticElement instanceof TypedElement && ((TypedElement) semanticElement).getType() != null) {
+			Type type = ((TypedElement) semanticElement).getType();
+			addCacheDependency(type);
+			for (EObject stereotypeApplication : type.getStereotypeApplications()) {
+				addCacheDependency(stereotypeApplication);
+			}
+		}
+	}
+
+	private void addCacheDependency(EObject object) {
+		if (object != null) {
+			cacheDependencies.add(ChangeStamp.acquire(object));
+		}
+	}
+
+	private void releaseCacheDependencies() {
+		if (cacheDependencies != null) {
+			for (ChangeStamp dependency : cacheDependencies) {
+				dependency.release();
+			}
+			cacheDependencies = null;
+		}
+	}
+
+	/**
+	 * @return the number of UML attributes got from the caches of the adapters
+	 */
+	public static long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	/**
+	 * @return the number of UML attributes computed because they were not cached
+	 */
+	public static long getCacheMisses() {
+		return cacheMisses.get();
+	}
+
+	/**
+	 * Resets the cache hit and miss counters
+	 */
+	public static void resetCacheStatistics() {
+		cacheHits.set(0);
+		cacheMisses.set(0);
+	}
+
 	/**
 	 * Checks if is accept time event action.
 	 *
@@ -442,4 +603,46 @@ public class GMFUMLElementAdapter extends GMFElementAdapter {
 
 		return localName == null ? super.getLocalName() : localName;
 	}
+
+	/**
+	 * Records the last change of an EObject. A single instance is shared by all the adapters depending on
+	 * the object, and it is removed from the object when the last of them releases it.
+	 */
+	private static class ChangeStamp extends AdapterImpl {
+
+		private static final AtomicLong lastStamp = new AtomicLong();
+
+		private volatile long stamp;
+
+		private int users;
+
+		static ChangeStamp acquire(EObject object) {
+			ChangeStamp changeStamp = (ChangeStamp) EcoreUtil.getExistingAdapter(object, ChangeStamp.class);
+			if (changeStamp == null) {
+				changeStamp = new ChangeStamp();
+				object.eAdapters().add(changeStamp);
+			}
+			changeStamp.users++;
+			return changeStamp;
+		}
+
+		void release() {
+			users--;
+			if (users == 0 && getTarget() != null) {
+				getTarget().eAdapters().remove(this);
+			}
+		}
+
+		@Override
+		public void notifyChanged(Notification notification) {
+			if (!notification.isTouch()) {
+				stamp = lastStamp.incrementAndGet();
+			}
+		}
+
+		@Override
+		public boolean isAdapterForType(Object type) {
+			return type == ChangeStamp.class;
+		}
+	}
 }
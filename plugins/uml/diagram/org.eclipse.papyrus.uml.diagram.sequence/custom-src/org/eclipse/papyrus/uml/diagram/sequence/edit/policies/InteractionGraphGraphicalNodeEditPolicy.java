@@ -59,7 +59,10 @@ import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.MessageDeleteEditPart
 import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.MessageSyncEditPart;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraph;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraphRequestHelper;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.InteractionGraphDragFeedback;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.InteractionGraphService;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.ViewUtilities;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands.DragFeedbackCommandProxy;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands.InteractionGraphCommand;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands.KeyboardHandler;
 import org.eclipse.papyrus.uml.diagram.sequence.util.SequenceDiagramConstants;
@@ -293,18 +296,25 @@ public class InteractionGraphGraphicalNodeEditPolicy extends DefaultGraphicalNod
 		if (msgSort == null)
 			return null;
 		
-		InteractionGraphCommand cmd = new InteractionGraphCommand(((IGraphicalEditPart) getHost()).getEditingDomain(), 
-				"Create Asynchronous Message", graph, null);
-		cmd.addMessage(msgSort, request.getConnectionViewAndElementDescriptor().getCreateElementRequestAdapter(), 
-				request.getConnectionViewAndElementDescriptor(), 
-				(Element)ViewUtil.resolveSemanticElement((View)request.getSourceEditPart().getModel()),
-				srcAnchor,
-				//ViewUtilities.controlToViewer(graph.getEditPartViewer(),srcAnchor.getCopy()), 
-				(Element)ViewUtil.resolveSemanticElement((View)request.getTargetEditPart().getModel()),
-				trgAnchor);
-				//ViewUtilities.controlToViewer(graph.getEditPartViewer(),trgAnchor.getCopy()));
-		
-		return new ICommandProxy(cmd);
+		MessageSort sort = msgSort;
+		Element source = (Element)ViewUtil.resolveSemanticElement((View)request.getSourceEditPart().getModel());
+		Element target = (Element)ViewUtil.resolveSemanticElement((View)request.getTargetEditPart().getModel());
+		Point srcLocation = srcAnchor;
+		Point trgLocation = trgAnchor;
+		InteractionGraphDragFeedback feedback = InteractionGraphService.getDragFeedback(graph);
+		return new DragFeedbackCommandProxy("Create Asynchronous Message",
+				() -> feedback.canAddMessage(sort, source, srcLocation, target, trgLocation),
+				() -> {
+					InteractionGraphCommand cmd = new InteractionGraphCommand(((IGraphicalEditPart) getHost()).getEditingDomain(), 
+							"Create Asynchronous Message", graph, null);
+					cmd.addMessage(sort, request.getConnectionViewAndElementDescriptor().getCreateElementRequestAdapter(), 
+							request.getConnectionViewAndElementDescriptor(), 
+							source,
+							srcLocation,
+							target,
+							trgLocation);
+					return cmd;
+				});
 	}
 
 	private boolean isMoveMessageRequest(ReconnectRequest req) {
@@ -25,16 +25,19 @@ import org.eclipse.draw2d.ConnectionAnchor;
 import org.eclipse.draw2d.GhostImageFigure;
 import org.eclipse.draw2d.XYAnchor;
 import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.gef.GraphicalEditPart;
 import org.eclipse.gef.commands.Command;
 import org.eclipse.gef.requests.BendpointRequest;
-import org.eclipse.gmf.runtime.diagram.ui.commands.ICommandProxy;
 import org.eclipse.gmf.runtime.diagram.ui.editparts.IGraphicalEditPart;
 import org.eclipse.gmf.runtime.diagram.ui.editpolicies.ConnectionBendpointEditPolicy;
 import org.eclipse.gmf.runtime.diagram.ui.requests.SetAllBendpointRequest;
 import org.eclipse.gmf.runtime.notation.Edge;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraph;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraphRequestHelper;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.InteractionGraphDragFeedback;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.InteractionGraphService;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands.DragFeedbackCommandProxy;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands.InteractionGraphCommand;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands.KeyboardHandler;
 import org.eclipse.uml2.uml.Message;
@@ -67,15 +70,20 @@ public class MessageConnectionLineSegEditPolicy extends ConnectionBendpointEditP
 		if (graph == null)
 			return null;
 		
-		InteractionGraphCommand cmd = new InteractionGraphCommand(((IGraphicalEditPart) getHost()).getEditingDomain(), 
-				"Move Message", graph, null);
-
-		if (KeyboardHandler.getKeyboardHandler().isAnyPressed() ) {
-			cmd.moveMessage(message, delta);
-		} else {
-			cmd.nudgeMessage(message, delta);
-		}
-		return new ICommandProxy(cmd);
+		boolean move = KeyboardHandler.getKeyboardHandler().isAnyPressed();
+		InteractionGraphDragFeedback feedback = InteractionGraphService.getDragFeedback(graph);
+		return new DragFeedbackCommandProxy("Move Message",
+				() -> move ? feedback.canMoveMessage(message, delta) : feedback.canNudgeMessage(message, delta),
+				() -> {
+					InteractionGraphCommand cmd = new InteractionGraphCommand(((IGraphicalEditPart) getHost()).getEditingDomain(), 
+							"Move Message", graph, null);
+					if (move) {
+						cmd.moveMessage(message, delta);
+					} else {
+						cmd.nudgeMessage(message, delta);
+					}
+					return cmd;
+				});
 	}
 	
 	@Override
@@ -104,14 +112,37 @@ public class MessageConnectionLineSegEditPolicy extends ConnectionBendpointEditP
 		} 					
 
 		
+		int dy = getMessageDelta(request, delta);
 		Point a1 = originalSourceAnchor.getReferencePoint();
 		Point a2 = originalTargetAnchor.getReferencePoint();
-		con.setSourceAnchor(new XYAnchor(new Point(a1.x,a1.y+delta.y)));
-		con.setTargetAnchor(new XYAnchor(new Point(a2.x,a2.y+delta.y)));
+		con.setSourceAnchor(new XYAnchor(new Point(a1.x,a1.y+dy)));
+		con.setTargetAnchor(new XYAnchor(new Point(a2.x,a2.y+dy)));
 		
 //		super.showCreateBendpointFeedback(request);
 	}
 
+	/**
+	 * Returns the vertical delta of the area the message would go to, as answered by the drag feedback of
+	 * the graph, so the feedback shows the message where the command puts it.
+	 */
+	private int getMessageDelta(BendpointRequest request, Point delta) {
+		Edge connectionView = (Edge) request.getSource().getModel();
+		if (!(connectionView.getElement() instanceof Message))
+			return delta.y;
+
+		Message message = (Message)connectionView.getElement();
+		InteractionGraph graph = InteractionGraphRequestHelper.getOrCreateInteractionGraph(request, (org.eclipse.gef.GraphicalEditPart) getHost());
+		if (graph == null)
+			return delta.y;
+
+		InteractionGraphDragFeedback feedback = InteractionGraphService.getDragFeedback(graph);
+		Rectangle from = feedback.getMessageArea(message, new Point(0, 0));
+		Rectangle to = feedback.getMessageArea(message, new Point(0, delta.y));
+		if (from == null || to == null)
+			return delta.y;
+		return to.y - from.y;
+	}
+
 	@Override
 	protected void eraseConnectionFeedback(BendpointRequest request, boolean removeFeedbackFigure) {
 		Connection con = getConnection();
@@ -24,4 +24,29 @@ public interface InteractionGraphFactory {
 	}
 
 	public InteractionGraph createInteractionGraph(Interaction interaction, Diagram diagram, EditPartViewer viewer);
+
+	/**
+	 * Creates a graph from the notation model only, without viewer, edit parts nor figures. The geometry
+	 * is read from the layout constraints and the identity anchors of the views, with the default sizes
+	 * of the figures for the unset ones, so it can be used in batch jobs without SWT. Graphs of different
+	 * diagrams can be created and laid out concurrently, one thread per diagram.
+	 * 
+	 * @param interaction the interaction
+	 * @param diagram the diagram showing the interaction
+	 * @return an interaction graph
+	 */
+	public default InteractionGraph createHeadlessInteractionGraph(Interaction interaction, Diagram diagram) {
+		return createInteractionGraph(interaction, diagram, null);
+	}
+
+	/**
+	 * Returns the graph shared by all the requests on the diagram shown in the viewer. The graph is rebuilt
+	 * only when the model has changed since the last call.
+	 * 
+	 * @param interaction the interaction
+	 * @param diagram the diagram showing the interaction
+	 * @param viewer the viewer showing the diagram
+	 * @return an interaction graph in sync with the model
+	 */
+	public InteractionGraph getInteractionGraph(Interaction interaction, Diagram diagram, EditPartViewer viewer);
 }
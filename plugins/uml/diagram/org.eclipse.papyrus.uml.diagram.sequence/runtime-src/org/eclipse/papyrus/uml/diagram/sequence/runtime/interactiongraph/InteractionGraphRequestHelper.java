@@ -45,7 +45,7 @@ public class InteractionGraphRequestHelper {
 		if (graph != null) {
 			return graph;
 		}
-		graph = createInteractionGraph(gep);
+		graph = getDiagramInteractionGraph(gep);
 		if (graph == null) {
 			return null;
 		}
@@ -54,6 +54,22 @@ public class InteractionGraphRequestHelper {
 	}
 
 	public static InteractionGraph createInteractionGraph(GraphicalEditPart gep) {
+		Diagram dia = getSequenceDiagram(gep);
+		if (dia == null) {
+			return null;
+		}
+		return InteractionGraphFactory.getInstance().createInteractionGraph((Interaction) dia.getElement(), dia, gep.getViewer());
+	}
+
+	public static InteractionGraph getDiagramInteractionGraph(GraphicalEditPart gep) {
+		Diagram dia = getSequenceDiagram(gep);
+		if (dia == null) {
+			return null;
+		}
+		return InteractionGraphFactory.getInstance().getInteractionGraph((Interaction) dia.getElement(), dia, gep.getViewer());
+	}
+
+	private static Diagram getSequenceDiagram(GraphicalEditPart gep) {
 		if (!(gep.getModel() instanceof View)) {
 			return null;
 		}
@@ -76,7 +92,7 @@ public class InteractionGraphRequestHelper {
 			return null;
 		}
 
-		return InteractionGraphFactory.getInstance().createInteractionGraph((Interaction) el, dia, gep.getViewer());
+		return dia;
 	}
 
 	@SuppressWarnings({ "unchecked", "rawtypes" })
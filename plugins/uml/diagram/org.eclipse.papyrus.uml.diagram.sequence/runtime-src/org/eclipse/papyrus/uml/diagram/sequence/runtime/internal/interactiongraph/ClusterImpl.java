@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Cluster;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraph;
@@ -36,8 +37,34 @@ public class ClusterImpl extends NodeImpl implements Cluster {
 		super.reset();
 		fragmentCluster = null;
 		nodes = new ArrayList<NodeImpl>();
+		nodesChanged();
 	}
 	
+	@Override
+	protected ClusterImpl saveState() {
+		ClusterImpl state = (ClusterImpl) super.saveState();
+		state.nodes = new ArrayList<>(nodes);
+		return state;
+	}
+
+	@Override
+	protected void restoreState(GraphItemImpl state) {
+		super.restoreState(state);
+		ClusterImpl clusterState = (ClusterImpl) state;
+		fragmentCluster = clusterState.fragmentCluster;
+		nodes = new ArrayList<>(clusterState.nodes);
+		ordinalsDirty = true;
+		verticalTree = null;
+		horizontalTree = null;
+		childrenBoundsValid = false;
+	}
+
+	@Override
+	void resetInteractionGraph() {
+		super.resetInteractionGraph();
+		nodes.forEach(NodeImpl::resetInteractionGraph);
+	}
+
 	@Override
 	public ClusterImpl getParent() {
 		ClusterImpl par = super.getParent();
@@ -57,47 +84,188 @@ public class ClusterImpl extends NodeImpl implements Cluster {
 	}
 
 	protected void updateNodes(Comparator<Node> comparator) {
-		nodes.sort(comparator);
+		// The comparators break ties with indexOfNode, which has to answer the positions before the sort
+		// while the list is being permuted.
+		stampOrdinals();
+		sorting = true;
+		try {
+			nodes.sort(comparator);
+		} finally {
+			sorting = false;
+		}
+		nodesChanged();
 	}
 	
 	@Override
 	public List<Node> getNodes() {
+		flushLayout();
 		return Collections.unmodifiableList(nodes);
 	}
 	
 	public void addNode(NodeImpl node) {
 		nodes.add(node);
 		node.setParent(this);
+		nodesChanged();
 	}
 	
 	public void addNode(NodeImpl node, Node beforeNode) {
 		if (beforeNode == null) {
 			addNode(node);
 		} else {
-			int index = nodes.indexOf(beforeNode);
+			int index = indexOfNode(beforeNode);
 			nodes.add(index,node);
 			node.setParent(this);
+			nodesChanged();
 		}
 	}
 	
 	public void addNode(int index, NodeImpl node) {
 		nodes.add(index,node);
 		node.setParent(this);
+		nodesChanged();
 	}
 
 	public boolean removeNode(Node node) {
-		boolean res = nodes.remove(node);
+		int index = indexOfNode(node);
+		if (index != -1)
+			nodes.remove(index);
 		((NodeImpl)node).setParent(null);
-		return res;
+		nodesChanged();
+		return index != -1;
 	}
 	
 	public NodeImpl removeNode(int index) {
 		NodeImpl n = nodes.remove(index);
 		n.setParent(null);
+		nodesChanged();
 		return n;
 	}
 
+	/**
+	 * Returns the position of the node in this cluster. The positions are stamped on the nodes once
+	 * after any change in the cluster, so comparators can use it without scanning the node list.<br>
+	 * While the children are sorted by {@link #updateNodes(Comparator)} the position before the sort is
+	 * returned, so the comparators see a consistent order.
+	 * 
+	 * @param node a child node
+	 * @return the index of the node or -1 if it is not a child of this cluster.
+	 */
+	public int indexOfNode(Node node) {
+		NodeImpl nodeImpl = (NodeImpl)node;
+		if (sorting) {
+			return nodeImpl.isChildOf(this) ? nodeImpl.getOrdinal() : -1;
+		}
+		stampOrdinals();
+		int ordinal = nodeImpl.getOrdinal();
+		if (ordinal >= 0 && ordinal < nodes.size() && nodes.get(ordinal) == node)
+			return ordinal;
+		return -1;
+	}
+
+	/**
+	 * @return the number of ordinals stamped on the children since the cluster was created.
+	 */
+	int getStampedOrdinalCount() {
+		return stampedOrdinalCount;
+	}
+
+	private void stampOrdinals() {
+		if (ordinalsDirty) {
+			for (int i = 0; i < nodes.size(); i++) {
+				nodes.get(i).setOrdinal(i);
+			}
+			stampedOrdinalCount += nodes.size();
+			ordinalsDirty = false;
+		}
+	}
+
+	/**
+	 * Returns the child whose vertical interval contains the position. If several children contain it,
+	 * the first one in this cluster is returned.
+	 */
+	NodeImpl getNodeAtVerticalPos(int y) {
+		return getFirstNodeAt(true, y, null);
+	}
+
+	/**
+	 * Returns the child whose horizontal interval contains the position. If several children contain it,
+	 * the first one in this cluster is returned.
+	 */
+	NodeImpl getNodeAtHorizontalPos(int x) {
+		return getFirstNodeAt(false, x, null);
+	}
+
+	/**
+	 * Returns the child whose bounds contain the point. If several children contain it, the first one in
+	 * this cluster is returned.
+	 */
+	NodeImpl getNodeAt(Point p) {
+		return getFirstNodeAt(true, p.y, d -> NodeUtilities.isNodeAt(d, p));
+	}
+
+	private NodeImpl getFirstNodeAt(boolean vertical, int position, Predicate<NodeImpl> filter) {
+		NodeIntervalTree tree = getIntervalTree(vertical);
+		if (tree != null) {
+			return tree.getFirstAt(position, filter);
+		}
+		// Not in a graph yet, so there is nothing to invalidate the tree with.
+		return nodes.stream().filter(d -> vertical ? NodeUtilities.isNodeAtVerticalPos(d, position) : NodeUtilities.isNodeAtHorizontalPos(d, position)).
+				filter(d -> filter == null || filter.test(d)).findFirst().orElse(null);
+	}
+
+	private NodeIntervalTree getIntervalTree(boolean vertical) {
+		InteractionGraphImpl graph = getInteractionGraph();
+		if (graph == null) {
+			return null;
+		}
+		// The bounds are read when the tree is built or updated, so run the pending layout first.
+		graph.flushLayout();
+		if (treesVersion != graph.getBoundsResetVersion()) {
+			verticalTree = null;
+			horizontalTree = null;
+			treesVersion = graph.getBoundsResetVersion();
+		}
+		if (vertical) {
+			if (verticalTree == null) {
+				verticalTree = new NodeIntervalTree(nodes, true);
+			}
+			return verticalTree;
+		}
+		if (horizontalTree == null) {
+			horizontalTree = new NodeIntervalTree(nodes, false);
+		}
+		return horizontalTree;
+	}
+
+	/**
+	 * Called when the bounds of a child have been replaced or modified in place. The interval of the child
+	 * is updated in the spatial indices and the cached children bounds are discarded.
+	 */
+	void childBoundsChanged(NodeImpl child) {
+		if (verticalTree != null) {
+			verticalTree.update(child);
+		}
+		if (horizontalTree != null) {
+			horizontalTree.update(child);
+		}
+		childrenBoundsValid = false;
+		if (bounds == null) {
+			// The bounds of this cluster are calculated from the children.
+			boundsChanged();
+		}
+	}
+
+	private void nodesChanged() {
+		ordinalsDirty = true;
+		verticalTree = null;
+		horizontalTree = null;
+		childrenBoundsValid = false;
+		// The bounds of this cluster may be calculated from the children.
+		boundsChanged();
+	}
+
 	public List<Node> getAllNodes() {
+		flushLayout();
 		return NodeUtilities.flatten(this);
 	}
 	
@@ -115,7 +283,25 @@ public class ClusterImpl extends NodeImpl implements Cluster {
 		return getChildrenBounds();
 	}
 	
+	/**
+	 * Returns the area of the children. It is cached until a child is moved (see
+	 * {@link #childBoundsChanged(NodeImpl)}) or the bounds of the whole graph are discarded, so nested
+	 * clusters without bounds of their own are not walked again on each query. 
+	 */
 	Rectangle getChildrenBounds() {
+		InteractionGraphImpl graph = getInteractionGraph();
+		if (graph == null) {
+			return calculateChildrenBounds();
+		}
+		if (!childrenBoundsValid || childrenBoundsVersion != graph.getBoundsResetVersion()) {
+			childrenBounds = calculateChildrenBounds();
+			childrenBoundsVersion = graph.getBoundsResetVersion();
+			childrenBoundsValid = true;
+		}
+		return childrenBounds == null ? null : childrenBounds.getCopy();
+	}
+
+	private Rectangle calculateChildrenBounds() {
 		Rectangle r = NodeUtilities.getArea(getNodes());
 		if (r == null) 
 		{
@@ -145,4 +331,13 @@ public class ClusterImpl extends NodeImpl implements Cluster {
 	
 	private FragmentClusterImpl fragmentCluster;
 	private List<NodeImpl> nodes = new ArrayList<NodeImpl>();
+	private boolean ordinalsDirty = true;
+	private boolean sorting;
+	private int stampedOrdinalCount;
+	private NodeIntervalTree verticalTree;
+	private NodeIntervalTree horizontalTree;
+	private int treesVersion;
+	private Rectangle childrenBounds;
+	private int childrenBoundsVersion = -1;
+	private boolean childrenBoundsValid;
 }
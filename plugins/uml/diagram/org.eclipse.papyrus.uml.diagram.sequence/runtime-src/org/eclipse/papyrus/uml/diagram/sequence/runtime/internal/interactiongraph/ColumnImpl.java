@@ -32,7 +32,7 @@ public class ColumnImpl extends SlotImpl implements Column {
 			if (res == 0) {
 				res = Integer.compare(r1.y, r2.y);
 				if (res == 0) {					
-					return Integer.compare(o1.getParent().getNodes().indexOf(o1), o2.getParent().getNodes().indexOf(o2));
+					return Integer.compare(((NodeImpl)o1).getIndexInParent(), ((NodeImpl)o2).getIndexInParent());
 				}				
 			}
 			return res;
@@ -63,13 +63,27 @@ public class ColumnImpl extends SlotImpl implements Column {
 		}
 	}
 
+	@Override
+	protected void restoreState(SlotImpl state) {
+		super.restoreState(state);
+		setXPosition(((ColumnImpl) state).xpos);
+	}
+
 	@Override
 	public int getXPosition() {
+		flushLayout();
 		return xpos;
 	}
 
 	void setXPosition(int x) {
+		int oldX = xpos;
 		this.xpos = x;
+		positionChanged(oldX);
+	}
+
+	@Override
+	int getPosition() {
+		return xpos;
 	}
 
 	@Override
@@ -88,13 +102,13 @@ public class ColumnImpl extends SlotImpl implements Column {
 
 	@Override
 	public void nudge(int delta) {
-		this.xpos += delta;
+		setXPosition(xpos + delta);
 		getNodes().stream().map(NodeImpl.class::cast).forEach(interactionGraph.getLayoutManager()::layout);
 	}
 
 	@Override
 	public String toString() {
-		return String.format("Col[%d][x: %d]", index, xpos);
+		return String.format("Col[%d][x: %d]", getIndex(), xpos);
 	}
 }
 
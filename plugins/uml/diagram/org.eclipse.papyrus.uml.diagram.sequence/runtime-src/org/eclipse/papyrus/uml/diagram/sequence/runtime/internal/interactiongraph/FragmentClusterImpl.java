@@ -41,6 +41,36 @@ public class FragmentClusterImpl extends ClusterImpl implements FragmentCluster
 		floatingNodes = new ArrayList<MarkNodeImpl>();;
 		
 	}
+
+	@Override
+	protected FragmentClusterImpl saveState() {
+		FragmentClusterImpl state = (FragmentClusterImpl) super.saveState();
+		state.clusters = new ArrayList<>(clusters);
+		state.fragmentClusters = new ArrayList<>(fragmentClusters);
+		state.innerGates = new ArrayList<>(innerGates);
+		state.outerGates = new ArrayList<>(outerGates);
+		state.floatingNodes = new ArrayList<>(floatingNodes);
+		return state;
+	}
+
+	@Override
+	protected void restoreState(GraphItemImpl state) {
+		super.restoreState(state);
+		FragmentClusterImpl fragmentState = (FragmentClusterImpl) state;
+		clusters = new ArrayList<>(fragmentState.clusters);
+		fragmentClusters = new ArrayList<>(fragmentState.fragmentClusters);
+		innerGates = new ArrayList<>(fragmentState.innerGates);
+		outerGates = new ArrayList<>(fragmentState.outerGates);
+		floatingNodes = new ArrayList<>(fragmentState.floatingNodes);
+	}
+
+	@Override
+	void resetInteractionGraph() {
+		super.resetInteractionGraph();
+		fragmentClusters.forEach(NodeImpl::resetInteractionGraph);
+		innerGates.forEach(NodeImpl::resetInteractionGraph);
+		outerGates.forEach(NodeImpl::resetInteractionGraph);
+	}
 	
 	@Override
 	public List<Cluster> getClusters() {
@@ -21,7 +21,7 @@ import java.util.Map;
 import org.eclipse.gmf.runtime.notation.View;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.GraphItem;
 
-public abstract class GraphItemImpl implements GraphItem {
+public abstract class GraphItemImpl implements GraphItem, Cloneable {
 
 	public GraphItemImpl() {
 	}
@@ -48,5 +48,25 @@ public abstract class GraphItemImpl implements GraphItem {
 		properties.put(name,value);		
 	}
 	
+	/**
+	 * Returns a copy of the mutable state of the item, to be given back to {@link #restoreState(GraphItemImpl)}.
+	 * The copy is never part of a graph.
+	 * 
+	 * @see InteractionGraphSnapshot
+	 */
+	protected GraphItemImpl saveState() {
+		try {
+			GraphItemImpl state = (GraphItemImpl) super.clone();
+			state.properties = properties == null ? null : new HashMap<>(properties);
+			return state;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	protected void restoreState(GraphItemImpl state) {
+		properties = state.properties == null ? null : new HashMap<>(state.properties);
+	}
+
 	private Map<String,Object> properties;
 }
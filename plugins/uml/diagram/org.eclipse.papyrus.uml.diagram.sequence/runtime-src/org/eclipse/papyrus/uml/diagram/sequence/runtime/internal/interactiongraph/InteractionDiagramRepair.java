@@ -0,0 +1,248 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.transaction.NotificationFilter;
+import org.eclipse.emf.transaction.ResourceSetChangeEvent;
+import org.eclipse.emf.transaction.ResourceSetListener;
+import org.eclipse.emf.transaction.ResourceSetListenerImpl;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.gmf.runtime.common.core.command.CommandResult;
+import org.eclipse.gmf.runtime.emf.commands.core.command.AbstractTransactionalCommand;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.SequenceDiagramEditPart;
+import org.eclipse.papyrus.uml.diagram.sequence.part.UMLDiagramEditorPlugin;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraphFactory;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands.InteractionGraphCommand;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.uml2.uml.Interaction;
+
+/**
+ * Batch re-layout and repair of all the sequence diagrams of a resource set.<br>
+ * Each diagram is built in a headless graph and laid out. Then an {@link InteractionGraphCommand}
+ * without actions writes back the differences between the graph and the models (bounds, anchors,
+ * fragment order...). Diagrams already in sync with their graph are not modified.<br>
+ * The graph is built and written back in one write transaction per diagram, so no other transaction
+ * can modify the models in between. The diagrams may be open in editors, whose listeners expect to be
+ * notified in the display thread, so when the workbench is running the transactions are committed in
+ * the display thread.
+ *
+ * @author ETXACAM
+ */
+public class InteractionDiagramRepair {
+
+	public InteractionDiagramRepair(TransactionalEditingDomain editingDomain) {
+		this.editingDomain = editingDomain;
+	}
+
+	/**
+	 * Re-layouts all the sequence diagrams loaded in the resource set of the editing domain.
+	 *
+	 * @param monitor the progress monitor, may be null.
+	 * @return the result of the operation.
+	 */
+	public Result run(IProgressMonitor monitor) {
+		return run(getSequenceDiagrams(), monitor);
+	}
+
+	/**
+	 * Re-layouts the given sequence diagrams.
+	 *
+	 * @param diagrams the diagrams.
+	 * @param monitor the progress monitor, may be null.
+	 * @return the result of the operation.
+	 */
+	public Result run(List<Diagram> diagrams, IProgressMonitor monitor) {
+		IProgressMonitor progress = monitor != null ? monitor : new NullProgressMonitor();
+		Result result = new Result();
+		progress.beginTask("Layout sequence diagrams", diagrams.size());
+
+		long start = System.nanoTime();
+		editingDomain.addResourceSetListener(changeListener);
+		try {
+			for (Diagram diagram : diagrams) {
+				if (progress.isCanceled()) {
+					break;
+				}
+				progress.subTask(diagram.getName());
+				repair(diagram, result);
+				progress.worked(1);
+			}
+		} finally {
+			editingDomain.removeResourceSetListener(changeListener);
+			progress.done();
+		}
+		result.elapsedNanos = System.nanoTime() - start;
+
+		UMLDiagramEditorPlugin.log.info(result.toString());
+		return result;
+	}
+
+	List<Diagram> getSequenceDiagrams() {
+		List<Diagram> diagrams = new ArrayList<>();
+		for (Resource resource : new ArrayList<>(editingDomain.getResourceSet().getResources())) {
+			for (EObject obj : resource.getContents()) {
+				if (obj instanceof Diagram && SequenceDiagramEditPart.MODEL_ID.equals(((Diagram) obj).getType()) &&
+						((Diagram) obj).getElement() instanceof Interaction) {
+					diagrams.add((Diagram) obj);
+				}
+			}
+		}
+		return diagrams;
+	}
+
+	private void repair(Diagram diagram, Result result) {
+		Display display = PlatformUI.isWorkbenchRunning() ? PlatformUI.getWorkbench().getDisplay() : null;
+		if (display != null && display.getThread() != Thread.currentThread()) {
+			display.syncExec(() -> repairImpl(diagram, result));
+		} else {
+			repairImpl(diagram, result);
+		}
+	}
+
+	private void repairImpl(Diagram diagram, Result result) {
+		try {
+			if (repair(diagram)) {
+				result.changed++;
+			}
+		} catch (ExecutionException | RuntimeException e) {
+			UMLDiagramEditorPlugin.log.error("Can not layout diagram " + diagram.getName(), e);
+			result.failed.add(diagram);
+		}
+		result.diagrams++;
+	}
+
+	private boolean repair(Diagram diagram) throws ExecutionException {
+		// The index is kept if the diagram is open, so the editor does not rebuild it.
+		boolean indexed = diagram.eAdapters().stream().anyMatch(ViewIndex.class::isInstance);
+		try {
+			RepairCommand cmd = new RepairCommand(diagram);
+			transactionChanged = false;
+			cmd.execute(new NullProgressMonitor(), null);
+			CommandResult res = cmd.getCommandResult();
+			if (res != null && res.getStatus().getSeverity() == IStatus.ERROR) {
+				throw new ExecutionException(res.getStatus().getMessage(), res.getStatus().getException());
+			}
+			return transactionChanged;
+		} finally {
+			if (!indexed) {
+				ViewIndex.getIndex(diagram).dispose();
+			}
+		}
+	}
+
+	/**
+	 * Builds the graph of the diagram and writes back its layout in the same transaction.
+	 */
+	private class RepairCommand extends AbstractTransactionalCommand {
+		RepairCommand(Diagram diagram) {
+			super(editingDomain, "Layout " + diagram.getName(), null);
+			this.diagram = diagram;
+		}
+
+		@Override
+		protected CommandResult doExecuteWithResult(IProgressMonitor monitor, IAdaptable info) throws ExecutionException {
+			InteractionGraphImpl graph = (InteractionGraphImpl) InteractionGraphFactory.getInstance()
+					.createHeadlessInteractionGraph((Interaction) diagram.getElement(), diagram);
+			// Nothing else modifies the models in this transaction, so the graph stays in sync and the
+			// command does not need to rebuild it.
+			graph.setTracked(true);
+
+			InteractionGraphCommand cmd = new InteractionGraphCommand(getEditingDomain(), getLabel(), graph, null);
+			cmd.execute(monitor, info);
+			return cmd.getCommandResult() != null ? cmd.getCommandResult() : CommandResult.newOKCommandResult();
+		}
+
+		private Diagram diagram;
+	}
+
+	/**
+	 * Result of a batch layout.
+	 */
+	public static class Result {
+		/**
+		 * @return the number of processed diagrams.
+		 */
+		public int getDiagramCount() {
+			return diagrams;
+		}
+
+		/**
+		 * @return the number of diagrams whose notation or UML model has been modified.
+		 */
+		public int getChangedCount() {
+			return changed;
+		}
+
+		/**
+		 * @return the diagrams that could not be processed.
+		 */
+		public List<Diagram> getFailedDiagrams() {
+			return Collections.unmodifiableList(failed);
+		}
+
+		public long getElapsedMillis() {
+			return elapsedNanos / 1_000_000;
+		}
+
+		/**
+		 * @return the number of processed diagrams per second.
+		 */
+		public double getThroughput() {
+			return elapsedNanos == 0 ? 0 : diagrams * 1e9 / elapsedNanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("Sequence diagrams layout: %d diagrams (%d changed, %d failed) in %d ms, %.1f diagrams/s",
+					getDiagramCount(), getChangedCount(), failed.size(), getElapsedMillis(), getThroughput());
+		}
+
+		private int diagrams;
+		private int changed;
+		private List<Diagram> failed = new ArrayList<>();
+		private long elapsedNanos;
+	}
+
+	/**
+	 * Post-commit listeners are called in the thread that committed the transaction.
+	 */
+	private final ResourceSetListener changeListener = new ResourceSetListenerImpl(NotificationFilter.NOT_TOUCH) {
+		@Override
+		public boolean isPostcommitOnly() {
+			return true;
+		}
+
+		@Override
+		public void resourceSetChanged(ResourceSetChangeEvent event) {
+			transactionChanged = true;
+		}
+	};
+
+	private TransactionalEditingDomain editingDomain;
+	private boolean transactionChanged;
+}
@@ -52,6 +52,12 @@ import org.eclipse.uml2.uml.MessageOccurrenceSpecification;
 import org.eclipse.uml2.uml.OccurrenceSpecification;
 import org.eclipse.uml2.uml.util.UMLSwitch;
 
+/**
+ * Builds the interaction graph from the interaction and its diagram. The views of the elements are looked
+ * up in the {@link ViewIndex} of the diagram.
+ *
+ * @author ETXACAM
+ */
 class InteractionGraphBuilder extends UMLSwitch<Node> {
 	InteractionGraphImpl graph;
 	EditPartViewer viewer;
@@ -68,9 +74,22 @@ class InteractionGraphBuilder extends UMLSwitch<Node> {
 	}
 
 	public InteractionGraph build() {
-		nodeCache = new HashMap<>();
-		cache(graph.getInteraction(), graph);
-		
+		InteractionGraphStatistics.Measure measure = InteractionGraphStatistics.start(graph.getDiagram(), "build");
+		try {
+			nodeCache = new HashMap<>();
+			cache(graph.getInteraction(), graph);
+
+			buildGraph();
+
+			// Layout Grid
+			graph.layout();
+		} finally {
+			measure.stop();
+		}
+		return graph;
+	}
+
+	private void buildGraph() {
 		startExecutionSpecification = graph.getInteraction().getLifelines().stream()
 				.map(Lifeline::getCoveredBys).flatMap(List::stream)
 				.filter(ExecutionSpecification.class::isInstance)
@@ -100,11 +119,6 @@ class InteractionGraphBuilder extends UMLSwitch<Node> {
 		
 		// Link with messages
 		graph.getInteraction().getMessages().forEach(message -> doSwitch(message));
-		
-		// Layout Grid
-		graph.layout();
-
-		return graph;
 	}
 
 	@Override
@@ -0,0 +1,160 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.transaction.NotificationFilter;
+import org.eclipse.emf.transaction.ResourceSetChangeEvent;
+import org.eclipse.emf.transaction.ResourceSetListenerImpl;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.emf.transaction.util.TransactionUtil;
+import org.eclipse.gef.EditPart;
+import org.eclipse.gef.EditPartListener;
+import org.eclipse.gef.EditPartViewer;
+import org.eclipse.gmf.runtime.diagram.ui.editparts.DiagramEditPart;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.papyrus.uml.diagram.sequence.part.UMLDiagramEditorPlugin;
+import org.eclipse.uml2.uml.Interaction;
+
+/**
+ * Keeps one {@link InteractionGraphImpl} per {@link DiagramEditPart}, so the graph is not rebuilt for
+ * every request while the user is dragging.<br>
+ * The cache is stored as a property of the {@link EditPartViewer} and lives as long as the diagram edit
+ * part is active. Any committed change on the diagram or interaction resources (including undo / redo)
+ * and any change of the viewer properties (grid, rulers...) invalidates the graph, which is then rebuilt
+ * on the next access.
+ *
+ * @author ETXACAM
+ */
+public class InteractionGraphCache extends ResourceSetListenerImpl implements PropertyChangeListener {
+	private static final String VIEWER_PROPERTY = InteractionGraphCache.class.getName();
+
+	private InteractionGraphCache(InteractionGraphImpl graph, TransactionalEditingDomain editingDomain) {
+		super(NotificationFilter.NOT_TOUCH);
+		this.graph = graph;
+		this.editingDomain = editingDomain;
+	}
+
+	/**
+	 * Returns the graph associated to the diagram edit part of the viewer, creating it if needed.<br>
+	 * If the diagram is not shown by an active {@link DiagramEditPart}, a new non-cached graph is returned.
+	 *
+	 * @param interaction the interaction
+	 * @param diagram the diagram showing the interaction
+	 * @param viewer the viewer
+	 * @return an up to date interaction graph
+	 */
+	public static InteractionGraphImpl getInteractionGraph(Interaction interaction, Diagram diagram, EditPartViewer viewer) {
+		DiagramEditPart diagramEditPart = viewer == null ? null : (DiagramEditPart) viewer.getEditPartRegistry().get(diagram);
+		TransactionalEditingDomain editingDomain = TransactionUtil.getEditingDomain(diagram);
+		if (diagramEditPart == null || !diagramEditPart.isActive() || editingDomain == null) {
+			return createInteractionGraph(interaction, diagram, viewer);
+		}
+
+		InteractionGraphCache cache = (InteractionGraphCache) viewer.getProperty(VIEWER_PROPERTY);
+		if (cache != null && (cache.graph.getDiagram() != diagram || cache.graph.getInteraction() != interaction)) {
+			cache.dispose();
+			cache = null;
+		}
+
+		if (cache == null) {
+			cache = new InteractionGraphCache(createInteractionGraph(interaction, diagram, viewer), editingDomain);
+			cache.install(diagramEditPart);
+		}
+
+		cache.graph.validate();
+		return cache.graph;
+	}
+
+	private static InteractionGraphImpl createInteractionGraph(Interaction interaction, Diagram diagram, EditPartViewer viewer) {
+		InteractionGraphBuilder builder = new InteractionGraphBuilder(interaction, diagram, viewer);
+		builder.build();
+		return builder.graph;
+	}
+
+	private void install(DiagramEditPart diagramEditPart) {
+		this.diagramEditPart = diagramEditPart;
+		graph.setTracked(true);
+		editingDomain.addResourceSetListener(this);
+		diagramEditPart.addEditPartListener(deactivationListener);
+		// Register as property first, so the property change does not invalidate the new graph.
+		diagramEditPart.getViewer().setProperty(VIEWER_PROPERTY, this);
+		diagramEditPart.getViewer().addPropertyChangeListener(this);
+	}
+
+	private void dispose() {
+		EditPartViewer viewer = diagramEditPart.getViewer();
+		editingDomain.removeResourceSetListener(this);
+		diagramEditPart.removeEditPartListener(deactivationListener);
+		if (viewer != null) {
+			viewer.removePropertyChangeListener(this);
+			if (viewer.getProperty(VIEWER_PROPERTY) == this) {
+				viewer.setProperty(VIEWER_PROPERTY, null);
+			}
+		}
+		graph.setTracked(false);
+		if (InteractionGraphStatistics.isEnabled()) {
+			UMLDiagramEditorPlugin.log.info(InteractionGraphStatistics.getReport(graph.getDiagram()));
+		}
+	}
+
+	@Override
+	public boolean isPostcommitOnly() {
+		return true;
+	}
+
+	@Override
+	public void resourceSetChanged(ResourceSetChangeEvent event) {
+		if (!graph.isValid()) {
+			return;
+		}
+
+		Resource diagramResource = graph.getDiagram().eResource();
+		Resource interactionResource = graph.getInteraction().eResource();
+		for (Notification notification : event.getNotifications()) {
+			Object notifier = notification.getNotifier();
+			Resource resource = notifier instanceof EObject ? ((EObject) notifier).eResource() :
+				notifier instanceof Resource ? (Resource) notifier : null;
+			// Detached objects (resource == null) may have been removed from the diagram or the interaction.
+			if (resource == null || resource == diagramResource || resource == interactionResource) {
+				graph.invalidate();
+				return;
+			}
+		}
+	}
+
+	@Override
+	public void propertyChange(PropertyChangeEvent evt) {
+		if (!VIEWER_PROPERTY.equals(evt.getPropertyName())) {
+			graph.invalidate();
+		}
+	}
+
+	private EditPartListener deactivationListener = new EditPartListener.Stub() {
+		@Override
+		public void partDeactivated(EditPart editpart) {
+			dispose();
+		}
+	};
+
+	private InteractionGraphImpl graph;
+	private TransactionalEditingDomain editingDomain;
+	private DiagramEditPart diagramEditPart;
+}
@@ -0,0 +1,117 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Link;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.Message;
+import org.eclipse.uml2.uml.MessageSort;
+
+/**
+ * Answers the questions asked on each mouse move of a drag (is the location legal, where would the
+ * dragged items go) directly on the graph, without building commands.<br>
+ * When the diagram snaps to the grid, the answers are memoized per grid cell of the locations or deltas,
+ * as all the locations of a cell are snapped to the same one. Otherwise they are memoized per location
+ * or delta. The memo is discarded when the bounds version of the graph changes, i.e. after any change in
+ * the graph.
+ *
+ * @author ETXACAM
+ */
+public class InteractionGraphDragFeedback {
+
+	InteractionGraphDragFeedback(InteractionGraphImpl interactionGraph) {
+		this.interactionGraph = interactionGraph;
+		this.service = new InteractionGraphService(interactionGraph, null);
+	}
+
+	public boolean canNudgeMessage(Message msg, Point delta) {
+		// As in the command, messages not in the graph are not checked.
+		return memoize(() -> !isInGraph(msg) || service.canNudgeMessage(msg, delta), "nudgeMessage", msg, cell(delta));
+	}
+
+	public boolean canMoveMessage(Message msg, Point delta) {
+		return memoize(() -> !isInGraph(msg) || service.canMoveMessage(msg, delta), "moveMessage", msg, cell(delta));
+	}
+
+	public boolean canAddMessage(MessageSort msgSort, Element source, Point srcAnchor, Element target, Point trgAnchor) {
+		return memoize(() -> service.canAddMessage(msgSort, null, null, source, srcAnchor, target, trgAnchor),
+				"addMessage", msgSort, source, cell(srcAnchor), target, cell(trgAnchor));
+	}
+
+	/**
+	 * Returns the area the message would occupy once nudged or moved by the delta.
+	 *
+	 * @param msg the message.
+	 * @param delta the delta of the drag.
+	 * @return the area, or null if the message is not in the graph.
+	 */
+	public Rectangle getMessageArea(Message msg, Point delta) {
+		Rectangle area = memoize(() -> {
+			Link link = interactionGraph.getLinkFor(msg);
+			return link == null ? null : link.getBounds().getCopy().translate(snap(delta));
+		}, "messageArea", msg, cell(delta));
+		return area == null ? null : area.getCopy();
+	}
+
+	private boolean isInGraph(Message msg) {
+		return interactionGraph.getLinkFor(msg) != null && msg.eResource() != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T memoize(Supplier<T> query, Object... key) {
+		int version = interactionGraph.getBoundsVersion();
+		if (version != resultsVersion) {
+			results.clear();
+			resultsVersion = version;
+		}
+		List<Object> k = Arrays.asList(key);
+		if (results.containsKey(k)) {
+			return (T) results.get(k);
+		}
+		T res = query.get();
+		results.put(k, res);
+		return res;
+	}
+
+	private Point cell(Point p) {
+		if (!interactionGraph.isGridEnabled()) {
+			return p.getCopy();
+		}
+		int gridSpacing = interactionGraph.getGridSpacing();
+		return new Point(Math.floorDiv(p.x, gridSpacing), Math.floorDiv(p.y, gridSpacing));
+	}
+
+	private Point snap(Point p) {
+		if (!interactionGraph.isGridEnabled()) {
+			return p.getCopy();
+		}
+		Point c = cell(p);
+		int gridSpacing = interactionGraph.getGridSpacing();
+		return new Point(c.x * gridSpacing, c.y * gridSpacing);
+	}
+
+	private InteractionGraphImpl interactionGraph;
+	private InteractionGraphService service;
+	private Map<List<Object>, Object> results = new HashMap<>();
+	private int resultsVersion = -1;
+}
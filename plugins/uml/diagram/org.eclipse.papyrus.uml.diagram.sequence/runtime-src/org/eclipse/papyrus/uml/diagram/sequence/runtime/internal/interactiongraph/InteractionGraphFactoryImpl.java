@@ -28,4 +28,9 @@ public class InteractionGraphFactoryImpl implements InteractionGraphFactory {
 		builder.build();
 		return builder.graph;
 	}
+
+	@Override
+	public InteractionGraph getInteractionGraph(Interaction interaction, Diagram diagram, EditPartViewer viewer) {
+		return InteractionGraphCache.getInteractionGraph(interaction, diagram, viewer);
+	}
 }
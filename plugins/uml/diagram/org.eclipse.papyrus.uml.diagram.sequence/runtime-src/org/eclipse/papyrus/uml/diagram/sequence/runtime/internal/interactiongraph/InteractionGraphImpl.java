@@ -17,7 +17,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -93,11 +95,86 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 
 		lifelineClusters = new ArrayList<>();
 		messageLinks = new ArrayList<>();
-		rows = new ArrayList<>();
-		columns = new ArrayList<>();
+		rows = new SlotList<>();
+		columns = new SlotList<>();
 		layoutMarks = new ArrayList<>();
+		orderedNodes = null;
+		layoutPending = false;
 		
 		builder.build();
+		valid = true;
+		boundsChanged();
+	}
+
+	/**
+	 * Returns true if the graph is kept in sync with the model by an {@link InteractionGraphCache} and no
+	 * change has been done in the model (or in the graph itself) since it was built.
+	 * Graphs which are not tracked are never considered valid.
+	 */
+	public boolean isValid() {
+		return tracked && valid;
+	}
+
+	/**
+	 * Marks the graph as out of sync with the model, so it will be rebuilt on {@link #validate()}.
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+
+	/**
+	 * Rebuilds the graph only if it is not {@link #isValid() valid}.
+	 */
+	public void validate() {
+		if (!isValid()) {
+			reset();
+		}
+	}
+
+	void setTracked(boolean tracked) {
+		this.tracked = tracked;
+	}
+
+	/**
+	 * Takes a snapshot of the graph, so the changes done afterwards can be discarded with
+	 * {@link InteractionGraphSnapshot#restore()} instead of rebuilding the graph from the model.
+	 */
+	public InteractionGraphSnapshot snapshot() {
+		return new InteractionGraphSnapshot(this);
+	}
+
+	@Override
+	protected InteractionGraphImpl saveState() {
+		InteractionGraphImpl state = (InteractionGraphImpl) super.saveState();
+		state.lifelineClusters = new ArrayList<>(lifelineClusters);
+		state.messageLinks = new ArrayList<>(messageLinks);
+		state.layoutMarks = new ArrayList<>(layoutMarks);
+		// Slot lists own their slots, they are kept by the snapshot (see restoreSlots)
+		state.rows = null;
+		state.columns = null;
+		return state;
+	}
+
+	@Override
+	protected void restoreState(GraphItemImpl state) {
+		super.restoreState(state);
+		InteractionGraphImpl graphState = (InteractionGraphImpl) state;
+		lifelineClusters = new ArrayList<>(graphState.lifelineClusters);
+		messageLinks = new ArrayList<>(graphState.messageLinks);
+		layoutMarks = new ArrayList<>(graphState.layoutMarks);
+		disabledLayout = graphState.disabledLayout;
+		layoutPending = false;
+		gridEnabled = graphState.gridEnabled;
+		gridSpacing = graphState.gridSpacing;
+		valid = graphState.valid;
+		boundsChanged();
+	}
+
+	void restoreSlots(List<RowImpl> rowsState, List<ColumnImpl> columnsState) {
+		rows.clear();
+		rows.addAll(rowsState);
+		columns.clear();
+		columns.addAll(columnsState);
 	}
 	
 	@Override
@@ -117,6 +194,15 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 	public Diagram getDiagram() {
 		return diagram;
 	}
+
+	/**
+	 * Returns the index of the views of the diagram by semantic element.
+	 *
+	 * @return the view index, or null if the graph has no diagram.
+	 */
+	public ViewIndex getViewIndex() {
+		return diagram == null ? null : ViewIndex.getIndex(diagram);
+	}
 	
 	@Override
 	public DiagramEditPart getDiagramEditPart() {
@@ -138,6 +224,13 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 		return ViewUtilities.getClosestGrid(gridSpacing,size);
 	}
 
+	/**
+	 * @return whether the diagram snaps to the grid.
+	 */
+	boolean isGridEnabled() {
+		return gridEnabled;
+	}
+
 	@Override
 	Rectangle extractBounds() {
 		return super.extractBounds();
@@ -208,8 +301,38 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 
 	@Override
 	public List<Node> getOrderedNodes() {
-		return rows.stream().flatMap(d->d.getNodes().stream().filter(e->!(e.getElement() instanceof Lifeline))).
-				filter(Node.class::isInstance).collect(Collectors.toList());
+		flushLayout();
+		return new ArrayList<>(getOrderedNodesView());
+	}
+
+	/**
+	 * Returns the same nodes than {@link #getOrderedNodes()} without copying them. The list is cached
+	 * until the rows or their nodes change, so it must not be iterated while changing the graph.
+	 * 
+	 * @return an unmodifiable list with the ordered nodes.
+	 */
+	List<Node> getOrderedNodesView() {
+		flushLayout();
+		if (orderedNodes == null || orderedNodesVersion != rows.getVersion()) {
+			List<Node> nodes = rows.stream().flatMap(d->d.getNodes().stream().filter(e->!(e.getElement() instanceof Lifeline))).
+					filter(Node.class::isInstance).collect(Collectors.toList());
+			Map<Node, Integer> indices = new IdentityHashMap<>(nodes.size());
+			for (int i = 0; i < nodes.size(); i++) {
+				indices.putIfAbsent(nodes.get(i), i);
+			}
+			orderedNodes = Collections.unmodifiableList(nodes);
+			orderedNodeIndices = indices;
+			orderedNodesVersion = rows.getVersion();
+		}
+		return orderedNodes;
+	}
+
+	/**
+	 * @return the position of the node in {@link #getOrderedNodesView()}, or -1 if it is not there.
+	 */
+	int getOrderedNodeIndex(Node node) {
+		getOrderedNodesView();
+		return orderedNodeIndices.getOrDefault(node, -1);
 	}
 
 	void addMessage(LinkImpl message, LinkImpl insertBeforeMessage) {
@@ -233,14 +356,36 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 
 	@Override
 	public List<Row> getRows() {
+		flushLayout();
 		return Collections.unmodifiableList(rows);
 	}
 
 	@Override
 	public List<Column> getColumns() {
+		flushLayout();
 		return Collections.unmodifiableList(columns);
 	}
 
+	RowImpl getRowAt(int y) {
+		flushLayout();
+		return rows.getAt(y);
+	}
+
+	RowImpl getRowAfter(int y) {
+		flushLayout();
+		return rows.getAfter(y);
+	}
+
+	ColumnImpl getColumnAt(int x) {
+		flushLayout();
+		return columns.getAt(x);
+	}
+
+	ColumnImpl getColumnAfter(int x) {
+		flushLayout();
+		return columns.getAfter(x);
+	}
+
 	@Override
 	public NodeImpl getNodeFor(Element element) {
 		return builder.getCacheNode(element);
@@ -282,6 +427,7 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 
 	@Override
 	public List<Node> getLayoutNodes() {
+		flushLayout();
 		return rows.stream().flatMap(r -> r.getNodes().stream()).collect(Collectors.toList());
 	}
 	
@@ -291,27 +437,23 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 		mark.setParent(this);
 		layoutMarks.add(mark);
 		if (disabledLayout > 0) {
-			RowImpl row = (RowImpl)NodeUtilities.getRowAt(this, pt.y);
+			RowImpl row = getRowAt(pt.y);
 			if (row == null) {
-				Row ra = NodeUtilities.getRowAfter(this, pt.x);
-				int index = ra != null ? rows.indexOf(ra) : rows.size();
+				Row ra = getRowAfter(pt.y);
+				int index = ra != null ? ra.getIndex() : rows.size();
 				row = new RowImpl(this);
 				row.setYPosition(pt.y);
-				row.setIndex(index);
 				rows.add(index,row);
-				rows.stream().filter(r->r.getIndex()>index).forEach(r->r.setIndex(r.getIndex()+1));
 			}
 			row.addNode(mark);
 			
-			ColumnImpl col = (ColumnImpl)NodeUtilities.getColumnAt(this, pt.x);
+			ColumnImpl col = getColumnAt(pt.x);
 			if (col == null) {
-				Column ca = NodeUtilities.getColumnAfter(this, pt.x);
-				int index = ca != null ? columns.indexOf(ca) : columns.size();
+				Column ca = getColumnAfter(pt.x);
+				int index = ca != null ? ca.getIndex() : columns.size();
 				col = new ColumnImpl(this);
 				col.setXPosition(pt.x);
-				col.setIndex(index);
 				columns.add(index,col);
-				columns.stream().filter(c->c.getIndex()>index).forEach(c->c.setIndex(c.getIndex()+1));
 			}			
 			col.addNode(mark);
 			
@@ -332,14 +474,10 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 		col.removeNode((MarkNodeImpl)mark);
 
 		if (row.getNodes().isEmpty()) {				
-			int index = rows.indexOf(row);
 			rows.remove(row);
-			rows.stream().filter(r->r.getIndex()>index).forEach(r->r.setIndex(r.getIndex()-1));
 		}
 		if (col.getNodes().isEmpty()) {				
-			int index = columns.indexOf(col);
 			columns.remove(col);
-			columns.stream().filter(c->c.getIndex()>index).forEach(c->c.setIndex(c.getIndex()-1));
 		}
 		return true;
 	}
@@ -355,7 +493,63 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 
 	@Override
 	public void layout() {
-		layoutGrid();
+		if (disabledLayout == 0 && deferredLayout > 0) {
+			layoutPending = true;
+			return;
+		}
+		runLayout();
+	}
+
+	private void runLayout() {
+		layoutPending = false;
+		if (disabledLayout == 0) {
+			layoutCount++;
+			layoutRunning = true;
+			try {
+				layoutGrid();
+			} finally {
+				layoutRunning = false;
+			}
+			// The layout moves most of the nodes, building the indices again is cheaper than updating them.
+			boundsChanged();
+		}
+	}
+
+	/**
+	 * Discards the spatial indices (see {@link NodeIntervalTree}) and the cached children bounds of all the
+	 * clusters. Changes on a single node are notified with {@link NodeImpl#boundsChanged()} instead.
+	 */
+	void boundsChanged() {
+		boundsVersion++;
+		boundsResetVersion++;
+	}
+
+	/**
+	 * Called by {@link NodeImpl#boundsChanged()}, the node itself notifies its parent cluster.
+	 */
+	void nodeBoundsChanged() {
+		boundsVersion++;
+	}
+
+	/**
+	 * @return a version increased on any change of the bounds of the nodes.
+	 */
+	int getBoundsVersion() {
+		return boundsVersion;
+	}
+
+	/**
+	 * @return a version increased when the bounds of all the nodes must be read again.
+	 */
+	int getBoundsResetVersion() {
+		return boundsResetVersion;
+	}
+
+	InteractionGraphDragFeedback getDragFeedback() {
+		if (dragFeedback == null) {
+			dragFeedback = new InteractionGraphDragFeedback(this);
+		}
+		return dragFeedback;
 	}
 
 	public void disableLayout() {
@@ -367,6 +561,50 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 		disabledLayout = Math.max(0, disabledLayout);
 	}
 
+	/**
+	 * Starts deferring the layouts. Until the matching {@link #endDeferredLayout()}, the calls to
+	 * {@link #layout()} are coalesced into a single layout, which is run when the rows, the columns or the
+	 * bounds of the nodes are read, or at the end of the outermost deferral.
+	 */
+	public void beginDeferredLayout() {
+		deferredLayout++;
+	}
+
+	public void endDeferredLayout() {
+		deferredLayout = Math.max(0, deferredLayout - 1);
+		if (deferredLayout == 0) {
+			flushLayout();
+		}
+	}
+
+	/**
+	 * Ends a deferral like {@link #endDeferredLayout()}, but drops the pending layout instead of running
+	 * it, as the changes made meanwhile are going to be discarded.
+	 */
+	public void cancelDeferredLayout() {
+		deferredLayout = Math.max(0, deferredLayout - 1);
+		if (deferredLayout == 0) {
+			layoutPending = false;
+		}
+	}
+
+	/**
+	 * Runs the deferred layout, if any. The reads made by the layout itself do not run it again.
+	 */
+	@Override
+	public void flushLayout() {
+		if (layoutPending && disabledLayout == 0 && !layoutRunning) {
+			runLayout();
+		}
+	}
+
+	/**
+	 * @return the number of layouts run since the graph was created. 
+	 */
+	public int getLayoutCount() {
+		return layoutCount;
+	}
+
 	/* The grid layout algorithm should do:
 	 *  Current issues with implementation. It should be:
 	 *  1) Layout all the leafs in rows and calculate the provisional order.
@@ -386,13 +624,24 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 	 *  13) Align lifeline bottom positions
 	 *  14) Extend / contract Interaction frame size  
 	 */
-	@SuppressWarnings("unchecked")
 	private void layoutGrid() {
 		if (disabledLayout > 0)
 			return;
-		rows.clear();
-		columns.clear();
+		InteractionGraphStatistics.Measure measure = InteractionGraphStatistics.start(diagram, "layoutGrid");
+		try {
+			rows.clear();
+			columns.clear();
+			layoutManager.runStages();
+		} finally {
+			measure.stop();
+		}
+	}
 
+	/**
+	 * Row assignment stage: the lifelines in the first row, then the nodes in fragment order, starting a
+	 * new row when the vertical position changes more than the new row threshold of the layout manager.
+	 */
+	void layoutRows(InteractionLayoutManager.LayoutState state) {
 		// 1-. Layout Lifelines -> Row(0)
 		RowImpl row = new RowImpl(this);
 		rows.add(row);
@@ -409,6 +658,7 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 		List<NodeImpl> allNodes = getAllGraphNodes();
 		List<NodeImpl> orderedNodes = allNodes.stream().sorted(RowImpl.NODE_FRAGMENT_COMPARATOR).collect(Collectors.toList());
 		
+		int newRowThreshold = layoutManager.getNewRowThreshold();
 		RowImpl prevRow = null;
 		NodeImpl prevNode = null;
 		//List<NodeImpl> orderedNodes = orderResolver.getOrderedNodes();
@@ -417,7 +667,7 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 			NodeImpl node = orderedNodes.get(i);
 			if (prevNode != null) {
 				if (node.getBounds() != null && prevNode.getBounds() != null) {
-					isNewRow =  (Math.abs(node.getBounds().y - prevNode.getBounds().y) > 3);
+					isNewRow =  (Math.abs(node.getBounds().y - prevNode.getBounds().y) > newRowThreshold);
 				} else {
 					isNewRow = !NodeUtilities.areNodesHorizontallyConnected(prevNode, node) ||
 							   !isNodeConnectedTo(node, prevRow.getNodes());
@@ -445,6 +695,29 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 			prevNode = node;
 		}
 
+		// Create Message:
+		for (Link lnk : getMessageLinks()) {
+			Message msg = (Message)lnk.getElement();
+			if (msg == null)
+				continue;
+			
+			if (msg.getMessageSort() == MessageSort.CREATE_MESSAGE_LITERAL) {
+				NodeImpl trg = (NodeImpl)lnk.getTarget();
+				ClusterImpl lifeline = (ClusterImpl)NodeUtilities.getLifelineNode(trg);
+				if (lifeline != null) {
+					lifeline.getRow().removeNode(lifeline);
+					lifeline.setRow(trg.getRow());
+					trg.getRow().addNode(lifeline);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Column assignment stage: a column per lifeline, holding all its nodes.
+	 */
+	@SuppressWarnings("unchecked")
+	void layoutColumns(InteractionLayoutManager.LayoutState state) {
 		Rectangle prevBounds = null;
 		// Layout Lifeline Columns
 		for (ClusterImpl lfCluster : lifelineClusters) {
@@ -467,16 +740,27 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 				prevBounds = r;
 			}
 			column.addNodes((List) lfCluster.getAllNodes());
-			
-			// Layout Clusters
+		}
+	}
+
+	/**
+	 * Cluster layout stage: the clusters inside the lifelines, innermost first.
+	 */
+	@SuppressWarnings("unchecked")
+	void layoutClusters(InteractionLayoutManager.LayoutState state) {
+		for (ClusterImpl lfCluster : lifelineClusters) {
 			List<ClusterImpl> subClusters = (List)lfCluster.getAllClusters();
 			Collections.reverse(subClusters);
 			subClusters.stream().forEach(layoutManager::layout);
 		}
+	}
 
-		ColumnImpl leftGatesColumn = null;
-		ColumnImpl rightGatesColumn = null;
-
+	/**
+	 * Gate placement stage: the columns of the formal gates, on the sides of the interaction, and of the
+	 * fragment gates, on the sides of their fragments. The columns of the layout marks are placed last,
+	 * among all the others.
+	 */
+	void layoutGates(InteractionLayoutManager.LayoutState state) {
 		Rectangle interactionBounds = ViewUtilities.getBounds(viewer, getInteractionView());
 
 		// Actual Gates
@@ -498,16 +782,16 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 			}
 
 			if (colIndex < ((columns.size() + 1) / 2)) {
-				if (leftGatesColumn == null) {
-					leftGatesColumn = new ColumnImpl(this);
+				if (state.leftGatesColumn == null) {
+					state.leftGatesColumn = new ColumnImpl(this);
 				}
-				leftGatesColumn.addNode((NodeImpl) formalGate);
+				state.leftGatesColumn.addNode((NodeImpl) formalGate);
 				continue;
 			} else {
-				if (rightGatesColumn == null) {
-					rightGatesColumn = new ColumnImpl(this);
+				if (state.rightGatesColumn == null) {
+					state.rightGatesColumn = new ColumnImpl(this);
 				}
-				rightGatesColumn.addNode((NodeImpl) formalGate);
+				state.rightGatesColumn.addNode((NodeImpl) formalGate);
 			}
 
 		}
@@ -525,8 +809,8 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 			List<Node> coveredLifelines = cluster.getClusters().stream().map(NodeImpl.class::cast).map(NodeUtilities::getLifelineNode).
 					filter(Predicate.isEqual(null).negate()).collect(Collectors.toList());
 			Rectangle fragmentBounds = cluster.getBounds();//ViewUtilities.getBounds(viewer, cluster.getView());
-			Column leftLifelineColumn = coveredLifelines.stream().map(Node::getColumn).min(Comparator.comparing(d->columns.indexOf(d))).orElse(null);
-			Column rightLifelineColumn = coveredLifelines.stream().map(Node::getColumn).max(Comparator.comparing(d->columns.indexOf(d))).orElse(null);
+			Column leftLifelineColumn = coveredLifelines.stream().map(Node::getColumn).min(Comparator.comparingInt(Column::getIndex)).orElse(null);
+			Column rightLifelineColumn = coveredLifelines.stream().map(Node::getColumn).max(Comparator.comparingInt(Column::getIndex)).orElse(null);
 			if (leftLifelineColumn == null || rightLifelineColumn == null)
 				continue;
 			for (Node gate : cluster.getAllGates()) {
@@ -535,7 +819,7 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 				ColumnImpl col;
 				if (Math.abs(r.getCenter().x - fragmentBounds.getLeft().x) <= Math.abs(r.getCenter().x - fragmentBounds.getRight().x)) {
 					int x = fragmentBounds.x();
-					col = columns.stream().filter(d->d.getXPosition() == x).findFirst().orElse(null);
+					col = getColumnAt(x);
 					if (col == null) {
 						col = new ColumnImpl(this);
 						col.setXPosition(x);
@@ -543,7 +827,7 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 					}
 				} else {
 					int x = fragmentBounds.right();
-					col = columns.stream().filter(d->d.getXPosition() == x).findFirst().orElse(null);
+					col = getColumnAt(x);
 					if (col == null) {
 						col = new ColumnImpl(this);
 						col.setXPosition(x);
@@ -558,44 +842,34 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 			}
 		}
 
-		if (leftGatesColumn != null) {
-			columns.add(0, leftGatesColumn);
+		if (state.leftGatesColumn != null) {
+			columns.add(0, state.leftGatesColumn);
 		}
 
-		if (rightGatesColumn != null) {
-			columns.add(rightGatesColumn);
+		if (state.rightGatesColumn != null) {
+			columns.add(state.rightGatesColumn);
 		}
 
 		// Layout Mark Columns
 		for (MarkNodeImpl m : layoutMarks) {
-			ColumnImpl c = (ColumnImpl)NodeUtilities.getColumnAt(this, m.getBounds().x);
+			ColumnImpl c = getColumnAt(m.getBounds().x);
 			if (c == null) {
 				c = new ColumnImpl(this);
 				c.setXPosition(m.getBounds().x);
-				Column ca = NodeUtilities.getColumnAfter(this, c.getXPosition());
+				Column ca = getColumnAfter(c.getXPosition());
 				int index = ca == null ? columns.size() : columns.indexOf(ca);
 				columns.add(index,c);
 			}			
 			c.addNode(m);
 		}
-		
-		// Create Message:
-		for (Link lnk : getMessageLinks()) {
-			Message msg = (Message)lnk.getElement();
-			if (msg == null)
-				continue;
-			
-			if (msg.getMessageSort() == MessageSort.CREATE_MESSAGE_LITERAL) {
-				NodeImpl trg = (NodeImpl)lnk.getTarget();
-				ClusterImpl lifeline = (ClusterImpl)NodeUtilities.getLifelineNode(trg);
-				if (lifeline != null) {
-					lifeline.getRow().removeNode(lifeline);
-					lifeline.setRow(trg.getRow());
-					trg.getRow().addNode(lifeline);
-				}
-			}
-		}
-		
+	}
+
+	/**
+	 * Snapping stage: the rows close enough to the grid are snapped to it, and the rows too close to the
+	 * previous one are merged into it, within the tolerances of the layout manager.
+	 */
+	@SuppressWarnings("unchecked")
+	void snapRows(InteractionLayoutManager.LayoutState state) {
 		// TODO: Columns & Rows for floating Nodes
 		// TODO: Layout Y Positions.
 		double grid = -1.0;
@@ -604,20 +878,22 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 		if (grid <= 5.0)
 			grid = -1.0;
 		
+		int snapTolerance = layoutManager.getGridSnapTolerance();
+		int mergeTolerance = layoutManager.getRowMergeTolerance();
 		List<RowImpl> rowsToDelete = new ArrayList<RowImpl>();
-		prevRow = null;
+		RowImpl prevRow = null;
 		for (RowImpl r : rows) {
 			int closestGrid = (int)(Math.round(((double)r.getYPosition() / (double)grid)) * (double)grid);
 			int diff = Math.abs(r.getYPosition() - closestGrid);
-			if (diff > 0 && diff <= 2) {
+			if (diff > 0 && diff <= snapTolerance) {
 				r.setYPosition(closestGrid);
 			}
 
 		}
 		
 		for (RowImpl r : rows) {			// Order nodes in each row.
-			r.nodes.sort(RowImpl.MESSAGE_END_NODE_COMPARATOR);
-			if (prevRow != null && r.getYPosition() - prevRow.getYPosition() <= 2) {
+			r.sortNodes(RowImpl.MESSAGE_END_NODE_COMPARATOR);
+			if (prevRow != null && r.getYPosition() - prevRow.getYPosition() <= mergeTolerance) {
 				r.addNodes(new ArrayList(prevRow.getNodes()));
 				rowsToDelete.add(r);
 			}
@@ -625,30 +901,39 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 			
 		}
 		
+		// Row and column indices are kept by the slot lists.
 		rows.removeAll(rowsToDelete);		
-		rows.stream().forEach(d -> d.setIndex(rows.indexOf(d)));
-		rows.stream().forEach(d -> d.setIndex(rows.indexOf(d)));
-		columns.stream().forEach(d -> d.setIndex(columns.indexOf(d)));
-
-
 
 		// TODO: Layout X Positions.
 		for (ColumnImpl col : columns) {
 			// int x = col.getXPosition();
 			// col.nodes.stream().forEach(d -> d.horizontalLayout(x));
 		}
+	}
 
+	/**
+	 * Node layout stage: the rows and columns positions are applied to the nodes.
+	 */
+	void layoutNodes(InteractionLayoutManager.LayoutState state) {
 		layoutManager.layout();
-		
-		int lastY = Math.max(300,rows.get(rows.size()-1).getYPosition()+getGridSpacing(40));
+	}
+
+	/**
+	 * Frame sizing stage: the lifelines are extended to the last row, the interaction frame is sized to
+	 * its content (at least the minimum diagram size of the layout manager) and the formal gates are put
+	 * on its sides.
+	 */
+	@SuppressWarnings("unchecked")
+	void layoutFrame(InteractionLayoutManager.LayoutState state) {
+		int minSize = layoutManager.getMinimumDiagramSize();
+		int lastY = Math.max(minSize,rows.get(rows.size()-1).getYPosition()+getGridSpacing(40));
 		// Set lifelines size equal.
 		for (Cluster lifeline : lifelineClusters) {
 			boolean destroyed = lifeline.getAllNodes().stream().filter(d -> (d.getElement() instanceof DestructionOccurrenceSpecification)).
 				findFirst().orElse(null) != null; 
 			if (!destroyed) {
 				Rectangle r = lifeline.getBounds();
-				r.height = lastY - r.y;
-				r.setBounds(r);
+				((NodeImpl) lifeline).resize(0, lastY - r.y - r.height);
 			}
 		}
 		int lastX = 0;
@@ -659,21 +944,21 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 		if (allClusterRect != null)
 			lastX = Math.max(allClusterRect.getRight().x, lastX);
 		
-		lastX = Math.max(lastX,300);
+		lastX = Math.max(lastX,minSize);
 		
 		Rectangle r = ViewUtilities.getBounds(getViewer(), getView()).getCopy();		
 		r.height = lastY - r.y + getGridSpacing(60);
 		r.width = lastX - r.x + getGridSpacing(60);		
 		setBounds(r);
 		
-		if (rightGatesColumn != null) {
-			rightGatesColumn.setXPosition(r.right());
-			rightGatesColumn.getNodes().stream().map(NodeImpl.class::cast).forEach(layoutManager::layout);
+		if (state.rightGatesColumn != null) {
+			state.rightGatesColumn.setXPosition(r.right());
+			state.rightGatesColumn.getNodes().stream().map(NodeImpl.class::cast).forEach(layoutManager::layout);
 		}
 		
-		if (leftGatesColumn != null) {
-			leftGatesColumn.setXPosition(r.x());
-			leftGatesColumn.getNodes().stream().map(NodeImpl.class::cast).forEach(layoutManager::layout);
+		if (state.leftGatesColumn != null) {
+			state.leftGatesColumn.setXPosition(r.x());
+			state.leftGatesColumn.getNodes().stream().map(NodeImpl.class::cast).forEach(layoutManager::layout);
 		}
 
 	}
@@ -1057,14 +1342,26 @@ public class InteractionGraphImpl extends FragmentClusterImpl implements Interac
 	private Diagram diagram;
 	private DiagramEditPart diagramEditPart;
 	private int disabledLayout = 0; 
+	private int deferredLayout = 0;
+	private boolean layoutPending = false;
+	private boolean layoutRunning = false;
+	private int layoutCount = 0;
+	private boolean tracked = false;
+	private boolean valid = true;
+	private int boundsVersion;
+	private int boundsResetVersion;
+	private InteractionGraphDragFeedback dragFeedback;
 	private boolean gridEnabled = true; 
 	private int gridSpacing = 20; 
 	private InteractionGraphBuilder builder;
 	private EditPartViewer viewer;
 	private List<ClusterImpl> lifelineClusters = new ArrayList<>();
 	private List<LinkImpl> messageLinks = new ArrayList<>();
-	private List<RowImpl> rows = new ArrayList<>();
-	private List<ColumnImpl> columns = new ArrayList<>();
+	private SlotList<RowImpl> rows = new SlotList<>();
+	private SlotList<ColumnImpl> columns = new SlotList<>();
 	private InteractionLayoutManager layoutManager = new InteractionLayoutManager(this);
 	private List<MarkNodeImpl> layoutMarks = new ArrayList<>();
+	private List<Node> orderedNodes;
+	private Map<Node, Integer> orderedNodeIndices;
+	private int orderedNodesVersion;
 }
@@ -39,6 +39,7 @@ import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Cluster
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Column;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.FragmentCluster;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.GraphItem;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraph;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Link;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.MarkNode;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.MarkNode.Kind;
@@ -71,6 +72,17 @@ public class InteractionGraphService {
 		this.editingDomain = editingDomain;
 	}
 	
+	/**
+	 * Returns the drag feedback of a graph, which answers the can* queries of the messages being dragged
+	 * without building any command. It is kept with the graph, so the answers are reused along the drag.
+	 *
+	 * @param interactionGraph the graph.
+	 * @return the drag feedback.
+	 */
+	public static InteractionGraphDragFeedback getDragFeedback(InteractionGraph interactionGraph) {
+		return ((InteractionGraphImpl) interactionGraph).getDragFeedback();
+	}
+
 	public boolean canMoveElements(List<Element> elements, Point point) {
 		
 		int minY = Integer.MAX_VALUE;
@@ -164,7 +176,7 @@ public class InteractionGraphService {
 		
 		interactionGraph.moveLifeline(lifeline,
 				(Lifeline) (nextLifeline == null ? null : nextLifeline.getElement()));
-		lifelineNode.getBounds().x = newX;		
+		((NodeImpl) lifelineNode).translate(newX - lifelineNode.getBounds().x, 0);
 		interactionGraph.layout();
 		
 		if (curNextLifeline != null) {
@@ -251,7 +263,7 @@ public class InteractionGraphService {
 		}
 
 		int _firstColIndex = firstColIndex; 
-		lifelineNode.getBounds().x += moveDelta.x;
+		((NodeImpl) lifelineNode).translate(moveDelta.x, 0);
 		interactionGraph.getColumns().stream().filter(d -> d.getIndex() >= _firstColIndex)
 				.map(ColumnImpl.class::cast).forEach(d -> d.nudge(moveDelta.x));
 		
@@ -272,7 +284,7 @@ public class InteractionGraphService {
 	
 	public void resizeLifeline(Lifeline lifeline, Dimension sizeDelta) {
 		Node lifelineNode = interactionGraph.getNodeFor(lifeline);
-		lifelineNode.getBounds().width += sizeDelta.width;
+		((NodeImpl) lifelineNode).resize(sizeDelta.width, 0);
 		interactionGraph.getColumns().stream().filter(d -> d.getIndex() > lifelineNode.getColumn().getIndex())
 				.map(ColumnImpl.class::cast).forEach(d -> d.nudge(sizeDelta.width));
 		interactionGraph.layout();
@@ -642,9 +654,7 @@ public class InteractionGraphService {
 		}
 		
 		Rectangle r = msgEndNode.getBounds();
-		r.y = newMsgEndPos.y;
-		if (isGate)
-			r.x = newMsgEndPos.x;
+		((NodeImpl) msgEndNode).translate(isGate ? newMsgEndPos.x - r.x : 0, newMsgEndPos.y - r.y);
 		interactionGraph.layout();
 	}
 
@@ -944,7 +954,7 @@ public class InteractionGraphService {
 		
 		Rectangle r = msgEndNode.getBounds();
 		if (r.x != newLoc.x) {
-			msgEndNode.getBounds().x = newLoc.x;
+			((NodeImpl) msgEndNode).translate(newLoc.x - r.x, 0);
 			interactionGraph.layout();
 		}
 		return true;
@@ -1294,7 +1304,7 @@ public class InteractionGraphService {
 		
 		Rectangle r = msgEndNode.getBounds();
 		if (r.x != newLoc.x) {
-			msgEndNode.getBounds().x = newLoc.x;
+			((NodeImpl) msgEndNode).translate(newLoc.x - r.x, 0);
 			interactionGraph.layout();
 		}
 		return true;
@@ -1876,14 +1886,18 @@ public class InteractionGraphService {
 			}
 		}
 		
-		startNode.getBounds().y-=topAmmount;
-		endNode.getBounds().y+=bottomAmmount;		
+		((NodeImpl) startNode).translate(0, -topAmmount);
+		((NodeImpl) endNode).translate(0, bottomAmmount);
 		
-		cluster.getBounds().y = startNode.getBounds().y;
-		cluster.getBounds().height = endNode.getBounds().y - startNode.getBounds().y;
+		Rectangle r = cluster.getBounds();
+		int dy = startNode.getBounds().y - r.y;
+		int dh = endNode.getBounds().y - startNode.getBounds().y - r.height;
+		cluster.translate(0, dy);
+		cluster.resize(0, dh);
 		
 		if (cluster.getNodes().size() > 2 && cluster.getNodes().get(1).getElement() == cluster.getElement()) {
-			cluster.getNodes().get(1).getBounds().y = cluster.getBounds().y; 
+			NodeImpl n = (NodeImpl) cluster.getNodes().get(1);
+			n.translate(0, cluster.getBounds().y - n.getBounds().y); 
 		}
 	}
 
@@ -1905,8 +1919,8 @@ public class InteractionGraphService {
 				insertBefore = parent.getNodes().get(idx);						
 			NodeUtilities.moveNodes(interactionGraph, nodesToMoveIn, parent, insertBefore, NodeUtilities.getArea(nodesToMoveIn).y);
 		}
-		lastNode.getBounds().y -= ammount;
-		cluster.getBounds().height -= ammount;
+		((NodeImpl) lastNode).translate(0, -ammount);
+		((NodeImpl) cluster).resize(0, -ammount);
 
 	}
 
@@ -1927,8 +1941,8 @@ public class InteractionGraphService {
 			NodeUtilities.moveNodes(interactionGraph, nodesToMoveIn, cluster, lastNode, NodeUtilities.getArea(nodesToMoveIn).y);
 		}		
 		
-		lastNode.getBounds().y += ammount;
-		cluster.getBounds().height += ammount;
+		((NodeImpl) lastNode).translate(0, ammount);
+		((NodeImpl) cluster).resize(0, ammount);
 	}
 	
 	public Cluster getMessageEndOwnerCluster(MessageEnd msgEnd, Element owner) {
@@ -0,0 +1,141 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.GraphItem;
+
+/**
+ * Saved state of an {@link InteractionGraphImpl}: clusters, nodes, links, rows, columns and their bounds.<br>
+ * Every item reachable from the graph keeps a detached copy of its fields, so {@link #restore()} puts the
+ * graph back as it was, discarding any node or link added, removed or moved after the snapshot. The
+ * element lookup of the builder is saved too, so {@link InteractionGraphImpl#getNodeFor(org.eclipse.uml2.uml.Element)}
+ * does not answer the nodes created afterwards. The model and the notation are not part of the snapshot,
+ * so it is only valid while they are not changed.
+ *
+ * @author ETXACAM
+ */
+public class InteractionGraphSnapshot {
+	InteractionGraphSnapshot(InteractionGraphImpl graph) {
+		this.graph = graph;
+		rows = graph.getRows().stream().map(RowImpl.class::cast).collect(Collectors.toList());
+		columns = graph.getColumns().stream().map(ColumnImpl.class::cast).collect(Collectors.toList());
+		nodeCache = new HashMap<>(graph.getBuilder().nodeCache);
+
+		enqueue(graph);
+		enqueue(graph.getLifelineClusters());
+		enqueue(graph.getMessageLinks());
+		enqueue(graph.getLayoutMarks());
+		enqueue(nodeCache.values());
+		rows.forEach(this::saveSlot);
+		columns.forEach(this::saveSlot);
+		while (!pending.isEmpty()) {
+			save(pending.poll());
+		}
+	}
+
+	/**
+	 * Puts the graph back in the state it had when the snapshot was taken. A snapshot can be restored
+	 * several times.
+	 */
+	public void restore() {
+		itemStates.forEach(GraphItemImpl::restoreState);
+		slotStates.forEach(SlotImpl::restoreState);
+		graph.restoreSlots(rows, columns);
+		Map<EObject, GraphItem> builderCache = graph.getBuilder().nodeCache;
+		builderCache.clear();
+		builderCache.putAll(nodeCache);
+		// The stages skipped by their cache key may have run on nodes changed after the snapshot.
+		graph.getLayoutManager().reset();
+	}
+
+	public InteractionGraphImpl getInteractionGraph() {
+		return graph;
+	}
+
+	private void save(GraphItemImpl item) {
+		if (itemStates.containsKey(item)) {
+			return;
+		}
+		itemStates.put(item, item.saveState());
+
+		// Follow every reference, so items detached later are restored too.
+		if (item instanceof NodeImpl) {
+			NodeImpl node = (NodeImpl) item;
+			enqueue(node.getParent());
+			enqueue(node.getConnectedNode());
+			enqueue(node.getConnectedByNode());
+			enqueue(node.getConnectedByLink());
+			saveSlot(node.getRow());
+			saveSlot(node.getColumn());
+		}
+
+		if (item instanceof ClusterImpl) {
+			ClusterImpl cluster = (ClusterImpl) item;
+			enqueue(cluster.getNodes());
+			enqueue(cluster.getFragmentCluster());
+		}
+
+		if (item instanceof FragmentClusterImpl) {
+			FragmentClusterImpl fragmentCluster = (FragmentClusterImpl) item;
+			enqueue(fragmentCluster.getClusters());
+			enqueue(fragmentCluster.getOwnedFragmentClusters());
+			enqueue(fragmentCluster.getInnerGates());
+			enqueue(fragmentCluster.getOuterGates());
+			enqueue(fragmentCluster.getFloatingNodes());
+		}
+
+		if (item instanceof LinkImpl) {
+			LinkImpl link = (LinkImpl) item;
+			enqueue(link.getSource());
+			enqueue(link.getTarget());
+		}
+	}
+
+	private void saveSlot(SlotImpl slot) {
+		if (slot == null || slotStates.containsKey(slot)) {
+			return;
+		}
+		slotStates.put(slot, slot.saveState());
+		enqueue(slot.getNodes());
+	}
+
+	private void enqueue(Object item) {
+		if (item instanceof GraphItemImpl && !itemStates.containsKey(item)) {
+			pending.add((GraphItemImpl) item);
+		}
+	}
+
+	private void enqueue(Collection<?> items) {
+		items.forEach(this::enqueue);
+	}
+
+	private InteractionGraphImpl graph;
+	private List<RowImpl> rows;
+	private List<ColumnImpl> columns;
+	private Map<EObject, GraphItem> nodeCache;
+	private Map<GraphItemImpl, GraphItemImpl> itemStates = new IdentityHashMap<>();
+	private Map<SlotImpl, SlotImpl> slotStates = new IdentityHashMap<>();
+	private Deque<GraphItemImpl> pending = new ArrayDeque<>();
+}
@@ -0,0 +1,237 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.gmf.runtime.notation.Diagram;
+
+/**
+ * Counters and timers of the interaction graph operations (build, layout, edit actions, delegate
+ * commands), kept per diagram as histograms of the elapsed times.<br>
+ * Disabled by default, it is enabled with the trace option
+ * {@value #DEBUG_OPTION} or {@link #setEnabled(boolean)}. When disabled, {@link #start(Diagram, String)}
+ * only reads a flag and returns a measure that records nothing. The report of a diagram is logged when
+ * its cached graph is disposed (see {@link InteractionGraphCache}), or can be got with {@link #getReport()}.
+ *
+ * Usage:
+ *
+ * <pre>
+ * Measure measure = InteractionGraphStatistics.start(diagram, "operation");
+ * try {
+ * 	...
+ * } finally {
+ * 	measure.stop();
+ * }
+ * </pre>
+ *
+ * @author ETXACAM
+ */
+public final class InteractionGraphStatistics {
+	public static final String DEBUG_OPTION = "org.eclipse.papyrus.uml.diagram.sequence/debug/interactionGraph"; //$NON-NLS-1$
+
+	private InteractionGraphStatistics() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(boolean enabled) {
+		InteractionGraphStatistics.enabled = enabled;
+	}
+
+	/**
+	 * Starts measuring an operation.
+	 *
+	 * @param diagram the diagram of the graph, may be null.
+	 * @param operation the name of the operation.
+	 * @return the measure to stop when the operation ends.
+	 */
+	public static Measure start(Diagram diagram, String operation) {
+		return enabled ? new Measure(diagram, operation) : Measure.NONE;
+	}
+
+	private static void record(Diagram diagram, String operation, long elapsed) {
+		if (!enabled) {
+			return;
+		}
+		synchronized (statistics) {
+			statistics.computeIfAbsent(diagram, d -> new TreeMap<>())
+					.computeIfAbsent(operation, d -> new Histogram())
+					.add(elapsed);
+		}
+	}
+
+	/**
+	 * @param diagram the diagram, may be null.
+	 * @return a copy of the histograms of the diagram, by operation.
+	 */
+	public static Map<String, Histogram> getHistograms(Diagram diagram) {
+		Map<String, Histogram> res = new TreeMap<>();
+		synchronized (statistics) {
+			statistics.getOrDefault(diagram, new TreeMap<>()).forEach((op, h) -> res.put(op, h.copy()));
+		}
+		return res;
+	}
+
+	public static void reset() {
+		synchronized (statistics) {
+			statistics.clear();
+		}
+	}
+
+	/**
+	 * @return the report of all the diagrams measured.
+	 */
+	public static String getReport() {
+		Map<Diagram, Map<String, Histogram>> all = new LinkedHashMap<>();
+		synchronized (statistics) {
+			statistics.keySet().forEach(d -> all.put(d, getHistograms(d)));
+		}
+		StringBuilder sb = new StringBuilder();
+		all.forEach((d, h) -> appendReport(sb, d, h));
+		return sb.toString();
+	}
+
+	/**
+	 * @param diagram the diagram, may be null.
+	 * @return the report of the diagram.
+	 */
+	public static String getReport(Diagram diagram) {
+		StringBuilder sb = new StringBuilder();
+		appendReport(sb, diagram, getHistograms(diagram));
+		return sb.toString();
+	}
+
+	private static void appendReport(StringBuilder sb, Diagram diagram, Map<String, Histogram> histograms) {
+		sb.append("Interaction graph statistics of ").append(diagram == null ? "<no diagram>" : diagram.getName()).append('\n');
+		histograms.forEach((op, h) -> sb.append("  ").append(op).append(": ").append(h).append('\n'));
+	}
+
+	private static boolean isDebugOptionSet() {
+		try {
+			return Platform.isRunning() && Boolean.parseBoolean(Platform.getDebugOption(DEBUG_OPTION));
+		} catch (RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * A running measure, started with {@link InteractionGraphStatistics#start(Diagram, String)}.
+	 */
+	public static class Measure {
+		private static final Measure NONE = new Measure(null, null) {
+			@Override
+			public void stop() {
+			}
+		};
+
+		private Measure(Diagram diagram, String operation) {
+			this.diagram = diagram;
+			this.operation = operation;
+			this.start = System.nanoTime();
+		}
+
+		/**
+		 * Records the time elapsed since the start of the measure.
+		 */
+		public void stop() {
+			record(diagram, operation, System.nanoTime() - start);
+		}
+
+		private final Diagram diagram;
+		private final String operation;
+		private final long start;
+	}
+
+	/**
+	 * Histogram of the elapsed times of an operation. Bucket i counts the measures between 2^i and
+	 * 2^(i+1) microseconds, the first one the measures under 2 microseconds.
+	 */
+	public static class Histogram {
+		public long getCount() {
+			return count;
+		}
+
+		public long getTotalNanos() {
+			return total;
+		}
+
+		public long getMinNanos() {
+			return count == 0 ? 0 : min;
+		}
+
+		public long getMaxNanos() {
+			return max;
+		}
+
+		public long[] getBuckets() {
+			return buckets.clone();
+		}
+
+		void add(long nanos) {
+			count++;
+			total += nanos;
+			min = Math.min(min, nanos);
+			max = Math.max(max, nanos);
+			long micros = nanos / 1000;
+			int bucket = micros <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(micros);
+			buckets[Math.min(bucket, buckets.length - 1)]++;
+		}
+
+		Histogram copy() {
+			Histogram h = new Histogram();
+			h.count = count;
+			h.total = total;
+			h.min = min;
+			h.max = max;
+			h.buckets = buckets.clone();
+			return h;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(String.format("%d calls, %.3f ms total, %.3f ms avg, %.3f ms min, %.3f ms max [",
+					count, total / 1e6, count == 0 ? 0 : total / 1e6 / count, getMinNanos() / 1e6, max / 1e6));
+			int last = buckets.length - 1;
+			while (last > 0 && buckets[last] == 0) {
+				last--;
+			}
+			for (int i = 0; i <= last; i++) {
+				sb.append(i == 0 ? "" : " ").append("<").append(formatMicros(2L << i)).append(":").append(buckets[i]);
+			}
+			return sb.append("]").toString();
+		}
+
+		private static String formatMicros(long micros) {
+			return micros < 1000 ? micros + "us" : micros < 1000_000 ? (micros / 1000) + "ms" : (micros / 1000_000) + "s";
+		}
+
+		private long count;
+		private long total;
+		private long min = Long.MAX_VALUE;
+		private long max;
+		private long[] buckets = new long[24];
+	}
+
+	private static volatile boolean enabled = isDebugOptionSet();
+	// Diagrams are weakly referenced, so the statistics of closed models are dropped.
+	private static final Map<Diagram, Map<String, Histogram>> statistics = new WeakHashMap<>();
+}
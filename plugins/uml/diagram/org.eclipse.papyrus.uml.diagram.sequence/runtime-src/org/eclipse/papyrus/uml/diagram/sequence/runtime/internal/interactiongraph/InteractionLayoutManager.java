@@ -15,7 +15,9 @@
 package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -33,6 +35,12 @@ import org.eclipse.uml2.uml.InteractionUse;
 import org.eclipse.uml2.uml.Lifeline;
 
 /**
+ * Lays out the nodes of the interaction graph once the rows and columns have been calculated.<br>
+ * The grid layout itself is a pipeline of named {@link InteractionLayoutStage}s (rows, columns,
+ * clusters, gates, snap, nodes and frame) that can be replaced, and are measured separately in the
+ * {@link InteractionGraphStatistics}. The tolerances
+ * used by the default stages are configurable.
+ *
  * @author ETXACAM
  *
  */
@@ -44,6 +52,105 @@ public class InteractionLayoutManager implements InteractionNodeLayout {
 		this.interactionGraph = graph;
 	}
 
+	/**
+	 * Forgets the stages run by the previous layouts, so the next one runs every stage.
+	 */
+	void reset() {
+		stageKeys.clear();
+	}
+
+	/**
+	 * Replaces a stage of the grid layout, or adds it at the end if there is no stage with that name.
+	 *
+	 * @param name the name of the stage.
+	 * @param stage the stage, or null to remove the stage.
+	 */
+	public void setStage(String name, InteractionLayoutStage stage) {
+		if (stage == null) {
+			stages.remove(name);
+		} else {
+			stages.put(name, stage);
+		}
+		stageKeys.remove(name);
+	}
+
+	/**
+	 * @return the stages of the grid layout by name, in running order.
+	 */
+	public Map<String, InteractionLayoutStage> getStages() {
+		return Collections.unmodifiableMap(stages);
+	}
+
+	/**
+	 * Runs the stages of the grid layout. Called by the graph once the rows and columns are cleared.
+	 */
+	void runStages() {
+		LayoutState state = new LayoutState();
+		for (Map.Entry<String, InteractionLayoutStage> entry : stages.entrySet()) {
+			InteractionLayoutStage stage = entry.getValue();
+			Object key = stage.getCacheKey(interactionGraph);
+			if (key != null && key.equals(stageKeys.get(entry.getKey()))) {
+				continue;
+			}
+
+			InteractionGraphStatistics.Measure measure = InteractionGraphStatistics.start(interactionGraph.getDiagram(),
+					"layoutGrid." + entry.getKey());
+			try {
+				stage.layout(interactionGraph, state);
+			} catch (RuntimeException e) {
+				stageKeys.remove(entry.getKey());
+				throw e;
+			} finally {
+				measure.stop();
+			}
+			stageKeys.put(entry.getKey(), key);
+		}
+	}
+
+	/**
+	 * @return the maximum distance between two rows merged into one.
+	 */
+	public int getRowMergeTolerance() {
+		return rowMergeTolerance;
+	}
+
+	public void setRowMergeTolerance(int rowMergeTolerance) {
+		this.rowMergeTolerance = rowMergeTolerance;
+	}
+
+	/**
+	 * @return the minimum vertical distance between two consecutive nodes in different rows.
+	 */
+	public int getNewRowThreshold() {
+		return newRowThreshold;
+	}
+
+	public void setNewRowThreshold(int newRowThreshold) {
+		this.newRowThreshold = newRowThreshold;
+	}
+
+	/**
+	 * @return the maximum distance of a row to the grid to be snapped to it.
+	 */
+	public int getGridSnapTolerance() {
+		return gridSnapTolerance;
+	}
+
+	public void setGridSnapTolerance(int gridSnapTolerance) {
+		this.gridSnapTolerance = gridSnapTolerance;
+	}
+
+	/**
+	 * @return the minimum width and height of the interaction frame content.
+	 */
+	public int getMinimumDiagramSize() {
+		return minimumDiagramSize;
+	}
+
+	public void setMinimumDiagramSize(int minimumDiagramSize) {
+		this.minimumDiagramSize = minimumDiagramSize;
+	}
+
 	public void layout() {
 		interactionGraph.getLifelineClusters().stream().forEach(d -> layout((NodeImpl) d));		
 		interactionGraph.getFragmentClusters().stream().forEach(d -> layout((NodeImpl) d));
@@ -119,8 +226,8 @@ public class InteractionLayoutManager implements InteractionNodeLayout {
 		} else {
 			Rectangle r = node.getBounds();
 			if (r != null) {				
-				r.x = node.getColumn().getXPosition() - (r.width / 2);
-				r.y = node.getRow().getYPosition() - (r.height / 2);
+				node.translate(node.getColumn().getXPosition() - (r.width / 2) - r.x,
+						node.getRow().getYPosition() - (r.height / 2) - r.y);
 			}				
 		}
 	}
@@ -155,5 +262,31 @@ public class InteractionLayoutManager implements InteractionNodeLayout {
 		return map;
 	}
 
+	private static Map<String, InteractionLayoutStage> initializeStages() {
+		Map<String, InteractionLayoutStage> map = new LinkedHashMap<>();
+		map.put("rows", InteractionGraphImpl::layoutRows);
+		map.put("columns", InteractionGraphImpl::layoutColumns);
+		map.put("clusters", InteractionGraphImpl::layoutClusters);
+		map.put("gates", InteractionGraphImpl::layoutGates);
+		map.put("snap", InteractionGraphImpl::snapRows);
+		map.put("nodes", InteractionGraphImpl::layoutNodes);
+		map.put("frame", InteractionGraphImpl::layoutFrame);
+		return map;
+	}
+
+	/**
+	 * State shared by the stages of one grid layout.
+	 */
+	public static class LayoutState {
+		ColumnImpl leftGatesColumn;
+		ColumnImpl rightGatesColumn;
+	}
+
 	private InteractionGraphImpl interactionGraph;
+	private Map<String, InteractionLayoutStage> stages = initializeStages();
+	private Map<String, Object> stageKeys = new HashMap<>();
+	private int rowMergeTolerance = 2;
+	private int newRowThreshold = 3;
+	private int gridSnapTolerance = 2;
+	private int minimumDiagramSize = 300;
 }
@@ -0,0 +1,45 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+/**
+ * A stage of the grid layout of the interaction graph, run by the {@link InteractionLayoutManager} in
+ * the order of its stages.
+ *
+ * @author ETXACAM
+ *
+ */
+@FunctionalInterface
+public interface InteractionLayoutStage {
+	/**
+	 * Runs the stage.
+	 *
+	 * @param graph the graph being laid out. Its rows and columns are cleared before the first stage.
+	 * @param state the state shared by the stages of the same layout.
+	 */
+	public void layout(InteractionGraphImpl graph, InteractionLayoutManager.LayoutState state);
+
+	/**
+	 * Returns the key of the inputs of the stage. The stage is skipped when the key is equal to the one of
+	 * its previous run, so only stages whose results survive the clearing of rows and columns can be
+	 * cached. The default stages are never skipped.
+	 *
+	 * @param graph the graph being laid out.
+	 * @return the key, or null if the stage has to run.
+	 */
+	public default Object getCacheKey(InteractionGraphImpl graph) {
+		return null;
+	}
+}
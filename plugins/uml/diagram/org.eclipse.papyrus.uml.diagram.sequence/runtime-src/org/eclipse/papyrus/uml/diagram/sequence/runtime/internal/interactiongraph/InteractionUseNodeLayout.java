@@ -48,10 +48,10 @@ public class InteractionUseNodeLayout implements InteractionNodeLayout {
 					int leftSide = lifelines.stream().map(Node::getBounds).map(Rectangle::x).collect(Collectors.minBy(Integer::compare)).get();
 					int rightSide = lifelines.stream().map(Node::getBounds).map(Rectangle::right).collect(Collectors.maxBy(Integer::compare)).get();
 					r.x = Math.min(r.x, leftSide);
-					leftGates.forEach(d->d.getBounds().x = r.x);
+					leftGates.forEach(d->((NodeImpl)d).translate(r.x - d.getBounds().x, 0));
 					int right = Math.max(r.getRight().x, rightSide);
 					r.width = right - r.x;
-					rightGates.forEach(d->d.getBounds().x = right);
+					rightGates.forEach(d->((NodeImpl)d).translate(right - d.getBounds().x, 0));
 				}
 				node.setBounds(r);
 			}
@@ -47,6 +47,18 @@ public class LinkImpl extends GraphItemImpl implements Link {
 		return graph;
 	}
 
+	@Override
+	protected void restoreState(GraphItemImpl state) {
+		super.restoreState(state);
+		LinkImpl linkState = (LinkImpl) state;
+		graph = linkState.graph;
+		element = linkState.element;
+		source = linkState.source;
+		target = linkState.target;
+		edge = linkState.edge;
+		editPart = linkState.editPart;
+	}
+
 	void setInteractionGraph(InteractionGraphImpl graph) {
 		this.graph = graph;
 	}
@@ -39,6 +39,7 @@ public class NodeImpl extends GraphItemImpl implements Node {
 
 	protected void reset() {
 		parent = null;
+		graph = null;
 		connects = false;
 		oppositeNode = null;
 		connectingLink = null;  
@@ -51,17 +52,74 @@ public class NodeImpl extends GraphItemImpl implements Node {
 		boundsAlingment = PositionConstants.MIDDLE | PositionConstants.CENTER; 
 	}
 	
+	@Override
+	protected NodeImpl saveState() {
+		NodeImpl state = (NodeImpl) super.saveState();
+		state.bounds = bounds == null ? null : bounds.getCopy();
+		return state;
+	}
+
+	@Override
+	protected void restoreState(GraphItemImpl state) {
+		super.restoreState(state);
+		NodeImpl nodeState = (NodeImpl) state;
+		parent = nodeState.parent;
+		graph = null;
+		element = nodeState.element;
+		connects = nodeState.connects;
+		oppositeNode = nodeState.oppositeNode;
+		connectingLink = nodeState.connectingLink;
+		view = nodeState.view;
+		editPart = nodeState.editPart;
+		row = nodeState.row;
+		column = nodeState.column;
+		bounds = nodeState.bounds == null ? null : nodeState.bounds.getCopy();
+		boundsAlingment = nodeState.boundsAlingment;
+	}
+
 	void setParent(ClusterImpl cluster) {
 		this.parent = cluster;
+		resetInteractionGraph();
+	}
+
+	/**
+	 * Drops the graph cached by {@link #getInteractionGraph()}, when this node or one of its ancestors is
+	 * moved to another parent.
+	 */
+	void resetInteractionGraph() {
+		graph = null;
+	}
+
+	int getOrdinal() {
+		return ordinal;
+	}
+
+	void setOrdinal(int ordinal) {
+		this.ordinal = ordinal;
+	}
+
+	boolean isChildOf(ClusterImpl cluster) {
+		return parent == cluster;
+	}
+
+	/**
+	 * @return the position of this node in its parent cluster, or -1 if it has no parent.
+	 */
+	int getIndexInParent() {
+		return parent == null ? -1 : parent.indexOfNode(this);
 	}
 
 	@Override
 	public InteractionGraphImpl getInteractionGraph() {
-		NodeImpl n = this;
-		while (n != null && !(n.parent instanceof InteractionGraph)) {
-			n = n.parent;
+		// Read on each access to the bounds, so the graph is only searched for again once the node is moved.
+		if (graph == null) {
+			NodeImpl n = this;
+			while (n != null && !(n.parent instanceof InteractionGraph)) {
+				n = n.parent;
+			}
+			graph = n == null ? null : (InteractionGraphImpl) n.parent;
 		}
-		return n == null ? null : (InteractionGraphImpl) n.parent;
+		return graph;
 	}
 
 	@Override
@@ -150,6 +208,9 @@ public class NodeImpl extends GraphItemImpl implements Node {
 			EditPartViewer viewer = getInteractionGraph().getEditPartViewer();
 			if (viewer != null) {
 				setEditPart((GraphicalEditPart) viewer.getEditPartRegistry().get(view));
+			} else {
+				// Headless graph, the bounds come from the notation.
+				setEditPart(null);
 			}
 		}
 	}
@@ -162,6 +223,7 @@ public class NodeImpl extends GraphItemImpl implements Node {
 	void setEditPart(GraphicalEditPart editPart) {
 		this.editPart = editPart;
 		bounds = extractBounds();
+		boundsChanged();
 	}
 
 	EditPartViewer getViewer() {
@@ -209,6 +271,7 @@ public class NodeImpl extends GraphItemImpl implements Node {
 
 	@Override
 	public RowImpl getRow() {
+		flushLayout();
 		return row;
 	}
 
@@ -218,6 +281,7 @@ public class NodeImpl extends GraphItemImpl implements Node {
 
 	@Override
 	public ColumnImpl getColumn() {
+		flushLayout();
 		return column;
 	}
 
@@ -226,15 +290,65 @@ public class NodeImpl extends GraphItemImpl implements Node {
 	}
 
 	public Rectangle getBounds() {
+		flushLayout();
 		return bounds;
 	}
 
+	/**
+	 * Runs the deferred layout of the graph, if any, before reading the layout of this node.
+	 */
+	void flushLayout() {
+		InteractionGraphImpl graph = getInteractionGraph();
+		if (graph != null) {
+			graph.flushLayout();
+		}
+	}
+
 	public void setBounds(Rectangle bounds) {
-		if (bounds.equals(this.bounds)) {
+		// The same instance may have been modified in place.
+		if (bounds != this.bounds && bounds.equals(this.bounds)) {
 			return;
 		}
 		
 		this.bounds = bounds;
+		boundsChanged();
+	}
+
+	/**
+	 * Moves the bounds of this node in place.
+	 */
+	void translate(int dx, int dy) {
+		flushLayout();
+		if (bounds != null && (dx != 0 || dy != 0)) {
+			bounds.translate(dx, dy);
+			boundsChanged();
+		}
+	}
+
+	/**
+	 * Resizes the bounds of this node in place.
+	 */
+	void resize(int dw, int dh) {
+		flushLayout();
+		if (bounds != null && (dw != 0 || dh != 0)) {
+			bounds.resize(dw, dh);
+			boundsChanged();
+		}
+	}
+
+	/**
+	 * Notifies that the bounds of this node have been replaced or modified in place, so the parent cluster
+	 * updates its spatial indices and its cached children bounds. Code modifying the bounds in place must
+	 * call it.
+	 */
+	void boundsChanged() {
+		InteractionGraphImpl graph = getInteractionGraph();
+		if (graph != null) {
+			graph.nodeBoundsChanged();
+		}
+		if (parent != null) {
+			parent.childBoundsChanged(this);
+		}
 	}
 
 	@Override
@@ -281,6 +395,8 @@ public class NodeImpl extends GraphItemImpl implements Node {
 	}
 	
 	private ClusterImpl parent;
+	private InteractionGraphImpl graph;
+	private int ordinal = -1;
 	private Element element;
 
 	private boolean connects;
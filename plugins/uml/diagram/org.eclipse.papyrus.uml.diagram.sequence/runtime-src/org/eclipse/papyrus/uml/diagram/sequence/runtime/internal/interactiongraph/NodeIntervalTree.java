@@ -0,0 +1,241 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+
+/**
+ * Static interval tree over the children of a cluster, on the vertical or on the horizontal axis.<br>
+ * The intervals are the ones checked by NodeUtilities.isNodeAtVerticalPos() and isNodeAtHorizontalPos().
+ * They are sorted by their start and the sorted array is used as an implicit balanced binary tree where
+ * each sub-tree root keeps the max end of its sub-tree, so a stabbing query costs O(log n + k).<br>
+ * Moved children are reported with {@link #update(NodeImpl)} and their intervals are shifted to their new
+ * sorted place on the next query. When too many children moved, or a child gained or lost its bounds,
+ * the tree is built again instead.
+ *
+ * @author ETXACAM
+ */
+class NodeIntervalTree {
+
+	NodeIntervalTree(List<NodeImpl> children, boolean vertical) {
+		this.children = children;
+		this.vertical = vertical;
+		build();
+	}
+
+	private void build() {
+		List<Integer> indices = new ArrayList<>(children.size());
+		int[] allStarts = new int[children.size()];
+		int[] allEnds = new int[children.size()];
+		for (int i = 0; i < children.size(); i++) {
+			Rectangle r = children.get(i).getBounds();
+			if (r == null) {
+				continue;
+			}
+			allStarts[i] = getStart(r);
+			allEnds[i] = getEnd(r);
+			indices.add(i);
+		}
+		indices.sort(Comparator.comparingInt((Integer i) -> allStarts[i]).thenComparingInt(i -> i));
+
+		int size = indices.size();
+		nodes = new NodeImpl[size];
+		starts = new int[size];
+		ends = new int[size];
+		ordinals = new int[size];
+		maxEnds = new int[size];
+		positions = new IdentityHashMap<>(size);
+		for (int i = 0; i < size; i++) {
+			int index = indices.get(i);
+			nodes[i] = children.get(index);
+			starts[i] = allStarts[index];
+			ends[i] = allEnds[index];
+			ordinals[i] = index;
+			positions.put(nodes[i], i);
+		}
+		buildMaxEnds(0, size - 1);
+		moved.clear();
+		rebuild = false;
+	}
+
+	/**
+	 * Records that the bounds of a child have changed. The interval of the child is updated on the next
+	 * query.
+	 *
+	 * @param node the child of the cluster that was moved or resized.
+	 */
+	void update(NodeImpl node) {
+		if (rebuild) {
+			return;
+		}
+		moved.add(node);
+		if (moved.size() > Math.max(MIN_MOVED_UPDATES, nodes.length / 8)) {
+			// Shifting each interval would cost more than sorting them again.
+			moved.clear();
+			rebuild = true;
+		}
+	}
+
+	/**
+	 * Returns the node, first in the order of the cluster, whose interval contains the position.
+	 *
+	 * @param position the y position for a vertical tree or the x position for an horizontal tree.
+	 * @param filter an additional condition on the node, or null.
+	 * @return the node or null if there is no node at this position.
+	 */
+	NodeImpl getFirstAt(int position, Predicate<NodeImpl> filter) {
+		applyUpdates();
+		int found = find(0, nodes.length - 1, position, filter, -1);
+		return found == -1 ? null : nodes[found];
+	}
+
+	private void applyUpdates() {
+		if (rebuild) {
+			build();
+			return;
+		}
+		if (moved.isEmpty()) {
+			return;
+		}
+		List<NodeImpl> updated = new ArrayList<>(moved);
+		moved.clear();
+		for (NodeImpl node : updated) {
+			Integer index = positions.get(node);
+			Rectangle r = node.getBounds();
+			if (index == null || r == null) {
+				// Nodes without bounds are not in the tree.
+				build();
+				return;
+			}
+			move(index, getStart(r), getEnd(r));
+		}
+	}
+
+	private void move(int index, int start, int end) {
+		starts[index] = start;
+		ends[index] = end;
+		updateMaxEnds(0, nodes.length - 1, index);
+		while (index > 0 && compare(index - 1, index) > 0) {
+			swap(index - 1, index);
+			index--;
+		}
+		while (index < nodes.length - 1 && compare(index, index + 1) > 0) {
+			swap(index, index + 1);
+			index++;
+		}
+	}
+
+	private int compare(int i, int j) {
+		int res = Integer.compare(starts[i], starts[j]);
+		return res != 0 ? res : Integer.compare(ordinals[i], ordinals[j]);
+	}
+
+	private void swap(int i, int j) {
+		NodeImpl node = nodes[i];
+		nodes[i] = nodes[j];
+		nodes[j] = node;
+		int start = starts[i];
+		starts[i] = starts[j];
+		starts[j] = start;
+		int end = ends[i];
+		ends[i] = ends[j];
+		ends[j] = end;
+		int ordinal = ordinals[i];
+		ordinals[i] = ordinals[j];
+		ordinals[j] = ordinal;
+		positions.put(nodes[i], i);
+		positions.put(nodes[j], j);
+		updateMaxEnds(0, nodes.length - 1, i);
+		updateMaxEnds(0, nodes.length - 1, j);
+	}
+
+	/**
+	 * Updates the max ends on the path from the root of the implicit tree to the index. The shape of the
+	 * tree only depends on its size, so the other sub-trees are not affected.
+	 */
+	private int updateMaxEnds(int lo, int hi, int index) {
+		int mid = (lo + hi) >>> 1;
+		if (index < mid) {
+			updateMaxEnds(lo, mid - 1, index);
+		} else if (index > mid) {
+			updateMaxEnds(mid + 1, hi, index);
+		}
+		maxEnds[mid] = Math.max(ends[mid], Math.max(getMaxEnd(lo, mid - 1), getMaxEnd(mid + 1, hi)));
+		return maxEnds[mid];
+	}
+
+	private int getMaxEnd(int lo, int hi) {
+		return lo > hi ? Integer.MIN_VALUE : maxEnds[(lo + hi) >>> 1];
+	}
+
+	private int getStart(Rectangle r) {
+		return vertical ? r.y : r.x;
+	}
+
+	private int getEnd(Rectangle r) {
+		return vertical ? r.getBottom().y : r.getBottom().x;
+	}
+
+	private int buildMaxEnds(int lo, int hi) {
+		if (lo > hi) {
+			return Integer.MIN_VALUE;
+		}
+		int mid = (lo + hi) >>> 1;
+		maxEnds[mid] = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid - 1), buildMaxEnds(mid + 1, hi)));
+		return maxEnds[mid];
+	}
+
+	private int find(int lo, int hi, int position, Predicate<NodeImpl> filter, int found) {
+		if (lo > hi) {
+			return found;
+		}
+		int mid = (lo + hi) >>> 1;
+		if (maxEnds[mid] < position) {
+			return found;
+		}
+		found = find(lo, mid - 1, position, filter, found);
+		if (starts[mid] > position) {
+			// All the intervals on the right sub-tree start after the position.
+			return found;
+		}
+		if (position <= ends[mid] && (found == -1 || ordinals[mid] < ordinals[found]) &&
+				(filter == null || filter.test(nodes[mid]))) {
+			found = mid;
+		}
+		return find(mid + 1, hi, position, filter, found);
+	}
+
+	private static final int MIN_MOVED_UPDATES = 8;
+
+	private final List<NodeImpl> children;
+	private final boolean vertical;
+	private final Set<NodeImpl> moved = Collections.newSetFromMap(new IdentityHashMap<>());
+	private boolean rebuild;
+	private Map<NodeImpl, Integer> positions;
+	private NodeImpl[] nodes;
+	private int[] starts;
+	private int[] ends;
+	private int[] ordinals;
+	private int[] maxEnds;
+}
@@ -16,11 +16,8 @@ package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongra
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -28,7 +25,6 @@ import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Cluster
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.FragmentCluster;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.MarkNode.Kind;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Node;
-import org.eclipse.uml2.uml.ExecutionSpecification;
 import org.eclipse.uml2.uml.Gate;
 import org.eclipse.uml2.uml.Lifeline;
 
@@ -93,108 +89,12 @@ public class NodeOrderResolverNew {
 	
 	
 	public List<Node> getOrderedNodesPrevConnectedBySort() {
-		List<Cluster> lifelineClusters = graph.getLifelineClusters();
-		List<List<Node>> lifelinesNodes = 
-				lifelineClusters.stream().
-				map(ClusterImpl.class::cast).
-				map(d->d.getAllNodes()).collect(Collectors.toList());
-		
-		//boolean changes = false;
-		Map<Node,Set<Node>> previousNodes = new HashMap<>();
-		Map<Node,Set<Node>> triggeringNodes = new HashMap<>();
-		for (Cluster lfCluster : lifelineClusters) {
-			List<Node> lfCumm = new ArrayList<>();
-			for (Node n : lfCluster.getAllNodes()) {				
-				//changes = true;
-				Set<Node> previous = new HashSet<>();
-				// Add previous in the lifeline
-				previous.addAll(lfCumm);
-				lfCumm.add(n);
-				
-				/*
-				// Add triggered by
-				Node con = n.getConnectedByNode();
-				if (con != null) {
-					previous.add(con);					
-				}
-				Cluster parent = n.getParent();
-				if (parent != lfCluster && parent.getNodes().indexOf(n) == 0) {
-					// First node in the parent
-					con = parent.getConnectedByNode();
-					if (con != null)
-						previous.add(con);
-				}*/
-				previousNodes.put(n, previous);
-
-				Set<Node> triggering = new HashSet<>();
-				Node con = getConnectedBy(n);
-				while (con != null) {
-					triggering.add(con);
-					
-					Cluster parent = con.getParent();
-					if (parent == null || !(parent.getElement() instanceof ExecutionSpecification)) 
-						break;
-					con = getConnectedBy(parent);
-				}
-				triggeringNodes.put(n, triggering);
-				
-
-			}
-		}
-/*		
-		while (changes) {
-			changes = false;
-			for (Map.Entry<Node, Set<Node>> e : previousNodes.entrySet()) {
-				List<Node> ls = new ArrayList<>(e.getValue());
-				for (Node n : ls) {
-					if (e.getValue().addAll(previousNodes.get(n)))
-						changes = true;
-				}
-			}
-		}*/
-		
-		List<Node> nodes = lifelinesNodes.stream().flatMap(d -> d.stream()).
-				sorted(new Comparator<Node>() {
-					@Override
-					public int compare(Node o1, Node o2) {
-						Set<Node> previous1 = previousNodes.get(o1);
-						Set<Node> previous2 = previousNodes.get(o2);
-						if (previous2.contains(o1))
-							return -1;
-						if (previous1.contains(o2))
-							return 1;
-						
-						Set<Node> trigg1 = triggeringNodes.get(o1);
-						Set<Node> trigg2 = triggeringNodes.get(o2);
-						if (previous2.stream().filter(d->trigg1.contains(d)).findFirst().isPresent())
-							return -1;
-						if (previous1.stream().filter(d->trigg2.contains(d)).findFirst().isPresent())
-							return 1;
-						return 0;
-					}
-					
-				}).collect(Collectors.toList());
-		
+		// The previous / triggering relations are the edges of the partial order.
+		List<Node> nodes = new ArrayList<>(new NodePartialOrder(graph).getOrderedNodes());
 		fixGates(nodes);
-		
 		return nodes;
-	}	
-	
-	private Node getConnectedBy(Node n) {
-		Node con = n.getConnectedByNode();
-		if (con != null) {
-			return con;					
-		}
-		
-		Cluster parent = n.getParent();
-		if (parent.getElement() instanceof ExecutionSpecification && parent.getNodes().indexOf(n) == 0) {
-			// First node in the parent
-			con = parent.getConnectedByNode();			
-		}
-		
-		return con;
 	}
-	
+
 	private void fixGates(List<Node> nodes) {
 		List<FragmentClusterImpl> fragments = graph.getFragmentClusters().stream().map(FragmentClusterImpl.class::cast).
 				flatMap(NodeUtilities::flattenImpl).collect(Collectors.toList());		
@@ -0,0 +1,299 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.papyrus.uml.diagram.sequence.part.UMLDiagramEditorPlugin;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Cluster;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.FragmentCluster;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.MarkNode.Kind;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Node;
+import org.eclipse.uml2.uml.Gate;
+
+/**
+ * Partial order of the lifeline nodes of an interaction graph, resolved with a Kahn topological sort.<br>
+ * The nodes of each lifeline form a chain, in the order of the lifeline. On top of the chains, the
+ * graph has an edge for each ordering constraint used by {@link NodeOrderResolver}: a message end is
+ * after the node that sends it (or after the node that starts the execution specification it is in),
+ * a send of an horizontal message is after the nodes that precede its receive, and the end mark of a
+ * fragment is after its start marks and its gates.<br>
+ * As the ready nodes are always heads of their lifeline chain, each step only looks at one node per
+ * lifeline and the order is resolved in O(n * lifelines) without computing the predecessors of each
+ * node. The ready head is chosen with the same rules as NodeOrderResolver: the topmost one, the receive
+ * of an horizontal message right after its send, and the lifeline order for the ties.
+ *
+ * @author ETXACAM
+ */
+class NodePartialOrder {
+
+	NodePartialOrder(InteractionGraphImpl graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Returns the nodes of all the lifelines (gates excluded) in the resolved order. When the constraints
+	 * have a cycle, the order can not be resolved and the head first in the fragment order is taken.
+	 *
+	 * @return the ordered nodes.
+	 */
+	List<NodeImpl> getOrderedNodes() {
+		buildChains();
+		buildEdges();
+
+		List<NodeImpl> ordered = new ArrayList<>(vertices.size());
+		int[] heads = new int[chains.size()];
+		NodeImpl previous = null;
+		boolean resolved = true;
+		while (ordered.size() < vertices.size()) {
+			NodeImpl node = chooseNode(previous, heads);
+			if (node == null) {
+				if (resolved) {
+					UMLDiagramEditorPlugin.log.warn("Fragment order can not be resolved."); //$NON-NLS-1$
+					resolved = false;
+				}
+				node = chooseAnyHead(heads);
+			}
+			emit(node, heads);
+			ordered.add(node);
+			previous = node;
+		}
+		return ordered;
+	}
+
+	private void buildChains() {
+		chains = new ArrayList<>();
+		vertices = new IdentityHashMap<>();
+		successors = new ArrayList<>();
+		for (Cluster lifeline : graph.getLifelineClusters()) {
+			List<NodeImpl> chain = new ArrayList<>();
+			for (Node n : lifeline.getAllNodes()) {
+				if (!vertices.containsKey(n)) {
+					vertices.put((NodeImpl) n, new int[] { chains.size(), chain.size(), vertices.size() });
+					successors.add(null);
+					chain.add((NodeImpl) n);
+				}
+			}
+			chains.add(chain);
+		}
+		inDegrees = new int[vertices.size()];
+	}
+
+	private void buildEdges() {
+		for (List<NodeImpl> chain : chains) {
+			for (int i = 1; i < chain.size(); i++) {
+				addEdge(chain.get(i - 1), chain.get(i));
+			}
+		}
+
+		for (Cluster lifeline : graph.getLifelineClusters()) {
+			for (Node n : lifeline.getAllNodes()) {
+				addConstraints((NodeImpl) n);
+			}
+			for (Cluster c : ((ClusterImpl) lifeline).getAllClusters()) {
+				addConstraints((NodeImpl) c);
+			}
+		}
+	}
+
+	private void addConstraints(NodeImpl node) {
+		NodeImpl target = getVertex(node);
+		if (target == null) {
+			return;
+		}
+
+		// Triggered by a message
+		NodeImpl connectedBy = node.getConnectedByNode();
+		if (connectedBy != null) {
+			if (connectedBy.getElement() instanceof Gate) {
+				getPredecessors(connectedBy).forEach(d -> addEdge(d, target));
+			} else {
+				addEdge(getVertex(connectedBy), target);
+			}
+		}
+
+		// Horizontal message: the send is after everything before the receive.
+		NodeImpl connected = node.getConnectedNode();
+		if (connected != null && NodeUtilities.areNodesHorizontallyConnected(node, connected)) {
+			for (NodeImpl pred : getPredecessors(connected)) {
+				if (!isBeforeInChain(target, pred)) { // Avoid loops
+					addEdge(pred, target);
+				}
+			}
+		}
+
+		// End of fragment: after the start marks and the gates.
+		if (node instanceof MarkNodeImpl && ((MarkNodeImpl) node).getKind() == Kind.end) {
+			FragmentClusterImpl fgCluster = node.getParent().getFragmentCluster();
+			if (fgCluster != null) {
+				getFirstNodes(fgCluster).forEach(d -> addEdge(d, target));
+				List<Node> gates = new ArrayList<>(fgCluster.getInnerGates());
+				gates.addAll(fgCluster.getOuterGates());
+				for (Node gate : gates) {
+					NodeImpl gateImpl = (NodeImpl) gate;
+					NodeImpl other = gateImpl.getConnectedByNode() != null ? gateImpl.getConnectedByNode() : gateImpl.getConnectedNode();
+					if (other != null) {
+						addEdge(getVertex(other), target);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The vertices that must be before a node, and so before whatever must be after it.
+	 */
+	private List<NodeImpl> getPredecessors(NodeImpl node) {
+		if (node.getElement() instanceof Gate && node.getParent() instanceof FragmentCluster) {
+			// Gates are floating message ends, after the start of their fragment.
+			return getFirstNodes((FragmentCluster) node.getParent());
+		}
+		NodeImpl vertex = getVertex(node);
+		if (vertex == null) {
+			return new ArrayList<>();
+		}
+		int[] position = vertices.get(vertex);
+		List<NodeImpl> res = new ArrayList<>(1);
+		if (position[1] > 0) {
+			res.add(chains.get(position[0]).get(position[1] - 1));
+		}
+		return res;
+	}
+
+	private List<NodeImpl> getFirstNodes(FragmentCluster fgCluster) {
+		List<NodeImpl> res = new ArrayList<>();
+		for (Cluster c : fgCluster.getClusters()) {
+			if (!c.getNodes().isEmpty()) {
+				NodeImpl vertex = getVertex((NodeImpl) c.getNodes().get(0));
+				if (vertex != null) {
+					res.add(vertex);
+				}
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Returns the node itself for a lifeline node, the first node inside for a cluster, null otherwise.
+	 */
+	private NodeImpl getVertex(NodeImpl node) {
+		if (node == null) {
+			return null;
+		}
+		if (vertices.containsKey(node)) {
+			return node;
+		}
+		if (node instanceof ClusterImpl) {
+			for (Node n : ((ClusterImpl) node).getAllNodes()) {
+				if (vertices.containsKey(n)) {
+					return (NodeImpl) n;
+				}
+			}
+		}
+		return null;
+	}
+
+	private boolean isBeforeInChain(NodeImpl n1, NodeImpl n2) {
+		int[] p1 = vertices.get(n1);
+		int[] p2 = vertices.get(n2);
+		return p1 != null && p2 != null && p1[0] == p2[0] && p1[1] <= p2[1];
+	}
+
+	private void addEdge(NodeImpl from, NodeImpl to) {
+		if (from == null || to == null || from == to) {
+			return;
+		}
+		int fromId = vertices.get(from)[2];
+		int[] succs = successors.get(fromId);
+		int toId = vertices.get(to)[2];
+		if (succs == null) {
+			succs = new int[] { toId };
+		} else {
+			for (int s : succs) {
+				if (s == toId) {
+					return;
+				}
+			}
+			succs = Arrays.copyOf(succs, succs.length + 1);
+			succs[succs.length - 1] = toId;
+		}
+		successors.set(fromId, succs);
+		inDegrees[toId]++;
+	}
+
+	private NodeImpl chooseNode(NodeImpl previous, int[] heads) {
+		NodeImpl candidate = null;
+		for (int i = 0; i < heads.length; i++) {
+			NodeImpl node = getHead(i, heads);
+			if (node == null || inDegrees[vertices.get(node)[2]] > 0) {
+				continue;
+			}
+			if (candidate == null) {
+				candidate = node;
+				continue;
+			}
+
+			if (NodeUtilities.getYPos(node) < NodeUtilities.getYPos(candidate))
+				candidate = node;
+
+			if (NodeUtilities.isNodeConnectedTo(previous, node)) {
+				if (NodeUtilities.areNodesHorizontallyConnected(node, previous) ||
+						NodeUtilities.getYPos(node) == Integer.MIN_VALUE ||
+						NodeUtilities.getYPos(previous) == Integer.MIN_VALUE) {
+					candidate = node;
+				}
+			}
+		}
+		return candidate;
+	}
+
+	private NodeImpl chooseAnyHead(int[] heads) {
+		NodeImpl candidate = null;
+		for (int i = 0; i < heads.length; i++) {
+			NodeImpl node = getHead(i, heads);
+			if (node != null && (candidate == null || RowImpl.NODE_FRAGMENT_COMPARATOR.compare(candidate, node) > 0)) {
+				candidate = node;
+			}
+		}
+		return candidate;
+	}
+
+	private NodeImpl getHead(int chain, int[] heads) {
+		List<NodeImpl> nodes = chains.get(chain);
+		return heads[chain] < nodes.size() ? nodes.get(heads[chain]) : null;
+	}
+
+	private void emit(NodeImpl node, int[] heads) {
+		int[] position = vertices.get(node);
+		heads[position[0]]++;
+		int[] succs = successors.get(position[2]);
+		if (succs != null) {
+			for (int s : succs) {
+				inDegrees[s]--;
+			}
+		}
+	}
+
+	private InteractionGraphImpl graph;
+	private List<List<NodeImpl>> chains;
+	// Node -> { chain, position in the chain, id }
+	private Map<NodeImpl, int[]> vertices;
+	private List<int[]> successors;
+	private int[] inDegrees;
+}
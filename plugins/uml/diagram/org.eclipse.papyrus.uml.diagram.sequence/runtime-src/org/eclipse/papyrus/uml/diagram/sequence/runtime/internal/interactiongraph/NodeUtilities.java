@@ -19,7 +19,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -287,10 +289,10 @@ public class NodeUtilities {
 		otherNodes.removeIf(d->d.getElement() instanceof Lifeline);
 		
 		// Remove Nodes that are before or after the nodes.
-		List<Node> orderedNodes = interactionGraph.getOrderedNodes();
-		int min = allNodes.stream().map(orderedNodes::indexOf).filter(d->d>=0).min(Integer::compare).orElse(0);
-		int max = allNodes.stream().map(orderedNodes::indexOf).filter(d->d>=0).max(Integer::compare).orElse(Integer.MAX_VALUE);
-		otherNodes.removeIf(d->{ int i= orderedNodes.indexOf(d); return (i< min || i > max);});
+		InteractionGraphImpl graphImpl = (InteractionGraphImpl)interactionGraph;
+		int min = allNodes.stream().mapToInt(graphImpl::getOrderedNodeIndex).filter(d->d>=0).min().orElse(0);
+		int max = allNodes.stream().mapToInt(graphImpl::getOrderedNodeIndex).filter(d->d>=0).max().orElse(Integer.MAX_VALUE);
+		otherNodes.removeIf(d->{ int i= graphImpl.getOrderedNodeIndex(d); return (i< min || i > max);});
 		return otherNodes;
 	}
 
@@ -525,41 +527,88 @@ public class NodeUtilities {
 		addNodeBlock(interactionGraph, nodesByLifeline, newYPos, extraNudge);
 	}
 	
+	/**
+	 * Moves several blocks to a vertical position, where they are stacked in the order of the list.<br>
+	 * The blocks are removed all together and their space is closed from the lowest block up, with the
+	 * same nudge limits as when removing a single block: the other nodes sharing the rows of a block and
+	 * the nodes after it are not nudged above the nodes before them. A single layout follows the removal,
+	 * so the number of layouts does not depend on the number of blocks.<br>
+	 * When the blocks are dropped back in place, i.e. the nodes before and after them are the same at the
+	 * drop position, the nodes after them are moved back and the blocks keep their relative positions,
+	 * without extra spacing.
+	 */
 	public static void moveNodeBlocks(InteractionGraph interactionGraph, List<List<Node>> blocks, int yPos) {
-		int newYPos = yPos;
-		List<Map<Cluster, List<Node>>> nodesByLifelines = new ArrayList<>();
-		List<Integer> extraNudge = new ArrayList<Integer>();
-		for (List<Node> nodes : blocks) {		
-			Rectangle r = NodeUtilities.getArea(nodes);
-			Node nodeAfter = NodeUtilities.getNodeAfterVerticalPos(interactionGraph, r.bottom());
-			Node nodeBefore = NodeUtilities.getNodeBeforeVerticalPos(interactionGraph, r.y());
-			int afterPos = nodeAfter != null ? nodeAfter.getBounds().y() : 0; 
-			MarkNode insertMark = ((InteractionGraphImpl)interactionGraph).setlayoutMark(new Point(0,newYPos));
-	
-			List<Node> otherNodes = NodeUtilities.getBlockOtherNodes(nodes);
-			Map<Cluster, List<Node>> nbl = nodes.stream().collect(Collectors.groupingBy(d -> NodeUtilities.getTopLevelCluster(d)));
-			nodesByLifelines.add(nbl);
-
-			removeNodeBlockImpl(interactionGraph, nodes,otherNodes);				
-			newYPos = insertMark.getBounds().y;
-			((InteractionGraphImpl)interactionGraph).clearLayoutMarks();
-
-			if (nodeAfter == NodeUtilities.getNodeAfterVerticalPos(interactionGraph, newYPos) && 
-				nodeBefore == NodeUtilities.getNodeBeforeVerticalPos(interactionGraph, newYPos) && nodeAfter != null) {
-				// Must nudge all nodes After
-				int nudge = afterPos - nodeAfter.getBounds().y();
-				List<Node> nodesAfter = NodeUtilities.getNodesAfterVerticalPos(interactionGraph, newYPos);
-				NodeUtilities.nudgeNodes(nodesAfter, 0, nudge);
-				newYPos = yPos;
-				extraNudge.add(0);
-			} else {
-				extraNudge.add(interactionGraph.getGridSpacing());				
-			}
+		if (blocks.size() == 1) {
+			moveNodeBlock(interactionGraph, blocks.get(0), yPos);
+			return;
+		}
+
+		InteractionGraphImpl graph = (InteractionGraphImpl)interactionGraph;
+		int gridSpacing = graph.getGridSpacing();
+
+		Map<Cluster, List<Node>> nodesByTopClusters = new LinkedHashMap<>();
+		List<Node> movedNodes = new ArrayList<>();
+		List<Rectangle> areas = new ArrayList<>();
+		List<Rectangle> blockAreas = new ArrayList<>();
+		List<List<Node>> otherNodes = new ArrayList<>();
+		for (List<Node> nodes : blocks) {
+			nodes.forEach(d -> nodesByTopClusters.computeIfAbsent(NodeUtilities.getTopLevelCluster(d), k -> new ArrayList<>()).add(d));
+			movedNodes.addAll(NodeUtilities.flattenKeepClusters(nodes));
+			areas.add(NodeUtilities.getArea(nodes));
+			blockAreas.add(NodeUtilities.getArea(nodes, graph.getLifelineClusters()));
+			otherNodes.add(NodeUtilities.getBlockOtherNodes(nodes));
+		}
+		Set<Node> allMovedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+		allMovedNodes.addAll(movedNodes);
+		// A node of a block can share the rows of another block, it is moved anyway.
+		otherNodes.forEach(d -> d.removeAll(allMovedNodes));
+
+		int top = areas.stream().mapToInt(d -> d.y).min().getAsInt();
+		int bottom = areas.stream().mapToInt(Rectangle::bottom).max().getAsInt();
+		Node nodeAfter = NodeUtilities.getNodeAfterVerticalPos(graph, bottom);
+		Node nodeBefore = NodeUtilities.getNodeBeforeVerticalPos(graph, top);
+		int afterPos = nodeAfter != null ? nodeAfter.getBounds().y() : 0;
+		MarkNode insertMark = graph.setlayoutMark(new Point(0,yPos));
+
+		graph.disableLayout();
+		try {
+			blocks.forEach(nodes -> nodes.forEach(d -> removeNode(graph, d)));
+			closeNodeBlocksSpace(graph, blockAreas, otherNodes, allMovedNodes);
+		} finally {
+			graph.enableLayout();
+			graph.layout();
+		}
+		int newYPos = insertMark.getBounds().y;
+		graph.clearLayoutMarks();
+
+		int extraNudge = gridSpacing;
+		boolean inPlace = false;
+		if (nodeAfter == NodeUtilities.getNodeAfterVerticalPos(graph, newYPos) && 
+			nodeBefore == NodeUtilities.getNodeBeforeVerticalPos(graph, newYPos) && nodeAfter != null) {
+			// Must nudge all nodes After
+			int nudge = afterPos - nodeAfter.getBounds().y();
+			List<Node> nodesAfter = NodeUtilities.getNodesAfterVerticalPos(graph, newYPos);
+			NodeUtilities.nudgeNodes(nodesAfter, 0, nudge);
+			newYPos = yPos;
+			extraNudge = 0;
+			inPlace = true;
 		}
 
-		for (int i=blocks.size()-1; i>=0; i--) {		
-			addNodeBlock(interactionGraph, nodesByLifelines.get(i), newYPos, extraNudge.get(i));
+		if (!inPlace) {
+			// Stack the blocks, one grid spacing apart, before inserting them as one.
+			int offset = areas.get(0).y;
+			for (int i = 0; i < blocks.size(); i++) {
+				int delta = offset - areas.get(i).y;
+				if (delta != 0) {
+					for (Node n : NodeUtilities.removeDuplicated(NodeUtilities.flattenKeepClusters(blocks.get(i)))) {
+						((NodeImpl) n).translate(0, delta);
+					}
+				}
+				offset += areas.get(i).height + gridSpacing;
+			}
 		}
+
+		addNodeBlock(interactionGraph, nodesByTopClusters, newYPos, extraNudge);
 	}
 
 	public static void removeNodeBlocks(InteractionGraph interactionGraph, List<List<Node>> blocks) {
@@ -602,35 +651,130 @@ public class NodeUtilities {
 			prev = otherStartPoint - blockStartPoint;
 			after = blockEndPoint - otherEndPoint; 
 		}
-		List<Node> allNodes = NodeUtilities.removeDuplicated(NodeUtilities.flattenKeepClusters(nodes));
+		Set<Node> allNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+		allNodes.addAll(NodeUtilities.flattenKeepClusters(nodes));
 
 		try {
 			NodeUtilities.removeNodes(interactionGraph, nodes);
+			closeNodeBlocksSpace((InteractionGraphImpl)interactionGraph, Collections.singletonList(blockArea),
+					Collections.singletonList(otherNodes), allNodes);
+		} finally {
+			((InteractionGraphImpl)interactionGraph).enableLayout();
+			interactionGraph.layout();
+		}
+	}
 
-			List<Node> nodesAfter = interactionGraph.getLayoutNodes().stream().
-					filter(d->!allNodes.contains(d) && d.getBounds().y >= blockEndPoint).
-					collect(Collectors.toList());
-			Rectangle nodesAfterArea = NodeUtilities.getArea(nodesAfter, interactionGraph.getLifelineClusters());
-			
-			// Check how much can we nudge up...
-			Rectangle nudgeArea = NodeUtilities.getNudgeArea((InteractionGraphImpl)interactionGraph, otherNodes, false, true, allNodes);
-			int gridSpacing = interactionGraph.getGridSpacing();
+	/**
+	 * Nudges up the other nodes of the removed blocks and the nodes after them, as far as the nodes before
+	 * them allow it. The removed nodes are excluded from the limits, as they may still be in the rows.<br>
+	 * The blocks are closed from the lowest one up, as the limits of a block only depend on the nodes above
+	 * it. The nudges of the nodes after the blocks are summed up instead of being applied block by block,
+	 * and each node is nudged once by the sum for the blocks above it.
+	 */
+	private static void closeNodeBlocksSpace(InteractionGraphImpl interactionGraph, List<Rectangle> blockAreas, List<List<Node>> otherNodes, Set<Node> removedNodes) {
+		int gridSpacing = interactionGraph.getGridSpacing();
+		List<Node> excludeNodes = new ArrayList<>(removedNodes);
+		List<Integer> order = new ArrayList<>();
+		for (int i = 0; i < blockAreas.size(); i++) {
+			order.add(i);
+		}
+		order.sort(Comparator.comparingInt((Integer i) -> blockAreas.get(i).y).reversed());
+
+		// The other nodes share the rows of their block, they are few and nudged block by block.
+		for (int i : order) {
+			List<Node> others = otherNodes.get(i);
+			Rectangle otherArea = NodeUtilities.getArea(others, interactionGraph.getLifelineClusters());
+			Rectangle nudgeArea = NodeUtilities.getNudgeArea(interactionGraph, others, false, true, excludeNodes);
 			if (nudgeArea != null && otherArea != null) {
 				int nudge = (otherArea.y - nudgeArea.y) / gridSpacing * gridSpacing;
-				NodeUtilities.nudgeNodes(otherNodes, 0, -nudge);
-			} 
-			
-			nudgeArea = NodeUtilities.getNudgeArea((InteractionGraphImpl)interactionGraph, nodesAfter, false, true, allNodes);
-			if (nudgeArea != null && nodesAfterArea != null) {
-				int nudge = (nodesAfterArea.y - Math.max(nudgeArea.y, blockStartPoint)) / gridSpacing * gridSpacing;
-				NodeUtilities.nudgeNodes(nodesAfter, 0, -nudge);
+				NodeUtilities.nudgeNodes(others, 0, -nudge);
 			}
+		}
 
-		} finally {
-			((InteractionGraphImpl)interactionGraph).enableLayout();
-			interactionGraph.layout();
+		Set<Node> lifelines = Collections.newSetFromMap(new IdentityHashMap<>());
+		lifelines.addAll(interactionGraph.getLifelineClusters());
+		List<Node> nodes = interactionGraph.getLayoutNodes().stream().filter(d -> !removedNodes.contains(d)).
+				sorted(Comparator.comparingInt((Node d) -> d.getBounds().y)).collect(Collectors.toList());
+		int[] ys = nodes.stream().mapToInt(d -> d.getBounds().y).toArray();
+
+		// The nudge of the nodes after each block, with the limits of the block and the top of the nodes
+		// after it as if the nudges of the blocks below were already applied.
+		int[] blockEnds = new int[blockAreas.size()];
+		int[] nudges = new int[blockAreas.size()];
+		List<Integer> closed = new ArrayList<>();
+		for (int i : order) {
+			Rectangle blockArea = blockAreas.get(i);
+			blockEnds[i] = blockArea.y + blockArea.height;
+			int start = firstNodeAt(ys, blockEnds[i]);
+			if (start == ys.length) {
+				continue;
+			}
+
+			int nodesAfterTop = Integer.MAX_VALUE;
+			for (int k = -1; k < closed.size(); k++) {
+				int threshold = k < 0 ? blockEnds[i] : blockEnds[closed.get(k)];
+				if (threshold < blockEnds[i]) {
+					continue;
+				}
+				for (int n = firstNodeAt(ys, threshold); n < ys.length; n++) {
+					if (!lifelines.contains(nodes.get(n))) {
+						nodesAfterTop = Math.min(nodesAfterTop, ys[n] - getClosingNudge(ys[n], blockEnds, nudges, closed));
+						break;
+					}
+				}
+			}
+
+			Rectangle nudgeArea = NodeUtilities.getNudgeArea(interactionGraph, nodes.subList(start, nodes.size()), false, true, excludeNodes);
+			if (nudgeArea != null && nodesAfterTop != Integer.MAX_VALUE) {
+				nudges[i] = (nodesAfterTop - Math.max(nudgeArea.y, blockArea.y)) / gridSpacing * gridSpacing;
+			}
+			closed.add(i);
+		}
+
+		// The nudge is a step function of the position, so the nodes nudged by the same amount follow each other.
+		int from = 0;
+		while (from < ys.length) {
+			int nudge = getClosingNudge(ys[from], blockEnds, nudges, closed);
+			int to = from + 1;
+			while (to < ys.length && getClosingNudge(ys[to], blockEnds, nudges, closed) == nudge) {
+				to++;
+			}
+			if (nudge != 0) {
+				NodeUtilities.nudgeNodes(nodes.subList(from, to), 0, -nudge);
+			}
+			from = to;
 		}
 	}
+
+	/**
+	 * @return the sum of the nudges of the closed blocks ending above the vertical position.
+	 */
+	private static int getClosingNudge(int y, int[] blockEnds, int[] nudges, List<Integer> closed) {
+		int nudge = 0;
+		for (int i : closed) {
+			if (y >= blockEnds[i]) {
+				nudge += nudges[i];
+			}
+		}
+		return nudge;
+	}
+
+	/**
+	 * @return the index of the first of the sorted positions at or after y, or their length if none.
+	 */
+	private static int firstNodeAt(int[] ys, int y) {
+		int low = 0;
+		int high = ys.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (ys[mid] < y) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
 	
 	public void addNodeBlock(InteractionGraph interactionGraph, Map<Cluster,List<Node>> nodesByLifelines, int yPos) {
 		addNodeBlock(interactionGraph, nodesByLifelines, yPos, 0);
@@ -643,7 +787,9 @@ public class NodeUtilities {
 		int gridSpacing = interactionGraph.getGridSpacing(); 
 		Rectangle totalArea = NodeUtilities.getArea(nodes);
 		List<Node> firstNodes = nodes.stream().filter(d->d.getBounds() != null && d.getBounds().y == totalArea.y).collect(Collectors.toList());		
-		Row row = interactionGraph.getRows().stream().filter(d->Math.abs(yPos - d.getYPosition()) <= 3).findFirst().orElse(null);
+		Row row = getRowAfter(interactionGraph, yPos - 3);
+		if (row != null && row.getYPosition() > yPos + 3)
+			row = null;
 		if (row != null) {
 			boolean nudgeOverlap = true;
 			for (Node n : firstNodes) {
@@ -774,10 +920,10 @@ public class NodeUtilities {
 			if (n instanceof Cluster) {
 				// Update position in the children 
 				for (Node child : flattenKeepClusters(Collections.singletonList((ClusterImpl)n))) {
-					child.getBounds().y = yPos + (child.getBounds().y - orgPosY);
+					((NodeImpl) child).translate(0, yPos - orgPosY);
 				}
 			} else {
-				n.getBounds().y = yPos + (n.getBounds().y - orgPosY);				
+				((NodeImpl) n).translate(0, yPos - orgPosY);
 			}
 		}
 		interactionGraph.layout();
@@ -795,10 +941,10 @@ public class NodeUtilities {
 			if (n instanceof Cluster) {
 				// Update position in the children 
 				for (Node child : flattenKeepClusters(Collections.singletonList((ClusterImpl)n))) {
-					child.getBounds().y = yPos + (child.getBounds().y - orgPosY);
+					((NodeImpl) child).translate(0, yPos - orgPosY);
 				}
 			} else {
-				n.getBounds().y = yPos + (n.getBounds().y - orgPosY);				
+				((NodeImpl) n).translate(0, yPos - orgPosY);
 			}
 		}
 		interactionGraph.layout();
@@ -852,8 +998,7 @@ public class NodeUtilities {
 		
 		yDelta = newYDelta;
 		for (Node n : nodes) {
-			n.getBounds().x += xDelta;
-			n.getBounds().y += yDelta;
+			((NodeImpl) n).translate(xDelta, yDelta);
 		}		
 
 		graph.layout();
@@ -874,7 +1019,7 @@ public class NodeUtilities {
 	}
 
 	public static Rectangle getEmptyAreaAround(InteractionGraphImpl interactionGraph, List<? extends Node> nodes) {
-		List<Node> allNodes = NodeUtilities.flatten(nodes);
+		Set<Node> allNodes = new HashSet<>(NodeUtilities.flatten(nodes));
 		int minRow = Integer.MAX_VALUE;
 		int maxRow = Integer.MIN_VALUE;
 		int minCol = Integer.MAX_VALUE;
@@ -1025,7 +1170,8 @@ public class NodeUtilities {
 			return null;
 		Node n = cluster;
 		while (n instanceof Cluster) {
-			Node child = ((Cluster)n).getNodes().stream().filter(d->isNodeAt(d, p)).findAny().orElse(null);
+			Node child = n instanceof ClusterImpl ? ((ClusterImpl)n).getNodeAt(p) :
+				((Cluster)n).getNodes().stream().filter(d->isNodeAt(d, p)).findFirst().orElse(null);
 			if (child == null || child == n)
 				break;
 			n = child;
@@ -1033,23 +1179,27 @@ public class NodeUtilities {
 		return n;
 	}
 
-	// TODO: Move it to IntGrapg
 	public static Column getColumnAfter(InteractionGraph graph, int x) {
+		if (graph instanceof InteractionGraphImpl)
+			return ((InteractionGraphImpl)graph).getColumnAfter(x);
 		return graph.getColumns().stream().filter(d->d.getXPosition() >= x).findFirst().orElse(null);
 	}
 
-	// TODO: Move it to IntGrapg
 	public static Column getColumnAt(InteractionGraph graph, int x) {
+		if (graph instanceof InteractionGraphImpl)
+			return ((InteractionGraphImpl)graph).getColumnAt(x);
 		return graph.getColumns().stream().filter(d->d.getXPosition() == x).findFirst().orElse(null);
 	}
 
-	// TODO: Move it to IntGrapg
 	public static Row getRowAfter(InteractionGraph graph, int y) {
+		if (graph instanceof InteractionGraphImpl)
+			return ((InteractionGraphImpl)graph).getRowAfter(y);
 		return graph.getRows().stream().filter(d->d.getYPosition() >= y).findFirst().orElse(null);
 	}
 
-	// TODO: Move it to IntGrapg
 	public static Row getRowAt(InteractionGraph graph, int y) {
+		if (graph instanceof InteractionGraphImpl)
+			return ((InteractionGraphImpl)graph).getRowAt(y);
 		return graph.getRows().stream().filter(d->d.getYPosition() == y).findFirst().orElse(null);
 	}
 	
@@ -1066,7 +1216,8 @@ public class NodeUtilities {
 			return null;
 		Node n = cluster;
 		while (n instanceof Cluster) {
-			Node child = ((Cluster)n).getNodes().stream().filter(d->isNodeAtVerticalPos(d,y)).findAny().orElse(null);
+			Node child = n instanceof ClusterImpl ? ((ClusterImpl)n).getNodeAtVerticalPos(y) :
+				((Cluster)n).getNodes().stream().filter(d->isNodeAtVerticalPos(d,y)).findFirst().orElse(null);
 			if (child == null || child == n)
 				break;
 			n = child;
@@ -1087,7 +1238,8 @@ public class NodeUtilities {
 			return null;
 		Node n = cluster;
 		while (n instanceof Cluster) {
-			Node child = ((Cluster)n).getNodes().stream().filter(d->isNodeAtHorizontalPos(d,x)).findAny().orElse(null);
+			Node child = n instanceof ClusterImpl ? ((ClusterImpl)n).getNodeAtHorizontalPos(x) :
+				((Cluster)n).getNodes().stream().filter(d->isNodeAtHorizontalPos(d,x)).findFirst().orElse(null);
 			if (child == null || child == n)
 				break;
 			n = child;
@@ -1150,44 +1302,54 @@ public class NodeUtilities {
 		return n;
 	}
 
+	/**
+	 * Returns the ordered nodes after the last of the given nodes, as a read only view on the ordered nodes
+	 * of the graph. The view is not valid anymore once the graph is modified.
+	 */
 	public static final List<Node> getNodesAfter(InteractionGraph graph, List<Node> nodes) {
-		List<Node> orderedNodes = graph.getOrderedNodes();
-		int max = nodes.stream().map(orderedNodes::indexOf).filter(d->d>=0).max(Integer::compare).orElse(Integer.MAX_VALUE);
-		orderedNodes.removeIf(d->{ int i= orderedNodes.indexOf(d); return (i <= max);});
-		return orderedNodes;
+		InteractionGraphImpl graphImpl = (InteractionGraphImpl)graph;
+		List<Node> orderedNodes = graphImpl.getOrderedNodesView();
+		int max = nodes.stream().mapToInt(graphImpl::getOrderedNodeIndex).max().orElse(-1);
+		if (max == -1)
+			return Collections.emptyList();
+		return orderedNodes.subList(max+1, orderedNodes.size());
 	}
 	
 	public static final List<Node> getNodesAfterVerticalPos(InteractionGraph graph, int y) {
-		List<Node> orderedNodes = graph.getOrderedNodes();
-		orderedNodes.removeIf(d->d.getBounds().y <= y);
-		return orderedNodes;
+		return ((InteractionGraphImpl)graph).getOrderedNodesView().stream().filter(d->d.getBounds().y > y).
+				collect(Collectors.toList());
 	}
 
 	public static final Node getNodeAfterVerticalPos(InteractionGraph graph, int y) {
-		List<Node> afters = getNodesAfterVerticalPos(graph, y);
-		if (afters.isEmpty())
-			return null;
-		return afters.get(0);
+		return ((InteractionGraphImpl)graph).getOrderedNodesView().stream().filter(d->d.getBounds().y > y).
+				findFirst().orElse(null);
 	}
 
+	/**
+	 * Returns the ordered nodes before the last of the given nodes, as a read only view on the ordered nodes
+	 * of the graph. The view is not valid anymore once the graph is modified.
+	 */
 	public static final List<Node> getNodesBefore(InteractionGraph graph, List<Node> nodes) {
-		List<Node> orderedNodes = graph.getOrderedNodes();
-		int max = nodes.stream().map(orderedNodes::indexOf).filter(d->d>=0).max(Integer::compare).orElse(Integer.MAX_VALUE);
-		orderedNodes.removeIf(d->{ int i= orderedNodes.indexOf(d); return (i >= max);});
-		return orderedNodes;
+		InteractionGraphImpl graphImpl = (InteractionGraphImpl)graph;
+		List<Node> orderedNodes = graphImpl.getOrderedNodesView();
+		int max = nodes.stream().mapToInt(graphImpl::getOrderedNodeIndex).max().orElse(-1);
+		if (max == -1)
+			return orderedNodes;
+		return orderedNodes.subList(0, max);
 	}
 	
 	public static final List<Node> getNodesBeforeVerticalPos(InteractionGraph graph, int y) {
-		List<Node> orderedNodes = graph.getOrderedNodes();
-		orderedNodes.removeIf(d->d.getBounds().y >= y);
-		return orderedNodes;
+		return ((InteractionGraphImpl)graph).getOrderedNodesView().stream().filter(d->d.getBounds().y < y).
+				collect(Collectors.toList());
 	}
 
 	public static final Node getNodeBeforeVerticalPos(InteractionGraph graph, int y) {
-		List<Node> befores = getNodesBeforeVerticalPos(graph, y);
-		if (befores.isEmpty())
-			return null;
-		return befores.get(befores.size()-1);
+		List<Node> orderedNodes = ((InteractionGraphImpl)graph).getOrderedNodesView();
+		for (int i = orderedNodes.size()-1; i >= 0; i--) {
+			if (orderedNodes.get(i).getBounds().y < y)
+				return orderedNodes.get(i);
+		}
+		return null;
 	}
 
 	public static Rectangle getNudgeArea(InteractionGraphImpl graph, List<? extends Node> nodesToNudge, boolean horizontal, boolean vertical) {
@@ -13,7 +13,6 @@
  *****************************************************************************/
 package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
 
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -48,20 +47,34 @@ public class RowImpl extends SlotImpl implements Row {
 		}
 	}
 
+	@Override
+	protected void restoreState(SlotImpl state) {
+		super.restoreState(state);
+		setYPosition(((RowImpl) state).ypos);
+	}
+
 	@Override
 	public int getYPosition() {
+		flushLayout();
 		return ypos;
 	}
 
 	void setYPosition(int y) {
+		int oldY = ypos;
 		this.ypos = y;
+		positionChanged(oldY);
+	}
+
+	@Override
+	int getPosition() {
+		return ypos;
 	}
 
 	@Override
 	public void sortNodes() {
 		List<Node> mos = nodes.stream().filter(d -> d.getElement() instanceof MessageEnd).collect(Collectors.toList());
 		if (mos.size() > 0) {
-			Collections.sort(nodes, RowImpl.MESSAGE_END_NODE_COMPARATOR);
+			sortNodes(RowImpl.MESSAGE_END_NODE_COMPARATOR);
 		} else {
 			// throw new UnsupportedOperationException();
 		}
@@ -69,7 +82,7 @@ public class RowImpl extends SlotImpl implements Row {
 
 	@Override
 	public String toString() {
-		return String.format("Row[%d][y: %d]", index, ypos);
+		return String.format("Row[%d][y: %d]", getIndex(), ypos);
 	}
 
 	public static final NodeFragmentComparator NODE_FRAGMENT_COMPARATOR = new NodeFragmentComparator();
@@ -119,7 +132,7 @@ public class RowImpl extends SlotImpl implements Row {
 			if (res == 0) {
 				res = Integer.compare(r1.x, r2.x);
 				if (res == 0) {					
-					return Integer.compare(o1.getParent().getNodes().indexOf(o1), o2.getParent().getNodes().indexOf(o2));
+					return Integer.compare(((NodeImpl)o1).getIndexInParent(), ((NodeImpl)o2).getIndexInParent());
 				}				
 			}
 			return res;
@@ -143,7 +156,7 @@ public class RowImpl extends SlotImpl implements Row {
 			if (res == 0) 
 				res = Integer.compare(r1.y, r2.y );
 			if (res == 0)
-				res = Integer.compare(o1.getParent().getNodes().indexOf(o1), o2.getParent().getNodes().indexOf(o2));
+				res = Integer.compare(((NodeImpl)o1).getIndexInParent(), ((NodeImpl)o2).getIndexInParent());
 			return res;
 		}
 	}
@@ -15,6 +15,7 @@ package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongra
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import org.eclipse.draw2d.geometry.Dimension;
@@ -22,16 +23,20 @@ import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Node;
 
-public abstract class SlotImpl {
+public abstract class SlotImpl implements Cloneable {
 	protected InteractionGraphImpl interactionGraph;
 	protected int index;
 	protected List<NodeImpl> nodes = new ArrayList<>();
+	private SlotList<?> owner;
 
 	public SlotImpl(InteractionGraphImpl interactionGraph) {
 		this.interactionGraph = interactionGraph;
 	}
 
 	public int getIndex() {
+		if (owner != null) {
+			owner.updateIndices();
+		}
 		return index;
 	}
 
@@ -39,9 +44,71 @@ public abstract class SlotImpl {
 		this.index = index;
 	}
 
+	SlotList<?> getOwner() {
+		return owner;
+	}
+
+	void setOwner(SlotList<?> owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * Returns a detached copy of the slot state.
+	 * 
+	 * @see InteractionGraphSnapshot
+	 */
+	protected SlotImpl saveState() {
+		try {
+			SlotImpl state = (SlotImpl) super.clone();
+			state.owner = null;
+			state.nodes = new ArrayList<>(nodes);
+			return state;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	protected void restoreState(SlotImpl state) {
+		interactionGraph = state.interactionGraph;
+		nodes = new ArrayList<>(state.nodes);
+		nodesChanged();
+	}
+
+	/**
+	 * The y position for rows or the x position for columns.
+	 */
+	abstract int getPosition();
+
+	/**
+	 * Runs the deferred layout of the graph before reading the position of the slot.
+	 */
+	protected void flushLayout() {
+		if (interactionGraph != null) {
+			interactionGraph.flushLayout();
+		}
+	}
+
+	/**
+	 * Notifies the owner list that the position of the slot has been changed.
+	 *
+	 * @param oldPosition the position of the slot before the change.
+	 */
+	protected void positionChanged(int oldPosition) {
+		if (owner != null) {
+			owner.positionChanged(this, oldPosition);
+		}
+	}
+
+	protected void nodesChanged() {
+		if (owner != null) {
+			owner.contentChanged();
+		}
+	}
+
 	void addNode(NodeImpl node) {
 		nodes.add(node);
 		attachNode(node);
+		nodesChanged();
 	}
 
 	void addNodes(List<? extends NodeImpl> nodes) {
@@ -51,6 +118,7 @@ public abstract class SlotImpl {
 	void addNode(int pos, NodeImpl node) {
 		nodes.add(pos, node);
 		attachNode(node);
+		nodesChanged();
 	}
 
 	//protected abstract void nudge(int delta);
@@ -62,6 +130,12 @@ public abstract class SlotImpl {
 	void removeNode(NodeImpl node) {
 		nodes.remove(node);
 		detachNode(node);
+		nodesChanged();
+	}
+
+	void sortNodes(Comparator<Node> comparator) {
+		nodes.sort(comparator);
+		nodesChanged();
 	}
 
 	public List<Node> getNodes() {
@@ -0,0 +1,223 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+
+/**
+ * Ordered list of {@link SlotImpl slots} (rows or columns) of an interaction graph.<br>
+ * The slot indices are kept implicitly: they are renumbered lazily, only from the first modified position
+ * and only when an index is requested, so {@link #indexOf(Object)} and {@link SlotImpl#getIndex()} are
+ * O(1) once the list is stable.<br>
+ * Slots are also indexed by their position (y for rows, x for columns) in a navigable map. The map is
+ * built on the first lookup and then kept up to date entry by entry: adding, removing or moving a slot
+ * only re-keys that slot, in O(log n). When several slots share the same position the first one in the
+ * list wins.<br>
+ * The list keeps a version, increased on any change of the slots or of their nodes (but not of their
+ * positions), so derived data like the ordered nodes of the graph can be cached.
+ *
+ * @author ETXACAM
+ */
+class SlotList<T extends SlotImpl> extends AbstractList<T> implements RandomAccess {
+
+	@Override
+	public T get(int index) {
+		return slots.get(index);
+	}
+
+	@Override
+	public int size() {
+		return slots.size();
+	}
+
+	@Override
+	public void add(int index, T slot) {
+		slots.add(index, slot);
+		slot.setOwner(this);
+		modCount++;
+		structureChanged(index);
+		addToPositionIndex(slot, slot.getPosition());
+	}
+
+	@Override
+	public T set(int index, T slot) {
+		T old = slots.set(index, slot);
+		release(old);
+		slot.setOwner(this);
+		structureChanged(index);
+		removeFromPositionIndex(old, old.getPosition());
+		addToPositionIndex(slot, slot.getPosition());
+		return old;
+	}
+
+	@Override
+	public T remove(int index) {
+		T old = slots.remove(index);
+		release(old);
+		modCount++;
+		structureChanged(index);
+		removeFromPositionIndex(old, old.getPosition());
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		slots.forEach(this::release);
+		slots.clear();
+		modCount++;
+		structureChanged(0);
+		positionIndex = null;
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		if (!(o instanceof SlotImpl) || ((SlotImpl) o).getOwner() != this) {
+			return -1;
+		}
+		return ((SlotImpl) o).getIndex();
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != -1;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int index = indexOf(o);
+		if (index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Returns the slot located exactly at the position.
+	 *
+	 * @param position the y position for rows or the x position for columns.
+	 * @return the slot or null if there is no slot at this position.
+	 */
+	T getAt(int position) {
+		return first(getPositionIndex().get(position));
+	}
+
+	/**
+	 * Returns the slot with the lowest position greater or equal than the position.
+	 *
+	 * @param position the y position for rows or the x position for columns.
+	 * @return the slot or null if all the slots are before the position.
+	 */
+	T getAfter(int position) {
+		Map.Entry<Integer, List<T>> entry = getPositionIndex().ceilingEntry(position);
+		return entry == null ? null : first(entry.getValue());
+	}
+
+	void updateIndices() {
+		if (firstInvalidIndex >= slots.size()) {
+			return;
+		}
+		for (int i = firstInvalidIndex; i < slots.size(); i++) {
+			slots.get(i).setIndex(i);
+		}
+		firstInvalidIndex = slots.size();
+	}
+
+	@SuppressWarnings("unchecked")
+	void positionChanged(SlotImpl slot, int oldPosition) {
+		if (slot.getOwner() != this || slot.getPosition() == oldPosition) {
+			return;
+		}
+		removeFromPositionIndex((T) slot, oldPosition);
+		addToPositionIndex((T) slot, slot.getPosition());
+	}
+
+	void contentChanged() {
+		version++;
+	}
+
+	int getVersion() {
+		return version;
+	}
+
+	private void structureChanged(int index) {
+		firstInvalidIndex = Math.min(firstInvalidIndex, index);
+		version++;
+	}
+
+	private void release(T slot) {
+		if (slot != null && slot.getOwner() == this) {
+			slot.setOwner(null);
+		}
+	}
+
+	private NavigableMap<Integer, List<T>> getPositionIndex() {
+		if (positionIndex == null) {
+			positionIndex = new TreeMap<>();
+			for (T slot : slots) {
+				positionIndex.computeIfAbsent(slot.getPosition(), k -> new ArrayList<>(1)).add(slot);
+			}
+		}
+		return positionIndex;
+	}
+
+	private void addToPositionIndex(T slot, int position) {
+		if (positionIndex != null && slot != null) {
+			positionIndex.computeIfAbsent(position, k -> new ArrayList<>(1)).add(slot);
+		}
+	}
+
+	private void removeFromPositionIndex(T slot, int position) {
+		if (positionIndex == null || slot == null) {
+			return;
+		}
+		List<T> sameSlots = positionIndex.get(position);
+		if (sameSlots != null && sameSlots.remove(slot) && sameSlots.isEmpty()) {
+			positionIndex.remove(position);
+		}
+	}
+
+	/**
+	 * Returns the slot of the lowest index among the slots sharing a position.
+	 */
+	private T first(List<T> sameSlots) {
+		if (sameSlots == null || sameSlots.isEmpty()) {
+			return null;
+		}
+		T first = sameSlots.get(0);
+		for (int i = 1; i < sameSlots.size(); i++) {
+			if (sameSlots.get(i).getIndex() < first.getIndex()) {
+				first = sameSlots.get(i);
+			}
+		}
+		return first;
+	}
+
+	private List<T> slots = new ArrayList<>();
+	private int firstInvalidIndex = 0;
+	private NavigableMap<Integer, List<T>> positionIndex;
+	private int version;
+}
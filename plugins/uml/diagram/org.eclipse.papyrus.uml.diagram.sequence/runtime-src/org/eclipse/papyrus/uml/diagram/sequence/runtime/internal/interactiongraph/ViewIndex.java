@@ -0,0 +1,249 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gmf.runtime.diagram.core.util.ViewUtil;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.gmf.runtime.notation.NotationPackage;
+import org.eclipse.gmf.runtime.notation.View;
+
+/**
+ * Index of the views of a diagram by semantic element.<br>
+ * The index is attached to the diagram as an adapter and built on the first lookup. From then on, it
+ * listens to the views of the diagram and is updated on each added or removed view and on each change of
+ * the semantic element of a view, so lookups are O(1) instead of a walk of the whole notation tree.<br>
+ * When an element has several views, {@link #getView(EObject)} returns the one that
+ * {@link ViewUtilities#getViewForElement(View, org.eclipse.uml2.uml.Element)} would find first
+ * (diagram children depth-first, then diagram edges).
+ *
+ * @author ETXACAM
+ */
+public class ViewIndex extends AdapterImpl {
+
+	private ViewIndex(Diagram diagram) {
+		this.diagram = diagram;
+	}
+
+	/**
+	 * Returns the index of a diagram, creating it if needed.
+	 *
+	 * @param diagram the diagram.
+	 * @return the index of the diagram.
+	 */
+	public static ViewIndex getIndex(Diagram diagram) {
+		for (Adapter adapter : diagram.eAdapters()) {
+			if (adapter instanceof ViewIndex) {
+				return (ViewIndex) adapter;
+			}
+		}
+		ViewIndex index = new ViewIndex(diagram);
+		diagram.eAdapters().add(index);
+		return index;
+	}
+
+	/**
+	 * Returns the first view of a semantic element in the diagram.
+	 *
+	 * @param element the semantic element.
+	 * @return the view or null if the element is not shown in the diagram.
+	 */
+	public View getView(EObject element) {
+		List<View> views = getIndex().get(element);
+		if (views == null) {
+			return null;
+		}
+		if (views.size() == 1) {
+			return views.get(0);
+		}
+		View first = null;
+		List<Integer> firstPath = null;
+		for (View view : views) {
+			List<Integer> path = getPath(view);
+			if (first == null || comparePaths(path, firstPath) < 0) {
+				first = view;
+				firstPath = path;
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Returns all the views of a semantic element in the diagram.
+	 *
+	 * @param element the semantic element.
+	 * @return the views, in no particular order.
+	 */
+	public List<View> getViews(EObject element) {
+		List<View> views = getIndex().get(element);
+		return views == null ? Collections.emptyList() : Collections.unmodifiableList(views);
+	}
+
+	/**
+	 * Builds the index now, if it is not built yet. Once built, the index can be read concurrently as
+	 * long as the diagram is not modified.
+	 */
+	public void validate() {
+		getIndex();
+	}
+
+	/**
+	 * Removes the index from the diagram and from its views.
+	 */
+	public void dispose() {
+		clear();
+		diagram.eAdapters().remove(this);
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == ViewIndex.class;
+	}
+
+	@Override
+	public void notifyChanged(Notification msg) {
+		if (index == null || msg.isTouch() || msg.getEventType() == Notification.MOVE) {
+			return;
+		}
+		Object feature = msg.getFeature();
+		if (feature == NotationPackage.Literals.VIEW__PERSISTED_CHILDREN ||
+				feature == NotationPackage.Literals.VIEW__TRANSIENT_CHILDREN ||
+				feature == NotationPackage.Literals.DIAGRAM__PERSISTED_EDGES ||
+				feature == NotationPackage.Literals.DIAGRAM__TRANSIENT_EDGES) {
+			removeViews(msg.getOldValue());
+			addViews(msg.getNewValue());
+		} else if (feature == NotationPackage.Literals.VIEW__ELEMENT) {
+			// The children without element of their own inherit the element of the view.
+			if (msg.getNotifier() == diagram) {
+				clear();
+			} else {
+				removeView(msg.getNotifier());
+				addView(msg.getNotifier());
+			}
+		}
+	}
+
+	private Map<EObject, List<View>> getIndex() {
+		if (index == null) {
+			index = new HashMap<>();
+			indexedElements = new HashMap<>();
+			diagram.getChildren().forEach(this::addView);
+			diagram.getEdges().forEach(this::addView);
+		}
+		return index;
+	}
+
+	private void clear() {
+		if (index == null) {
+			return;
+		}
+		diagram.getChildren().forEach(this::removeView);
+		diagram.getEdges().forEach(this::removeView);
+		index = null;
+		indexedElements = null;
+	}
+
+	private void addViews(Object value) {
+		if (value instanceof View) {
+			addView(value);
+		} else if (value instanceof List) {
+			((List<?>) value).forEach(this::addView);
+		}
+	}
+
+	private void removeViews(Object value) {
+		if (value instanceof View) {
+			removeView(value);
+		} else if (value instanceof List) {
+			((List<?>) value).forEach(this::removeView);
+		}
+	}
+
+	private void addView(Object value) {
+		if (!(value instanceof View)) {
+			return;
+		}
+		View view = (View) value;
+		if (indexedElements.containsKey(view)) {
+			return;
+		}
+		view.eAdapters().add(this);
+		EObject element = ViewUtil.resolveSemanticElement(view);
+		if (element != null) {
+			index.computeIfAbsent(element, e -> new ArrayList<>(1)).add(view);
+		}
+		indexedElements.put(view, element);
+		view.getChildren().forEach(this::addView);
+	}
+
+	private void removeView(Object value) {
+		if (!(value instanceof View)) {
+			return;
+		}
+		View view = (View) value;
+		if (!indexedElements.containsKey(view)) {
+			return;
+		}
+		view.eAdapters().remove(this);
+		// The element may have changed since the view was indexed, so use the indexed one.
+		EObject element = indexedElements.remove(view);
+		List<View> views = element == null ? null : index.get(element);
+		if (views != null && views.remove(view) && views.isEmpty()) {
+			index.remove(element);
+		}
+		view.getChildren().forEach(this::removeView);
+	}
+
+	/**
+	 * The position of the view in the walk of getViewForElement(): the diagram edges come after all the
+	 * diagram children.
+	 */
+	private List<Integer> getPath(View view) {
+		List<Integer> path = new ArrayList<>();
+		EObject child = view;
+		for (EObject parent = view.eContainer(); parent instanceof View; parent = parent.eContainer()) {
+			if (parent == diagram && diagram.getEdges().contains(child)) {
+				path.add(0, diagram.getChildren().size() + diagram.getEdges().indexOf(child));
+			} else {
+				path.add(0, ((View) parent).getChildren().indexOf(child));
+			}
+			child = parent;
+		}
+		return path;
+	}
+
+	private static int comparePaths(List<Integer> path1, List<Integer> path2) {
+		for (int i = 0; i < Math.min(path1.size(), path2.size()); i++) {
+			int diff = Integer.compare(path1.get(i), path2.get(i));
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return Integer.compare(path1.size(), path2.size());
+	}
+
+	private Diagram diagram;
+	private Map<EObject, List<View>> index;
+	private Map<View, EObject> indexedElements;
+}
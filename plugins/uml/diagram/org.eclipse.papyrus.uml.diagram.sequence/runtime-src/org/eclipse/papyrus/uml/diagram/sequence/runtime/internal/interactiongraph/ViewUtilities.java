@@ -47,6 +47,7 @@ import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.LifelineEditPart;
 import org.eclipse.papyrus.uml.diagram.sequence.figures.LifelineFigure.LifelineHeaderFigure;
 import org.eclipse.papyrus.uml.diagram.sequence.util.CoordinateReferentialUtils;
 import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.ExecutionSpecification;
 import org.eclipse.uml2.uml.Gate;
 import org.eclipse.uml2.uml.Lifeline;
 
@@ -74,7 +75,22 @@ public class ViewUtilities {
 		return t;
 	}
 
+	/**
+	 * Returns the first view of a semantic element under a container view. The lookups on a whole
+	 * diagram are answered by the {@link ViewIndex} of the diagram.
+	 *
+	 * @param containerView the diagram or the view to search.
+	 * @param element the semantic element.
+	 * @return the view, or null if the element is not shown under the container view.
+	 */
 	public static View getViewForElement(View containerView, Element element) {
+		if (containerView instanceof Diagram) {
+			return ViewIndex.getIndex((Diagram) containerView).getView(element);
+		}
+		return findViewForElement(containerView, element);
+	}
+
+	private static View findViewForElement(View containerView, Element element) {
 		if (containerView == null) {
 			return null;
 		}
@@ -88,7 +104,7 @@ public class ViewUtilities {
 				return (View) v;
 			}
 
-			View vw = getViewForElement((View) v, element);
+			View vw = findViewForElement((View) v, element);
 			if (vw != null) {
 				return vw;
 			}
@@ -105,7 +121,7 @@ public class ViewUtilities {
 					return (View) v;
 				}
 
-				View vw = getViewForElement((View) v, element);
+				View vw = findViewForElement((View) v, element);
 				if (vw != null) {
 					return vw;
 				}
@@ -224,7 +240,7 @@ public class ViewUtilities {
 			org.eclipse.gmf.runtime.notation.Node node = (org.eclipse.gmf.runtime.notation.Node) view;
 			GraphicalEditPart ep = getEditPart(viewer, view);
 			if (ep == null) {
-				return absoluteLayoutConstraint(viewer, view);
+				return applyDefaultSize(view, absoluteLayoutConstraint(viewer, view));
 			}
 
 			Rectangle r = getAbsoluteBounds(ep.getFigure());
@@ -252,7 +268,7 @@ public class ViewUtilities {
 			org.eclipse.gmf.runtime.notation.Node node = (org.eclipse.gmf.runtime.notation.Node) view;
 			GraphicalEditPart ep = getEditPart(viewer, view);
 			if (ep == null) {
-				Rectangle r = absoluteLayoutConstraint(viewer, view);
+				Rectangle r = applyDefaultSize(view, absoluteLayoutConstraint(viewer, view));
 				if (view.getElement() instanceof Lifeline) {
 					r.y += 19;
 					r.height -= 19;
@@ -278,6 +294,22 @@ public class ViewUtilities {
 		return null; // Can not happen
 	}
 
+	/**
+	 * Without figure (headless graph or view not shown yet), a width of -1 in the notation stands for the
+	 * default width of the figure, so the width of lifelines and execution specifications is replaced by
+	 * their default one.
+	 */
+	private static Rectangle applyDefaultSize(View view, Rectangle r) {
+		if (r.width == -1) {
+			if (view.getElement() instanceof Lifeline) {
+				r.width = LIFELINE_DEFAULT_WIDTH;
+			} else if (view.getElement() instanceof ExecutionSpecification) {
+				r.width = EXECUTION_SPECIFICATION_WIDTH;
+			}
+		}
+		return r;
+	}
+
 	private static Rectangle getAbsoluteBounds(IFigure f) {
 		Rectangle r = f.getBounds().getCopy();
 		f.translateToAbsolute(r);
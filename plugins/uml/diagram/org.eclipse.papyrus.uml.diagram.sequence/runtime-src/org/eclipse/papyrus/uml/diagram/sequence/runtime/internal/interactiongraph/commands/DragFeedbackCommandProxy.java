@@ -0,0 +1,141 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.gmf.runtime.common.core.command.AbstractCommand;
+import org.eclipse.gmf.runtime.common.core.command.CommandResult;
+import org.eclipse.gmf.runtime.common.core.command.ICommand;
+import org.eclipse.gmf.runtime.diagram.ui.commands.ICommandProxy;
+import org.eclipse.papyrus.uml.diagram.sequence.part.UMLDiagramEditorPlugin;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.InteractionGraphDragFeedback;
+
+/**
+ * GEF command returned to the tools while dragging. The tools ask the command on each mouse move only
+ * to know whether it can be executed, so that is answered by an {@link InteractionGraphDragFeedback}
+ * query, and the {@link InteractionGraphCommand} is only built when the command is executed or unwrapped
+ * with {@link #getICommand()}, as any other {@link ICommandProxy}.
+ *
+ * @author ETXACAM
+ */
+public class DragFeedbackCommandProxy extends ICommandProxy {
+	public DragFeedbackCommandProxy(String label, BooleanSupplier feedback, Supplier<ICommand> commandFactory) {
+		super(new FeedbackCommand(label, feedback));
+		this.commandFactory = commandFactory;
+	}
+
+	@Override
+	public boolean canExecute() {
+		if (command != null) {
+			return command.canExecute();
+		}
+		return super.getICommand().canExecute();
+	}
+
+	@Override
+	public void execute() {
+		try {
+			getICommand().execute(new NullProgressMonitor(), null);
+		} catch (ExecutionException e) {
+			UMLDiagramEditorPlugin.log.error(e);
+		}
+	}
+
+	@Override
+	public boolean canUndo() {
+		return command != null && command.canUndo();
+	}
+
+	@Override
+	public void undo() {
+		if (command != null) {
+			try {
+				command.undo(new NullProgressMonitor(), null);
+			} catch (ExecutionException e) {
+				UMLDiagramEditorPlugin.log.error(e);
+			}
+		}
+	}
+
+	@Override
+	public void redo() {
+		if (command != null) {
+			try {
+				command.redo(new NullProgressMonitor(), null);
+			} catch (ExecutionException e) {
+				UMLDiagramEditorPlugin.log.error(e);
+			}
+		}
+	}
+
+	@Override
+	public void dispose() {
+		if (command != null) {
+			command.dispose();
+		}
+	}
+
+	/**
+	 * @return the real command, built on the first call.
+	 */
+	@Override
+	public ICommand getICommand() {
+		if (command == null) {
+			command = commandFactory.get();
+		}
+		return command;
+	}
+
+	/**
+	 * Stands for the real command until it is built. It only answers {@link #canExecute()}.
+	 */
+	private static class FeedbackCommand extends AbstractCommand {
+		public FeedbackCommand(String label, BooleanSupplier feedback) {
+			super(label);
+			this.feedback = feedback;
+		}
+
+		@Override
+		public boolean canExecute() {
+			return feedback.getAsBoolean();
+		}
+
+		@Override
+		protected CommandResult doExecuteWithResult(IProgressMonitor progressMonitor, IAdaptable info) throws ExecutionException {
+			return CommandResult.newCancelledCommandResult();
+		}
+
+		@Override
+		protected CommandResult doRedoWithResult(IProgressMonitor progressMonitor, IAdaptable info) throws ExecutionException {
+			return CommandResult.newCancelledCommandResult();
+		}
+
+		@Override
+		protected CommandResult doUndoWithResult(IProgressMonitor progressMonitor, IAdaptable info) throws ExecutionException {
+			return CommandResult.newCancelledCommandResult();
+		}
+
+		private BooleanSupplier feedback;
+	}
+
+	private Supplier<ICommand> commandFactory;
+	private ICommand command;
+}
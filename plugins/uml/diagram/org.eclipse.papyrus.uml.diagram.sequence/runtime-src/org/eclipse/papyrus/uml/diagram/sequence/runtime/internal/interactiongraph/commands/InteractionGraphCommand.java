@@ -16,6 +16,8 @@ package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongra
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -29,10 +31,11 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.edit.command.AddCommand;
-import org.eclipse.emf.edit.command.MoveCommand;
 import org.eclipse.emf.edit.command.RemoveCommand;
 import org.eclipse.emf.edit.command.SetCommand;
 import org.eclipse.emf.transaction.TransactionalEditingDomain;
@@ -53,14 +56,17 @@ import org.eclipse.gmf.runtime.emf.type.core.IHintedType;
 import org.eclipse.gmf.runtime.emf.type.core.commands.DestroyElementCommand;
 import org.eclipse.gmf.runtime.emf.type.core.requests.CreateElementRequest;
 import org.eclipse.gmf.runtime.emf.type.core.requests.DestroyElementRequest;
+import org.eclipse.gmf.runtime.notation.Bounds;
 import org.eclipse.gmf.runtime.notation.Edge;
 import org.eclipse.gmf.runtime.notation.NotationPackage;
+import org.eclipse.gmf.runtime.notation.Shape;
 import org.eclipse.gmf.runtime.notation.View;
 import org.eclipse.papyrus.infra.gmfdiag.common.commands.SemanticElementAdapter;
 import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.ActionExecutionSpecificationEditPart;
 import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.BehaviorExecutionSpecificationEditPart;
 import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.DestructionOccurrenceSpecificationEditPart;
 import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.GateEditPart;
+import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.InteractionEditPart;
 import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.InteractionInteractionCompartmentEditPart;
 import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.InteractionUseEditPart;
 import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.LifelineEditPart;
@@ -75,6 +81,8 @@ import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Node;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.ClusterImpl;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.InteractionGraphImpl;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.InteractionGraphService;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.InteractionGraphSnapshot;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.InteractionGraphStatistics;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.LinkImpl;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.NodeImpl;
 import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.NodeOrderResolver;
@@ -346,7 +354,18 @@ public class InteractionGraphCommand extends AbstractTransactionalCommand {
 	@Override
 	public boolean canExecute() {
 		for (InteractionGraphEditAction action : actions) {
-			if (action.isApplicable(interactionGraph) && !action.prepare(interactionGraph)) {
+			if (!action.isApplicable(interactionGraph)) {
+				continue;
+			}
+			InteractionGraphStatistics.Measure measure = InteractionGraphStatistics.start(interactionGraph.getDiagram(),
+					"prepare." + action.getName());
+			boolean prepared;
+			try {
+				prepared = action.prepare(interactionGraph);
+			} finally {
+				measure.stop();
+			}
+			if (!prepared) {
 				return false;
 			}
 		}
@@ -355,21 +374,45 @@ public class InteractionGraphCommand extends AbstractTransactionalCommand {
 
 	@Override
 	protected CommandResult doExecuteWithResult(IProgressMonitor monitor, IAdaptable info) throws ExecutionException {
-		// Force reload the graph in case something has change by another command.
-		interactionGraph.reset();
+		// Reload the graph only if something has changed since it was built (i.e. by another command).
+		interactionGraph.validate();
 
 		if (!canExecute()) {
 			return CommandResult.newCancelledCommandResult();
 		}
 
+		// If the model is finally not changed, the graph is put back as it was instead of being rebuilt.
+		InteractionGraphSnapshot snapshot = interactionGraph.isValid() ? interactionGraph.snapshot() : null;
+		boolean modelChanged = false;
 		CommandResult res;
 		try {
-			for (InteractionGraphEditAction action : actions) {
-				if (!action.isApplicable(interactionGraph))
-					continue;
-				
-				if (!action.apply(interactionGraph)) {
-					return CommandResult.newErrorCommandResult("Could not apply action.");
+			// The layouts requested by the actions are coalesced, and run when the graph is read or once
+			// before the post apply. If an action fails, the graph is restored without laying it out.
+			interactionGraph.beginDeferredLayout();
+			boolean allApplied = false;
+			try {
+				for (InteractionGraphEditAction action : actions) {
+					if (!action.isApplicable(interactionGraph))
+						continue;
+					
+					InteractionGraphStatistics.Measure measure = InteractionGraphStatistics.start(interactionGraph.getDiagram(),
+							"apply." + action.getName());
+					boolean applied;
+					try {
+						applied = action.apply(interactionGraph);
+					} finally {
+						measure.stop();
+					}
+					if (!applied) {
+						return CommandResult.newErrorCommandResult("Could not apply action.");
+					}
+				}
+				allApplied = true;
+			} finally {
+				if (allApplied) {
+					interactionGraph.endDeferredLayout();
+				} else {
+					interactionGraph.cancelDeferredLayout();
 				}
 			}
 
@@ -377,12 +420,27 @@ public class InteractionGraphCommand extends AbstractTransactionalCommand {
 				action.postApply(interactionGraph);
 			}
 
-			ICommand cmd = buildDelegateCommands(getEditingDomain(), getLabel());
+			InteractionGraphStatistics.Measure measure = InteractionGraphStatistics.start(interactionGraph.getDiagram(),
+					"buildDelegateCommands");
+			ICommand cmd;
+			try {
+				cmd = buildDelegateCommands(getEditingDomain(), getLabel());
+			} finally {
+				measure.stop();
+			}
 			if (cmd == null || !cmd.canExecute()) {
 				return CommandResult.newCancelledCommandResult();
 			}
 
-			cmd.execute(monitor, info);
+			// From here the graph holds changes not yet in the model.
+			interactionGraph.invalidate();
+			modelChanged = true;
+			measure = InteractionGraphStatistics.start(interactionGraph.getDiagram(), "executeDelegateCommands");
+			try {
+				cmd.execute(monitor, info);
+			} finally {
+				measure.stop();
+			}
 			res = cmd.getCommandResult(); 
 			if (!res.getStatus().isOK()) {
 				if (res.getStatus().getException() != null)
@@ -396,6 +454,14 @@ public class InteractionGraphCommand extends AbstractTransactionalCommand {
 		} catch (Exception e) {
 			UMLDiagramEditorPlugin.log.error(e.getMessage(), e);;
 			throw e;
+		} finally {
+			if (!modelChanged) {
+				if (snapshot != null) {
+					snapshot.restore();
+				} else {
+					interactionGraph.invalidate();
+				}
+			}
 		}
 		
 		return res;
@@ -403,6 +469,7 @@ public class InteractionGraphCommand extends AbstractTransactionalCommand {
 
 	protected ICommand buildDelegateCommands(TransactionalEditingDomain editingDomain, String label) {
 		ICompositeCommand command = new CompositeTransactionalCommand(editingDomain, label);
+		boundsChanged.clear();
 		calculateLifelinesEditingCommand(editingDomain, command);
 		calculateInteractionUseEditingCommand(editingDomain, command);
 		calculateExecutionSpecificationEditingCommand(editingDomain, command);
@@ -685,14 +752,17 @@ public class InteractionGraphCommand extends AbstractTransactionalCommand {
 		for (Link lk : interactionGraph.getMessageLinks()) {
 			Message msg = (Message)lk.getElement();
 			if (lk.getSource() == null) {
-				command.add(new EMFCommandOperation(editingDomain, SetCommand.create(
-						editingDomain, msg, UMLPackage.Literals.MESSAGE__SEND_EVENT, SetCommand.UNSET_VALUE)));
+				if (msg.getSendEvent() != null)
+					command.add(new EMFCommandOperation(editingDomain, SetCommand.create(
+							editingDomain, msg, UMLPackage.Literals.MESSAGE__SEND_EVENT, SetCommand.UNSET_VALUE)));
 			} else {
 				MessageEnd msgEnd = (MessageEnd)lk.getSource().getElement();
-				command.add(new EMFCommandOperation(editingDomain, SetCommand.create(
-						editingDomain, msg, UMLPackage.Literals.MESSAGE__SEND_EVENT, msgEnd)));
-				command.add(new EMFCommandOperation(editingDomain, SetCommand.create(
-						editingDomain, msgEnd, UMLPackage.Literals.MESSAGE_END__MESSAGE, lk.getElement())));
+				if (msg.getSendEvent() != msgEnd)
+					command.add(new EMFCommandOperation(editingDomain, SetCommand.create(
+							editingDomain, msg, UMLPackage.Literals.MESSAGE__SEND_EVENT, msgEnd)));
+				if (msgEnd.getMessage() != msg)
+					command.add(new EMFCommandOperation(editingDomain, SetCommand.create(
+							editingDomain, msgEnd, UMLPackage.Literals.MESSAGE_END__MESSAGE, lk.getElement())));
 				if (msg.getSendEvent() != lk.getSource().getElement()) {			
 					command.add(createMessageEndEditingCommand(editingDomain, lk.getSource(), msgEnd));
 					command.add(deleteMessageEndEditingCommand(editingDomain, msg.getSendEvent()));
@@ -700,14 +770,17 @@ public class InteractionGraphCommand extends AbstractTransactionalCommand {
 			}
 
 			if (lk.getTarget() == null) {
-				command.add(new EMFCommandOperation(editingDomain, SetCommand.create(
-						editingDomain, msg, UMLPackage.Literals.MESSAGE__RECEIVE_EVENT, SetCommand.UNSET_VALUE)));
+				if (msg.getReceiveEvent() != null)
+					command.add(new EMFCommandOperation(editingDomain, SetCommand.create(
+							editingDomain, msg, UMLPackage.Literals.MESSAGE__RECEIVE_EVENT, SetCommand.UNSET_VALUE)));
 			} else { 
 				MessageEnd msgEnd = (MessageEnd)lk.getTarget().getElement();
-				command.add(new EMFCommandOperation(editingDomain, SetCommand.create(
-						editingDomain, msg, UMLPackage.Literals.MESSAGE__RECEIVE_EVENT, msgEnd)));
-				command.add(new EMFCommandOperation(editingDomain, SetCommand.create(
-						editingDomain, msgEnd, UMLPackage.Literals.MESSAGE_END__MESSAGE, lk.getElement())));
+				if (msg.getReceiveEvent() != msgEnd)
+					command.add(new EMFCommandOperation(editingDomain, SetCommand.create(
+							editingDomain, msg, UMLPackage.Literals.MESSAGE__RECEIVE_EVENT, msgEnd)));
+				if (msgEnd.getMessage() != msg)
+					command.add(new EMFCommandOperation(editingDomain, SetCommand.create(
+							editingDomain, msgEnd, UMLPackage.Literals.MESSAGE_END__MESSAGE, lk.getElement())));
 				if (msg.getReceiveEvent() != lk.getTarget().getElement()) {			
 					command.add(createMessageEndEditingCommand(editingDomain, lk.getTarget(), msgEnd));
 					command.add(deleteMessageEndEditingCommand(editingDomain, msg.getReceiveEvent()));
@@ -892,25 +965,15 @@ public class InteractionGraphCommand extends AbstractTransactionalCommand {
 		final List<T> newValues = new ArrayList<>(newList);
 		createCommandsForCollectionChanges(cmd, container, feature, oldList, newList, addCommand, removeCommand);
 		
-		// ReorderCommands		'
-		int index = 0;
-		for (T obj : newValues) {
-			if (feature != null) {
-				cmd.add(new TransactionalCommandProxy(getEditingDomain(),
-						new MoveCommand(getEditingDomain(), container, feature, obj, index) {
-							@Override
-							public boolean doCanExecute() {
-								return true;
-							}
-						}, "Rearrange collection", Collections.EMPTY_LIST));
-			}
-			
-			if (updateBounds) {
-				NodeImpl node = interactionGraph.getNodeFor((Element) obj);
-				cmd.add(new SetNodeViewBoundsCommand(getEditingDomain(), node, node.getConstraints(), updateParts, "Set location",
-						Collections.emptyList()));
-			}
-			index++;
+		// Reorder Command: only the elements out of place are moved, after the additions and removals.
+		if (feature != null) {
+			cmd.add(new RepositionEListCommand(getEditingDomain(), "Rearrange collection", 
+					(EList<?>) container.eGet(feature), newValues));
+		}
+
+		if (updateBounds) {
+			updateBoundsChanges(cmd, newValues.stream().map(d -> interactionGraph.getNodeFor((Element) d)).
+					collect(Collectors.toList()), updateParts);
 		}
 	}
 
@@ -984,30 +1047,92 @@ public class InteractionGraphCommand extends AbstractTransactionalCommand {
 	}
 
 	private void updateZOrder(ICompositeCommand cmd, View container, List<View> oldList, List<? extends Node> newList) {
-		final List<View> oldValues = new ArrayList<>(oldList);
+		final List<View> headViews = getHeadViews(container, oldList);
+
+		// Views of new nodes are created by previous commands, so they are collected on execution.
+		// Each view is ordered within its actual container, which is not always the given one.
 		final List<Node> newValues = new ArrayList<>(newList);
-		int index = 0;
-		for (View v: oldValues) {
+		cmd.add(new AbstractTransactionalCommand(getEditingDomain(), "Set ZOrder", null) {
+			@Override
+			protected CommandResult doExecuteWithResult(IProgressMonitor monitor, IAdaptable info) throws ExecutionException {
+				Map<View, List<View>> viewsByContainer = new LinkedHashMap<>();
+				viewsByContainer.put(container, new ArrayList<>(headViews));
+				for (Node n : newValues) {
+					View view = n.getView();
+					if (view != null && view.eContainer() instanceof View) {
+						View viewContainer = (View) view.eContainer();
+						viewsByContainer.computeIfAbsent(viewContainer, d -> getHeadViews(d, d.getChildren())).add(view);
+					}
+				}
+				try {
+					viewsByContainer.forEach((c, views) -> RepositionEListCommand.reorder(c.getPersistedChildren(), views));
+				} catch (RuntimeException e) {
+					return CommandResult.newErrorCommandResult(e);
+				}
+				return CommandResult.newOKCommandResult();
+			}
+		});
+	}
+
+	/**
+	 * The views of the container element itself (labels, compartments...) stay first.
+	 */
+	private static List<View> getHeadViews(View container, List<View> children) {
+		List<View> headViews = new ArrayList<>();
+		for (View v: children) {
 			if (v.getElement() == container.getElement())
-				index++;
+				headViews.add(v);
 			else 
 				break;
 		}
-			
-		for (Node n : newValues) {
-			cmd.add(new SetNodeViewZOrderCommand(getEditingDomain(), interactionGraph, n, index));
-			index++;
-		}
+		return headViews;
 	}
 
-	private void updateBoundsChanges(ICompositeCommand cmd, List<Node> nodes, boolean updateParts) {
+	private void updateBoundsChanges(ICompositeCommand cmd, List<? extends Node> nodes, boolean updateParts) {
 		for (Node node : nodes) {
-			cmd.add(new SetNodeViewBoundsCommand(getEditingDomain(), node, node.getConstraints(), updateParts, "Set location", Collections.emptyList()));
+			if (isBoundsChanged(node)) {
+				cmd.add(new SetNodeViewBoundsCommand(getEditingDomain(), node, node.getConstraints(), updateParts, "Set location", Collections.emptyList()));
+			}
 		}
 	}
+
+	private boolean isBoundsChanged(Node node) {
+		Boolean changed = boundsChanged.get(node);
+		if (changed == null) {
+			changed = calculateBoundsChanged(node);
+			boundsChanged.put(node, changed);
+		}
+		return changed;
+	}
+
+	private boolean calculateBoundsChanged(Node node) {
+		View view = node.getView();
+		if (!(view instanceof Shape) || !(((Shape) view).getLayoutConstraint() instanceof Bounds)) {
+			return true;
+		}
+
+		Rectangle rect = node.getConstraints();
+		if (!view.getType().equals(InteractionEditPart.VISUAL_ID)) {
+			// Layout constraints are relative to the container, so they are only comparable if the view
+			// is not going to be reparented and its container is not going to move.
+			Cluster owner = node.getParent();
+			while (owner != null && (owner.getView() == null || owner.getView() == view)) {
+				owner = owner.getParent();
+			}
+			if (owner == null || !EcoreUtil.isAncestor(owner.getView(), view) || isBoundsChanged(owner)) {
+				return true;
+			}
+			rect = ViewUtilities.toRelativeForLayoutConstraints(interactionGraph.getEditPartViewer(), (View) view.eContainer(), rect);
+		}
+
+		Bounds bounds = (Bounds) ((Shape) view).getLayoutConstraint();
+		return bounds.getX() != rect.x || bounds.getY() != rect.y || 
+				bounds.getWidth() != rect.width || bounds.getHeight() != rect.height;
+	}
 	
 	private InteractionGraphImpl interactionGraph;
 	private InteractionGraphService interactionGraphService; 
 	private int gridSpacing;
 	private List<InteractionGraphEditAction> actions = new ArrayList<>();
+	private Map<Node, Boolean> boundsChanged = new IdentityHashMap<>();
 }
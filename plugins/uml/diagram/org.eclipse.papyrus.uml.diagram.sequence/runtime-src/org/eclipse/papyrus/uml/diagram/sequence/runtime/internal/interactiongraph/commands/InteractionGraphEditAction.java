@@ -45,4 +45,8 @@ public interface InteractionGraphEditAction {
 	public boolean apply(InteractionGraph graph);
 	public void postApply(InteractionGraph graph);
 	public void handleResult(CommandResult result);
+
+	public default String getName() {
+		return getClass().getSimpleName();
+	}
 }
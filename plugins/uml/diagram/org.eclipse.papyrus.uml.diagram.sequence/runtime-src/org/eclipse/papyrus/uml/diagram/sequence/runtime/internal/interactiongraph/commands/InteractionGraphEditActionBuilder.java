@@ -96,6 +96,11 @@ public class InteractionGraphEditActionBuilder {
 			this.name = name;
 		}
 		
+		@Override
+		public String getName() {
+			return name;
+		}
+
 		@Override
 		public boolean isApplicable(InteractionGraph interactionGraph) {
 			if (applicable == null)
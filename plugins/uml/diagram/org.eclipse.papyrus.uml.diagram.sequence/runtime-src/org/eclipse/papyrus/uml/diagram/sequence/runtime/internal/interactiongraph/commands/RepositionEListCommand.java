@@ -14,7 +14,13 @@
 
 package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.runtime.IAdaptable;
@@ -24,13 +30,21 @@ import org.eclipse.emf.transaction.TransactionalEditingDomain;
 import org.eclipse.gmf.runtime.common.core.command.CommandResult;
 import org.eclipse.gmf.runtime.emf.commands.core.command.AbstractTransactionalCommand;
 
+/**
+ * Reorders an {@link EList} so its elements follow a given order.<br>
+ * The moves are calculated when the command is executed, against the actual content of the list, so
+ * previous commands of the same transaction can add or remove elements of the list. Only the elements out
+ * of the longest subsequence already in the right relative order are moved, so reordering a list
+ * that is already sorted does not change it at all. Elements of the list not in the new positions are
+ * kept at the end, in their current order, and elements in the new positions not in the list are ignored.
+ */
 @SuppressWarnings("rawtypes")
 public class RepositionEListCommand extends AbstractTransactionalCommand {
 
 	/**
-	 * the amount to move element by relative to its position
+	 * the new order of the elements
 	 */
-	private List newPositions;
+	private Supplier<List> newPositions;
 
 	/**
 	 * The list of elements in which reposition will take place.
@@ -46,28 +60,39 @@ public class RepositionEListCommand extends AbstractTransactionalCommand {
 	 *            label for command
 	 * @param elements
 	 *            the list of elements in which reposition will take place
-	 * @param element
-	 *            target element
-	 * @param displacement
-	 *            amount of movement
+	 * @param newPositions
+	 *            the elements in the new order
 	 */
 	public RepositionEListCommand(TransactionalEditingDomain editingDomain, String label, EList elements, List newPositions) {
+		this(editingDomain, label, elements, () -> newPositions);
+	}
+
+	/**
+	 * Constructs a runtime instance of <code>RepositionEObjectCommand</code> whose new order is only known
+	 * at execution time (i.e. it contains views created by previous commands).
+	 *
+	 * @param editingDomain
+	 *            the editing domain through which model changes are made
+	 * @param label
+	 *            label for command
+	 * @param elements
+	 *            the list of elements in which reposition will take place
+	 * @param newPositions
+	 *            supplier of the elements in the new order
+	 */
+	public RepositionEListCommand(TransactionalEditingDomain editingDomain, String label, EList elements, Supplier<List> newPositions) {
 		super(editingDomain, label, null);
 		this.newPositions = newPositions;
 		this.elements = elements;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	protected CommandResult doExecuteWithResult(
 			IProgressMonitor progressMonitor, IAdaptable info)
 			throws ExecutionException {
 		CommandResult commandResult = null;
 		try {
-			int index = 0;
-			for (Object obj : newPositions) {
-				elements.move(index++, obj);
-			}
+			reorder(elements, newPositions.get());
 		} catch (RuntimeException exp) {
 			commandResult = CommandResult.newErrorCommandResult(exp);
 		}
@@ -75,4 +100,88 @@ public class RepositionEListCommand extends AbstractTransactionalCommand {
 				: commandResult;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Moves the minimum number of elements of the list to match the new order.
+	 *
+	 * @param elements the list to reorder
+	 * @param newPositions the elements in the new order
+	 * @return the number of moved elements
+	 */
+	@SuppressWarnings("unchecked")
+	static int reorder(EList elements, List newPositions) {
+		// Target order: the new positions present in the list, then the remaining elements.
+		Map<Object, Integer> targetIndex = new IdentityHashMap<>();
+		List<Object> target = new ArrayList<>(elements.size());
+		Set<Object> contained = Collections.newSetFromMap(new IdentityHashMap<>());
+		contained.addAll(elements);
+		for (Object obj : newPositions) {
+			if (!targetIndex.containsKey(obj) && contained.contains(obj)) {
+				targetIndex.put(obj, target.size());
+				target.add(obj);
+			}
+		}
+		for (Object obj : elements) {
+			if (!targetIndex.containsKey(obj)) {
+				targetIndex.put(obj, target.size());
+				target.add(obj);
+			}
+		}
+
+		int[] current = new int[elements.size()];
+		for (int i = 0; i < current.length; i++) {
+			current[i] = targetIndex.get(elements.get(i));
+		}
+		boolean[] inPlace = longestIncreasingSubsequence(current, target.size());
+
+		// Each element out of place is moved right after its predecessor in the target order. The placed
+		// elements plus the longest subsequence stay sorted after every move, so the list ends sorted.
+		int moves = 0;
+		for (int i = 0; i < target.size(); i++) {
+			if (inPlace[i]) {
+				continue;
+			}
+			Object obj = target.get(i);
+			int index = 0;
+			if (i > 0) {
+				int predIndex = elements.indexOf(target.get(i - 1));
+				index = elements.indexOf(obj) < predIndex ? predIndex : predIndex + 1;
+			}
+			elements.move(index, obj);
+			moves++;
+		}
+		return moves;
+	}
+
+	/**
+	 * Returns, indexed by value, which values of the sequence belong to its longest increasing subsequence.
+	 */
+	private static boolean[] longestIncreasingSubsequence(int[] sequence, int size) {
+		int[] tails = new int[sequence.length];
+		int[] previous = new int[sequence.length];
+		int length = 0;
+		for (int i = 0; i < sequence.length; i++) {
+			int lo = 0;
+			int hi = length;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (sequence[tails[mid]] < sequence[i]) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			previous[i] = lo > 0 ? tails[lo - 1] : -1;
+			tails[lo] = i;
+			if (lo == length) {
+				length++;
+			}
+		}
+
+		boolean[] res = new boolean[size];
+		for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+			res[sequence[i]] = true;
+		}
+		return res;
+	}
+
+}
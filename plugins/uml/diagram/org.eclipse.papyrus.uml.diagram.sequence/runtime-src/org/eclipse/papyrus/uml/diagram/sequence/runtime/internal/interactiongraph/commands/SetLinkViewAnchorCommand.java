@@ -15,6 +15,7 @@
 package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands;
 
 import java.util.List;
+import java.util.Objects;
 
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.runtime.IAdaptable;
@@ -70,9 +71,11 @@ public class SetLinkViewAnchorCommand extends AbstractTransactionalCommand
 				n = graph.getNodeFor((Element)anchoringView.getElement());
 			//String anchorId = ViewUtilities.formatAnchorId(graph.getEditPartViewer(), anchoringView, point);
 			String anchorId = ViewUtilities.formatAnchorId(n.getConstraints(), point);
-			IdentityAnchor anchor = NotationFactory.eINSTANCE.createIdentityAnchor();
-			anchor.setId(anchorId);
-			edge.setSourceAnchor(anchor);
+			if (!isSameAnchor(edge.getSourceAnchor(), anchorId)) {
+				IdentityAnchor anchor = NotationFactory.eINSTANCE.createIdentityAnchor();
+				anchor.setId(anchorId);
+				edge.setSourceAnchor(anchor);
+			}
 		} else {
 			if (edge.getTarget() != anchoringView) {
 				edge.setTarget(anchoringView);
@@ -83,13 +86,19 @@ public class SetLinkViewAnchorCommand extends AbstractTransactionalCommand
 				n = graph.getNodeFor((Element)anchoringView.getElement());
 			//String anchorId = ViewUtilities.formatAnchorId(graph.getEditPartViewer(), anchoringView, point);
 			String anchorId = ViewUtilities.formatAnchorId(n.getConstraints(), point);
-			IdentityAnchor anchor = NotationFactory.eINSTANCE.createIdentityAnchor();
-			anchor.setId(anchorId);
-			edge.setTargetAnchor(anchor);			
+			if (!isSameAnchor(edge.getTargetAnchor(), anchorId)) {
+				IdentityAnchor anchor = NotationFactory.eINSTANCE.createIdentityAnchor();
+				anchor.setId(anchorId);
+				edge.setTargetAnchor(anchor);
+			}			
 		}
 		return CommandResult.newOKCommandResult();
 	}
 
+	private static boolean isSameAnchor(org.eclipse.gmf.runtime.notation.Anchor anchor, String anchorId) {
+		return anchor instanceof IdentityAnchor && Objects.equals(((IdentityAnchor) anchor).getId(), anchorId);
+	}
+
 	private LinkImpl graphLink;
 	private Anchor anchor;
 	private Node anchoringNode; 
@@ -27,7 +27,9 @@ import org.eclipse.gmf.runtime.common.core.command.ICommand;
 import org.eclipse.gmf.runtime.common.core.internal.command.ICommandWithSettableResult;
 import org.eclipse.gmf.runtime.diagram.ui.editparts.GraphicalEditPart;
 import org.eclipse.gmf.runtime.emf.commands.core.command.AbstractTransactionalCommand;
+import org.eclipse.gmf.runtime.notation.Bounds;
 import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.gmf.runtime.notation.LayoutConstraint;
 import org.eclipse.gmf.runtime.notation.Shape;
 import org.eclipse.gmf.runtime.notation.View;
 import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.InteractionEditPart;
@@ -62,14 +64,18 @@ public class SetNodeViewBoundsCommand extends AbstractTransactionalCommand
 	protected CommandResult doExecuteWithResult(IProgressMonitor monitor, IAdaptable info) throws ExecutionException {
 		InteractionGraphImpl graph = interactionGraphNode.getInteractionGraph();
 		View v = interactionGraphNode.getView();
-		if (v.getType().equals(InteractionEditPart.VISUAL_ID)) {
-			((Shape) v).setLayoutConstraint(ViewUtilities.toBounds(rect));
-		} else {
-			Rectangle constraints = ViewUtilities.toRelativeForLayoutConstraints(graph.getEditPartViewer(), (View) v.eContainer(), rect);
+		Rectangle constraints = rect;
+		if (!v.getType().equals(InteractionEditPart.VISUAL_ID)) {
+			constraints = ViewUtilities.toRelativeForLayoutConstraints(graph.getEditPartViewer(), (View) v.eContainer(), rect);
+		}
+
+		// Avoid notifications (and undo records) when the bounds do not change.
+		LayoutConstraint current = ((Shape) v).getLayoutConstraint();
+		if (!(current instanceof Bounds) || !isSameBounds((Bounds) current, constraints)) {
 			((Shape) v).setLayoutConstraint(ViewUtilities.toBounds(constraints));
 		}
 		
-		if (refreshEditParts) {
+		if (refreshEditParts && graph.getEditPartViewer() != null) {
 			GraphicalEditPart ep = (GraphicalEditPart)graph.getEditPartViewer().getEditPartRegistry().get(v);
 			if (ep != null) {
 				ep.refresh();
@@ -80,6 +86,10 @@ public class SetNodeViewBoundsCommand extends AbstractTransactionalCommand
 		return CommandResult.newOKCommandResult();
 	}
 
+	private static boolean isSameBounds(Bounds bounds, Rectangle r) {
+		return bounds.getX() == r.x && bounds.getY() == r.y && bounds.getWidth() == r.width && bounds.getHeight() == r.height;
+	}
+
 	private NodeImpl interactionGraphNode;
 	private Rectangle rect;
 	private boolean refreshEditParts;
@@ -0,0 +1,208 @@
+/*****************************************************************************
+ * Copyright (c) 2019 Telefonaktiebolaget LM Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.properties.widgets;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.transaction.Lifecycle;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.emf.transaction.TransactionalEditingDomainEvent;
+import org.eclipse.emf.transaction.TransactionalEditingDomainListenerImpl;
+import org.eclipse.emf.transaction.util.TransactionUtil;
+import org.eclipse.papyrus.infra.core.services.ServiceMultiException;
+import org.eclipse.papyrus.infra.core.services.ServicesRegistry;
+import org.eclipse.papyrus.infra.nattable.model.nattable.Table;
+import org.eclipse.papyrus.infra.nattable.model.nattable.nattableconfiguration.TableConfiguration;
+import org.eclipse.papyrus.uml.properties.Activator;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * LRU pool of the tables configured by the {@link NattablePropertyEditor}s, so a table is not created again
+ * (service registry, table resource, table configuration) each time the selection changes.
+ * <P>
+ * The tables are keyed by editor class, table configuration URI, EClass of the table context and property path.
+ * A table is removed from the pool while an editor uses it, and released to the pool when the editor selection changes
+ * or the editor is disposed. A released table keeps its context and its rows: they are replaced in the same write as the
+ * rest of the configuration when the table is reused, and the table is only saved when it is disposed. The NatTable model
+ * managers are not pooled, they are bound to the NatTable widget of the property view. The tables released by the property
+ * view of an editor are disposed with its model set, i.e. when its editing domain is disposed. The least recently used
+ * tables are disposed when the pool is full. Only used in the UI thread.
+ * </P>
+ */
+final class NattableModelManagerPool {
+
+	/** The maximum number of pooled tables */
+	private static final int POOL_SIZE = 4;
+
+	/** The pooled tables, by key, in access order */
+	private static final Map<List<Object>, PooledTable> pool = new LinkedHashMap<List<Object>, PooledTable>(POOL_SIZE * 2, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<List<Object>, PooledTable> eldest) {
+			if (size() > POOL_SIZE) {
+				eldest.getValue().dispose();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	/** The model sets whose editing domain is listened to, to flush their tables. Weak, the pool must not keep the model sets */
+	private static final Set<ResourceSet> watchedModelSets = Collections.newSetFromMap(new WeakHashMap<ResourceSet, Boolean>());
+
+	private NattableModelManagerPool() {
+	}
+
+	/**
+	 * Gets the key of a table.
+	 */
+	static List<Object> getKey(final Class<?> editorClass, final URI tableConfigurationURI, final EClass contextEClass, final String propertyPath) {
+		return Arrays.<Object> asList(editorClass, tableConfigurationURI, contextEClass, propertyPath);
+	}
+
+	/**
+	 * Removes a table from the pool.
+	 *
+	 * @return the pooled table, or <code>null</code> if none.
+	 */
+	static PooledTable acquire(final List<Object> key) {
+		return pool.remove(key);
+	}
+
+	/**
+	 * Adds a table to the pool, disposing the one with the same key.
+	 *
+	 * @param table
+	 *            the released table
+	 * @param modelSet
+	 *            the model set of the previous context of the table, the table is disposed with it. May be <code>null</code>
+	 */
+	static void release(final PooledTable table, final ResourceSet modelSet) {
+		table.modelSet = new WeakReference<ResourceSet>(modelSet);
+		PooledTable previous = pool.put(table.key, table);
+		if (null != previous && previous != table) {
+			previous.dispose();
+		}
+		watch(modelSet);
+	}
+
+	/**
+	 * Disposes the pooled tables released for the given model set.
+	 */
+	static void flush(final ResourceSet modelSet) {
+		watchedModelSets.remove(modelSet);
+		for (Iterator<PooledTable> iterator = pool.values().iterator(); iterator.hasNext();) {
+			PooledTable table = iterator.next();
+			if (table.modelSet.get() == modelSet) {
+				iterator.remove();
+				table.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Flushes the tables of the given model set when its editing domain is disposed, i.e. when its editor is closed.
+	 */
+	private static void watch(final ResourceSet modelSet) {
+		if (null == modelSet || watchedModelSets.contains(modelSet)) {
+			return;
+		}
+		TransactionalEditingDomain domain = TransactionUtil.getEditingDomain(modelSet);
+		final Lifecycle lifecycle = null != domain ? TransactionUtil.getAdapter(domain, Lifecycle.class) : null;
+		if (null == lifecycle) {
+			return;
+		}
+		watchedModelSets.add(modelSet);
+		lifecycle.addTransactionalEditingDomainListener(new TransactionalEditingDomainListenerImpl() {
+
+			@Override
+			public void editingDomainDisposing(final TransactionalEditingDomainEvent event) {
+				lifecycle.removeTransactionalEditingDomainListener(this);
+				Display display = Display.getDefault();
+				if (display.getThread() == Thread.currentThread()) {
+					flush(modelSet);
+				} else {
+					display.asyncExec(new Runnable() {
+
+						@Override
+						public void run() {
+							flush(modelSet);
+						}
+					});
+				}
+			}
+		});
+	}
+
+	/**
+	 * A table configured by an editor, with its service registry and its resource.
+	 */
+	static class PooledTable {
+
+		final List<Object> key;
+
+		final ServicesRegistry serviceRegistry;
+
+		final Resource resource;
+
+		final Table table;
+
+		final TableConfiguration tableConfiguration;
+
+		/** the model set of the last context of the table */
+		WeakReference<ResourceSet> modelSet = new WeakReference<ResourceSet>(null);
+
+		PooledTable(final List<Object> key, final ServicesRegistry serviceRegistry, final Resource resource, final Table table, final TableConfiguration tableConfiguration) {
+			this.key = key;
+			this.serviceRegistry = serviceRegistry;
+			this.resource = resource;
+			this.table = table;
+			this.tableConfiguration = tableConfiguration;
+		}
+
+		/**
+		 * Saves the table and disposes it with its service registry.
+		 */
+		void dispose() {
+			if (null != resource) {
+				try {
+					resource.save(null);
+				} catch (IOException e) {
+					Activator.log.error(e);
+				}
+			}
+			try {
+				serviceRegistry.disposeRegistry();
+			} catch (ServiceMultiException e) {
+				Activator.log.error(e);
+			}
+		}
+	}
+}
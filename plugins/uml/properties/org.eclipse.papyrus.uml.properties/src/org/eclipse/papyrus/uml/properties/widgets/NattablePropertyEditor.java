@@ -12,6 +12,7 @@
  *  Nicolas FAUVERGUE (CEA LIST) nicolas.fauvergue@cea.fr - Initial API and implementation, Bug 502160, 494531
  *  Christian W. Damus - bugs 493858, 493853, 516310, 517313
  *  Vincent Lorenzo (CEA-LIST) vincent.lorenzo@cea.fr - bugs 494537, 504745
+ *  Antonio Campesino (Ericsson) - pool of the configured tables
  *  
  *****************************************************************************/
 package org.eclipse.papyrus.uml.properties.widgets;
@@ -191,6 +192,11 @@ public class NattablePropertyEditor extends AbstractPropertyEditor {
 	 */
 	private boolean registerTableConfigurationByEClass = false;
 
+	/**
+	 * the key of the edited table in the {@link NattableModelManagerPool}
+	 */
+	private List<Object> poolKey = null;
+
 	/**
 	 * Constructor.
 	 *
@@ -375,12 +381,23 @@ public class NattablePropertyEditor extends AbstractPropertyEditor {
 	 * @since 2.0
 	 */
 	protected void createTableWidget(final EObject sourceElement, final EStructuralFeature feature, final Collection<?> rows) {
-		// 1. we initialize a service registry
+		// 1. we initialize a service registry, or reuse the one of a table previously configured for the same kind of element
+		NattableModelManagerPool.PooledTable pooledTable = null;
 		if (this.serviceRegistry == null) {
-			try {
-				this.serviceRegistry = createServiceRegistry(sourceElement);
-			} catch (Exception e) {
-				Activator.log.error(e);
+			this.poolKey = NattableModelManagerPool.getKey(getClass(), this.tableConfigURI, null == sourceElement ? null : sourceElement.eClass(), this.propertyPath);
+			pooledTable = NattableModelManagerPool.acquire(this.poolKey);
+			if (null != pooledTable) {
+				this.serviceRegistry = pooledTable.serviceRegistry;
+				this.resource = pooledTable.resource;
+				this.tableConfiguration = pooledTable.tableConfiguration;
+			} else {
+				// the table configuration must be loaded in the resource set of the new registry
+				this.tableConfiguration = null;
+				try {
+					this.serviceRegistry = createServiceRegistry(sourceElement);
+				} catch (Exception e) {
+					Activator.log.error(e);
+				}
 			}
 		}
 
@@ -397,7 +414,7 @@ public class NattablePropertyEditor extends AbstractPropertyEditor {
 		}
 
 		// 3. Create the table or get an existing one
-		this.table = getOrCreateTable(sourceElement, feature, rows);
+		this.table = null != pooledTable ? pooledTable.table : getOrCreateTable(sourceElement, feature, rows);
 
 		if (this.table == null) {
 			displayError("Cannot initialize the table"); //$NON-NLS-1$
@@ -412,7 +429,13 @@ public class NattablePropertyEditor extends AbstractPropertyEditor {
 			cc.append(addTableToResource(domain, this.resource, this.table));
 		}
 
-		// 4.2 we configure the table
+		// 4.2 we configure the table, a pooled table only gets its new context and its new rows
+		if (null != pooledTable) {
+			Command clearRowsCommand = getClearRowsCommand(domain, this.table);
+			if (null != clearRowsCommand) {
+				cc.append(clearRowsCommand);
+			}
+		}
 		configureTable(domain, this.table, sourceElement, feature, rows, cc);
 
 		if (!cc.canExecute()) {
@@ -984,24 +1007,60 @@ public class NattablePropertyEditor extends AbstractPropertyEditor {
 			if (null != this.natTableWidget) {
 				this.natTableWidget.dispose();
 			}
-			if (NattablePropertyEditor.this.resource != null) {
+			if (null != this.table && null != this.poolKey) {
+				// the pooled table keeps its context until it is reused, and is saved when the pool disposes it
+				NattableModelManagerPool.release(new NattableModelManagerPool.PooledTable(this.poolKey, this.serviceRegistry, this.resource, this.table, this.tableConfiguration),
+						getContextResourceSet(this.table));
+			} else {
+				if (NattablePropertyEditor.this.resource != null) {
+					try {
+						NattablePropertyEditor.this.resource.save(null);
+					} catch (IOException e1) {
+						Activator.log.error(e1);
+					}
+				}
 				try {
-					NattablePropertyEditor.this.resource.save(null);
-				} catch (IOException e1) {
+					NattablePropertyEditor.this.serviceRegistry.disposeRegistry();
+				} catch (ServiceMultiException e1) {
 					Activator.log.error(e1);
 				}
 			}
-			try {
-				NattablePropertyEditor.this.serviceRegistry.disposeRegistry();
-			} catch (ServiceMultiException e1) {
-				Activator.log.error(e1);
-			}
 			NattablePropertyEditor.this.serviceRegistry = null;
 			NattablePropertyEditor.this.table = null;
 
 		}
 	}
 
+	/**
+	 * 
+	 * @param domain
+	 *            the editing domain
+	 * @param table
+	 *            the table taken from the {@link NattableModelManagerPool}
+	 * @return
+	 * 		the command removing the rows created for the previous context of the table, or <code>null</code> if there is none
+	 */
+	private static Command getClearRowsCommand(final TransactionalEditingDomain domain, final Table table) {
+		// the rows of the tree tables are created for the context
+		if (null == table.getCurrentRowAxisProvider() || table.getCurrentRowAxisProvider().getAxis().isEmpty()) {
+			return null;
+		}
+		return SetCommand.create(domain, table.getCurrentRowAxisProvider(), NattableaxisproviderPackage.eINSTANCE.getAxisProvider_Axis(), Collections.emptyList());
+	}
+
+	/**
+	 * 
+	 * @param table
+	 *            the edited table
+	 * @return
+	 * 		the resource set of the edited model, i.e. of the context of the table, or <code>null</code>
+	 */
+	private static ResourceSet getContextResourceSet(final Table table) {
+		EObject context = table.getContext();
+		Resource contextResource = null != context ? context.eResource() : null;
+		return null != contextResource ? contextResource.getResourceSet() : null;
+	}
+
 	/**
 	 * 
 	 * @param domain
@@ -1056,6 +1115,7 @@ public class NattablePropertyEditor extends AbstractPropertyEditor {
 				@Override
 				public void dataSourceChanged(final DataSourceChangedEvent event) {
 					// bug 494537 - The diagram selection changed, but the property view has not been disposed
+					// The table is given back to the pool, for the new selection
 					disposeListener();
 					// Bug 492560: The self children control was not all disposed correclty
 					if (null != self) {
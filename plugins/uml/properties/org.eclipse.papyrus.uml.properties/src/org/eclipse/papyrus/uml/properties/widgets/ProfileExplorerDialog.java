@@ -25,6 +25,7 @@ import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.papyrus.uml.diagram.common.Activator;
 import org.eclipse.papyrus.uml.extensionpoints.profile.IRegisteredProfile;
 import org.eclipse.papyrus.uml.properties.messages.Messages;
+import org.eclipse.papyrus.uml.properties.widgets.StereotypeCatalog.ProfileDescriptor;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.uml2.uml.Profile;
 import org.eclipse.uml2.uml.Stereotype;
@@ -78,6 +79,26 @@ public class ProfileExplorerDialog extends StereotypeExplorerDialog {
 		return new ArrayList<>();
 	}
 
+	/**
+	 * Don't visualize stereotype so return void list.
+	 * 
+	 * @see org.eclipse.papyrus.uml.properties.widgets.StereotypeExplorerDialog#getStereotypes(org.eclipse.papyrus.uml.properties.widgets.StereotypeCatalog.ProfileDescriptor)
+	 */
+	@Override
+	protected List<?> getStereotypes(final ProfileDescriptor profile) {
+		return new ArrayList<>();
+	}
+
+	/**
+	 * Profiles have no children.
+	 * 
+	 * @see org.eclipse.papyrus.uml.properties.widgets.StereotypeExplorerDialog#hasStereotypes(java.lang.Object)
+	 */
+	@Override
+	protected boolean hasStereotypes(final Object profile) {
+		return false;
+	}
+
 	/**
 	 * Return the selected {@link Stereotype}.
 	 * {@inheritDoc}
@@ -85,6 +106,9 @@ public class ProfileExplorerDialog extends StereotypeExplorerDialog {
 	@Override
 	protected void computeResult() {
 		Object selectedElements = getSelectedElements();
+		if (selectedElements instanceof ProfileDescriptor) {
+			selectedElements = ((ProfileDescriptor) selectedElements).resolve(resourceSet);
+		}
 		if (selectedElements instanceof Profile | selectedElements instanceof IRegisteredProfile) {
 			setResult(Arrays.asList(selectedElements));
 		}
@@ -95,7 +119,7 @@ public class ProfileExplorerDialog extends StereotypeExplorerDialog {
 	 */
 	protected void refreshOkButton() {
 		Object selectedElements = getSelectedElements();
-		if (selectedElements instanceof Profile | selectedElements instanceof IRegisteredProfile) {
+		if (selectedElements instanceof Profile | selectedElements instanceof IRegisteredProfile | selectedElements instanceof ProfileDescriptor) {
 			updateStatus(new Status(IStatus.OK, Activator.ID, ""));//$NON-NLS-1$
 		} else {
 			updateStatus(new Status(IStatus.ERROR, Activator.ID, ""));//$NON-NLS-1$
@@ -0,0 +1,402 @@
+/*****************************************************************************
+ * Copyright (c) 2019 Telefonaktiebolaget LM Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *****************************************************************************/
+
+package org.eclipse.papyrus.uml.properties.widgets;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.papyrus.uml.properties.Activator;
+import org.eclipse.papyrus.uml.tools.utils.ProfileUtil;
+import org.eclipse.papyrus.uml.tools.utils.StereotypeUtil;
+import org.eclipse.uml2.uml.Profile;
+import org.eclipse.uml2.uml.Stereotype;
+import org.osgi.framework.Bundle;
+
+/**
+ * Catalogue of the stereotypes of the profiles, by profile URI, used by the {@link StereotypeExplorerDialog} to
+ * display and filter the stereotypes without loading the profiles.
+ * <P>
+ * The catalogue of a profile is built the first time it is requested, by loading the profile, and kept as long as
+ * the time stamp of its resource does not change. It is saved in the state location of the plug-in, so the profiles
+ * are only loaded again when they are modified. The profiles deployed in plug-ins are stamped with the last
+ * modification of their bundle. The profiles whose time stamp is unknown are catalogued once per session.
+ * </P>
+ */
+public class StereotypeCatalog {
+
+	/** Version of the file format, to be incremented when the format changes */
+	private static final int FORMAT_VERSION = 1;
+
+	/** The name of the file of the catalogue in the state location */
+	private static final String CATALOG_FILE = "stereotypeCatalog.dat"; //$NON-NLS-1$
+
+	/** Time stamp of the resources whose time stamp is unknown */
+	private static final long NO_TIME_STAMP = -1;
+
+	/** The shared instance */
+	private static StereotypeCatalog instance;
+
+	/** The catalogued profiles, by resource URI. The resources that are not profiles have a descriptor without name */
+	private final Map<URI, ProfileDescriptor> profiles = new HashMap<>();
+
+	/** true if the catalogue has been modified since it was saved */
+	private boolean dirty;
+
+	/**
+	 * Constructor (hidden: singleton instance).
+	 */
+	protected StereotypeCatalog() {
+	}
+
+	/**
+	 * Gets the shared catalogue, loading it from the state location the first time.
+	 */
+	public static synchronized StereotypeCatalog getInstance() {
+		if (null == instance) {
+			instance = new StereotypeCatalog();
+			instance.load();
+		}
+		return instance;
+	}
+
+	/**
+	 * Gets the catalogue of a profile, building it if the profile is not catalogued or has been modified.
+	 *
+	 * @param uri
+	 *            the URI of the profile resource.
+	 * @param resourceSet
+	 *            the resource set in which the profile is loaded if needed.
+	 * @return the catalogue of the profile, or <code>null</code> if the resource is not a profile or can not be loaded.
+	 */
+	public synchronized ProfileDescriptor getProfile(final URI uri, final ResourceSet resourceSet) {
+		URI resourceURI = uri.trimFragment();
+		long timeStamp = getTimeStamp(resourceURI, resourceSet);
+		ProfileDescriptor descriptor = profiles.get(resourceURI);
+		if (null == descriptor || descriptor.timeStamp != timeStamp) {
+			descriptor = build(resourceURI, timeStamp, resourceSet);
+			if (null == descriptor) {
+				return null;
+			}
+			profiles.put(resourceURI, descriptor);
+			dirty |= NO_TIME_STAMP != timeStamp;
+		}
+		return descriptor.isProfile() ? descriptor : null;
+	}
+
+	/**
+	 * Gets the catalogue of a profile if it is already catalogued and up to date, without loading the profile.
+	 *
+	 * @param uri
+	 *            the URI of the profile resource.
+	 * @param resourceSet
+	 *            the resource set used to get the time stamp of the resource.
+	 * @return the catalogue of the profile, or <code>null</code> if it has to be built or the resource is not a profile.
+	 */
+	public synchronized ProfileDescriptor getCachedProfile(final URI uri, final ResourceSet resourceSet) {
+		URI resourceURI = uri.trimFragment();
+		ProfileDescriptor descriptor = profiles.get(resourceURI);
+		if (null != descriptor && descriptor.isProfile() && descriptor.timeStamp == getTimeStamp(resourceURI, resourceSet)) {
+			return descriptor;
+		}
+		return null;
+	}
+
+	/**
+	 * Saves the catalogue in the state location of the plug-in, if it has been modified.
+	 */
+	public synchronized void save() {
+		File file = getFile();
+		if (!dirty || null == file) {
+			return;
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			List<ProfileDescriptor> persistent = new ArrayList<>();
+			for (ProfileDescriptor descriptor : profiles.values()) {
+				if (NO_TIME_STAMP != descriptor.timeStamp) {
+					persistent.add(descriptor);
+				}
+			}
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(persistent.size());
+			for (ProfileDescriptor descriptor : persistent) {
+				descriptor.write(out);
+			}
+			dirty = false;
+		} catch (IOException e) {
+			Activator.log.error(e);
+		}
+	}
+
+	/**
+	 * Loads the catalogue saved in the state location of the plug-in. An unreadable catalogue is ignored, and
+	 * built again.
+	 */
+	protected void load() {
+		File file = getFile();
+		if (null == file || !file.isFile()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (FORMAT_VERSION != in.readInt()) {
+				return;
+			}
+			for (int i = in.readInt(); i > 0; i--) {
+				ProfileDescriptor descriptor = ProfileDescriptor.read(in);
+				profiles.put(descriptor.uri, descriptor);
+			}
+		} catch (IOException | RuntimeException e) {
+			profiles.clear();
+			Activator.log.warn("Unreadable stereotype catalogue, it will be rebuilt: " + e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Builds the catalogue of a profile by loading it.
+	 */
+	protected ProfileDescriptor build(final URI uri, final long timeStamp, final ResourceSet resourceSet) {
+		Resource resource;
+		try {
+			resource = resourceSet.getResource(uri, true);
+		} catch (Exception e) {
+			Activator.log.error(e);
+			return null;
+		}
+		ProfileDescriptor descriptor = new ProfileDescriptor(uri, timeStamp);
+		if (null != resource && !resource.getContents().isEmpty() && resource.getContents().get(0) instanceof Profile) {
+			Profile profile = (Profile) resource.getContents().get(0);
+			descriptor.name = null == profile.getName() ? "" : profile.getName(); //$NON-NLS-1$
+			for (Stereotype stereotype : StereotypeUtil.getAllStereotypes(profile)) {
+				List<String> metaclasses = new ArrayList<>();
+				for (EClass eClass : ProfileUtil.getAllExtendedMetaclasses(stereotype, true)) {
+					metaclasses.add(eClass.getName());
+				}
+				descriptor.stereotypes.add(new StereotypeDescriptor(descriptor, stereotype.getName(), stereotype.getQualifiedName(), metaclasses));
+			}
+		}
+		return descriptor;
+	}
+
+	/**
+	 * Gets the time stamp of a resource, or {@link #NO_TIME_STAMP} if it is unknown. The URI handlers give no time stamp
+	 * to the resources of the plug-ins, e.g. the registered profiles: they are stamped with the last modification of their
+	 * bundle, which changes when the bundle is installed or updated.
+	 */
+	protected long getTimeStamp(final URI uri, final ResourceSet resourceSet) {
+		URIConverter converter = resourceSet.getURIConverter();
+		try {
+			Map<String, ?> attributes = converter.getAttributes(uri,
+					Collections.singletonMap(URIConverter.OPTION_REQUESTED_ATTRIBUTES, Collections.singleton(URIConverter.ATTRIBUTE_TIME_STAMP)));
+			Object timeStamp = attributes.get(URIConverter.ATTRIBUTE_TIME_STAMP);
+			if (timeStamp instanceof Long) {
+				return (Long) timeStamp;
+			}
+		} catch (RuntimeException e) {
+			// The time stamp is not supported by the URI handler
+		}
+		// The pathmaps of the registered profiles are normalized to plug-in URIs
+		URI normalized = converter.normalize(uri);
+		if (normalized.isPlatformPlugin()) {
+			Bundle bundle = Platform.getBundle(normalized.segment(1));
+			if (null != bundle) {
+				return bundle.getLastModified();
+			}
+		}
+		return NO_TIME_STAMP;
+	}
+
+	/**
+	 * Gets the file of the catalogue, or <code>null</code> if the plug-in has no state location.
+	 */
+	protected File getFile() {
+		try {
+			return null == Activator.getDefault() ? null : Activator.getDefault().getStateLocation().append(CATALOG_FILE).toFile();
+		} catch (IllegalStateException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * The catalogue of a profile.
+	 */
+	public static class ProfileDescriptor {
+
+		/** The URI of the profile resource. */
+		private final URI uri;
+
+		/** The time stamp of the resource when the catalogue was built. */
+		private final long timeStamp;
+
+		/** The name of the profile, <code>null</code> if the resource is not a profile. */
+		private String name;
+
+		/** All the stereotypes of the profile, including the ones of its nested packages. */
+		private final List<StereotypeDescriptor> stereotypes = new ArrayList<>();
+
+		/**
+		 * Constructor.
+		 */
+		ProfileDescriptor(final URI uri, final long timeStamp) {
+			this.uri = uri;
+			this.timeStamp = timeStamp;
+		}
+
+		public URI getURI() {
+			return uri;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public List<StereotypeDescriptor> getStereotypes() {
+			return Collections.unmodifiableList(stereotypes);
+		}
+
+		boolean isProfile() {
+			return null != name;
+		}
+
+		/**
+		 * Loads the profile in the given resource set.
+		 *
+		 * @return the profile, or <code>null</code> if it can not be loaded.
+		 */
+		public Profile resolve(final ResourceSet resourceSet) {
+			Resource resource = null;
+			try {
+				resource = resourceSet.getResource(uri, true);
+			} catch (Exception e) {
+				Activator.log.error(e);
+			}
+			if (null != resource && !resource.getContents().isEmpty() && resource.getContents().get(0) instanceof Profile) {
+				return (Profile) resource.getContents().get(0);
+			}
+			return null;
+		}
+
+		void write(final DataOutputStream out) throws IOException {
+			out.writeUTF(uri.toString());
+			out.writeLong(timeStamp);
+			out.writeBoolean(isProfile());
+			if (isProfile()) {
+				out.writeUTF(name);
+				out.writeInt(stereotypes.size());
+				for (StereotypeDescriptor stereotype : stereotypes) {
+					out.writeUTF(stereotype.name);
+					out.writeUTF(stereotype.qualifiedName);
+					out.writeInt(stereotype.extendedMetaclasses.size());
+					for (String metaclass : stereotype.extendedMetaclasses) {
+						out.writeUTF(metaclass);
+					}
+				}
+			}
+		}
+
+		static ProfileDescriptor read(final DataInputStream in) throws IOException {
+			ProfileDescriptor descriptor = new ProfileDescriptor(URI.createURI(in.readUTF()), in.readLong());
+			if (in.readBoolean()) {
+				descriptor.name = in.readUTF();
+				for (int i = in.readInt(); i > 0; i--) {
+					String name = in.readUTF();
+					String qualifiedName = in.readUTF();
+					List<String> metaclasses = new ArrayList<>();
+					for (int j = in.readInt(); j > 0; j--) {
+						metaclasses.add(in.readUTF());
+					}
+					descriptor.stereotypes.add(new StereotypeDescriptor(descriptor, name, qualifiedName, metaclasses));
+				}
+			}
+			return descriptor;
+		}
+	}
+
+	/**
+	 * The catalogue entry of a stereotype.
+	 */
+	public static class StereotypeDescriptor {
+
+		/** The profile of the stereotype. */
+		private final ProfileDescriptor profile;
+
+		/** The name of the stereotype. */
+		private final String name;
+
+		/** The qualified name of the stereotype. */
+		private final String qualifiedName;
+
+		/** The names of the metaclasses extended by the stereotype, including the inherited ones. */
+		private final List<String> extendedMetaclasses;
+
+		/**
+		 * Constructor.
+		 */
+		StereotypeDescriptor(final ProfileDescriptor profile, final String name, final String qualifiedName, final List<String> extendedMetaclasses) {
+			this.profile = profile;
+			this.name = null == name ? "" : name; //$NON-NLS-1$
+			this.qualifiedName = null == qualifiedName ? "" : qualifiedName; //$NON-NLS-1$
+			this.extendedMetaclasses = extendedMetaclasses;
+		}
+
+		public ProfileDescriptor getProfile() {
+			return profile;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getQualifiedName() {
+			return qualifiedName;
+		}
+
+		public List<String> getExtendedMetaclasses() {
+			return Collections.unmodifiableList(extendedMetaclasses);
+		}
+
+		/**
+		 * Loads the profile of the stereotype in the given resource set, and gets the stereotype.
+		 *
+		 * @return the stereotype, or <code>null</code> if it can not be found.
+		 */
+		public Stereotype resolve(final ResourceSet resourceSet) {
+			Profile umlProfile = profile.resolve(resourceSet);
+			if (null != umlProfile) {
+				for (Stereotype stereotype : StereotypeUtil.getAllStereotypes(umlProfile)) {
+					if (qualifiedName.equals(stereotype.getQualifiedName())) {
+						return stereotype;
+					}
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -17,8 +17,10 @@ package org.eclipse.papyrus.uml.properties.widgets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IStatus;
@@ -56,6 +58,8 @@ import org.eclipse.papyrus.uml.extensionpoints.profile.IRegisteredProfile;
 import org.eclipse.papyrus.uml.extensionpoints.profile.RegisteredProfile;
 import org.eclipse.papyrus.uml.profile.index.ProfileWorkspaceModelIndex;
 import org.eclipse.papyrus.uml.properties.messages.Messages;
+import org.eclipse.papyrus.uml.properties.widgets.StereotypeCatalog.ProfileDescriptor;
+import org.eclipse.papyrus.uml.properties.widgets.StereotypeCatalog.StereotypeDescriptor;
 import org.eclipse.papyrus.uml.tools.utils.ProfileUtil;
 import org.eclipse.papyrus.uml.tools.utils.StereotypeUtil;
 import org.eclipse.swt.SWT;
@@ -91,9 +95,13 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 
 	/**
 	 * Content provider to get all available stereotype(plugin and workspace).
+	 * The stereotypes are got from the {@link StereotypeCatalog}, and the children are computed once, when first needed.
 	 */
 	public class StereotypeListContentProvider extends AbstractStaticContentProvider implements ITreeContentProvider {
 
+		/** The children already computed, by parent element. */
+		private final Map<Object, Object[]> childrenCache = new HashMap<>();
+
 		/**
 		 * {@inheritDoc}
 		 * 
@@ -101,6 +109,18 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 		 */
 		@Override
 		public Object[] getChildren(final Object parentElement) {
+			Object[] children = childrenCache.get(parentElement);
+			if (null == children) {
+				children = computeChildren(parentElement).toArray();
+				childrenCache.put(parentElement, children);
+			}
+			return children;
+		}
+
+		/**
+		 * Computes the children of an element.
+		 */
+		protected List<Object> computeChildren(final Object parentElement) {
 			List<Object> children = new ArrayList<>();
 
 			// Separator case
@@ -108,22 +128,21 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 				if (Messages.StereotypeExplorerDialog_PluginContributionSeparatorLabel.equals(parentElement)) {
 					children.addAll(registeredProfiles);
 				} else if (Messages.StereotypeExplorerDialog_WokspaceContributionSeparator.equals(parentElement)) {
-					children.addAll(getWorkspaceProfiles());
+					children.addAll(getWorkspaceProfileDescriptors());
 				}
-			} else {
+			} else if (parentElement instanceof IRegisteredProfile) {
 				// Profile cases
-				Profile profile = null;
-				if (parentElement instanceof IRegisteredProfile) {
-					profile = getProfile((IRegisteredProfile) parentElement);
-				} else if (parentElement instanceof Profile) {
-					profile = (Profile) parentElement;
-				}
-				if (null != profile) {
-					children.addAll(getAllStereotypes(profile));
+				ProfileDescriptor descriptor = StereotypeCatalog.getInstance().getProfile(((IRegisteredProfile) parentElement).getUri(), resourceSet);
+				if (null != descriptor) {
+					children.addAll(getStereotypes(descriptor));
 				}
+			} else if (parentElement instanceof ProfileDescriptor) {
+				children.addAll(getStereotypes((ProfileDescriptor) parentElement));
+			} else if (parentElement instanceof Profile) {
+				children.addAll(getAllStereotypes((Profile) parentElement));
 			}
 
-			return children.toArray();
+			return children;
 		}
 
 		/**
@@ -155,6 +174,16 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 		 */
 		@Override
 		public boolean hasChildren(final Object element) {
+			Object[] children = childrenCache.get(element);
+			if (null != children) {
+				return 0 != children.length;
+			}
+			// Do not catalogue the profiles before they are expanded
+			if (element instanceof String) {
+				return true;
+			} else if (element instanceof IRegisteredProfile || element instanceof ProfileDescriptor) {
+				return hasStereotypes(element);
+			}
 			return 0 != getChildren(element).length;
 		}
 	}
@@ -207,9 +236,9 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 				if (null == image) {
 					image = Activator.getImage(ICONS_PROFILE_GIF);
 				}
-			} else if (element instanceof Stereotype) {
+			} else if (element instanceof Stereotype || element instanceof StereotypeDescriptor) {
 				image = Activator.getImage(ICONS_STEREOTYPE_GIF);
-			} else if (element instanceof Profile) {
+			} else if (element instanceof Profile || element instanceof ProfileDescriptor) {
 				image = Activator.getImage(ICONS_PROFILE_GIF);
 			}
 			return image;
@@ -229,6 +258,10 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 				label = ((Stereotype) element).getName();
 			} else if (element instanceof Profile) {
 				label = new StringBuilder(((Profile) element).getName()).toString();
+			} else if (element instanceof StereotypeDescriptor) {
+				label = ((StereotypeDescriptor) element).getName();
+			} else if (element instanceof ProfileDescriptor) {
+				label = ((ProfileDescriptor) element).getName();
 			} else if (element instanceof String) {
 				label = "------ " + element + " -----";//$NON-NLS-1$ //$NON-NLS-2$
 			}
@@ -267,6 +300,15 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 				String path = new StringBuilder(" - ")//$NON-NLS-1$
 						.append(((Stereotype) element).getQualifiedName()).toString();
 				styledString.append(path, StyledString.QUALIFIER_STYLER);
+			} else if (element instanceof ProfileDescriptor) {
+				URI uri = ((ProfileDescriptor) element).getURI();
+				String path = new StringBuilder(" - ")//$NON-NLS-1$
+						.append(uri.isPlatform() ? uri.toPlatformString(true).substring(1) : uri.toString()).toString();
+				styledString.append(path, StyledString.QUALIFIER_STYLER);
+			} else if (element instanceof StereotypeDescriptor) {
+				String path = new StringBuilder(" - ")//$NON-NLS-1$
+						.append(((StereotypeDescriptor) element).getQualifiedName()).toString();
+				styledString.append(path, StyledString.QUALIFIER_STYLER);
 			}
 			return styledString;
 		}
@@ -328,6 +370,7 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 	 */
 	@Override
 	public boolean close() {
+		StereotypeCatalog.getInstance().save();
 		for (Resource resource : resourceSet.getResources()) {
 			if (resource.isLoaded()) {
 				resource.unload();
@@ -343,6 +386,9 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 	@Override
 	protected void computeResult() {
 		Object selectedElements = getSelectedElements();
+		if (selectedElements instanceof StereotypeDescriptor) {
+			selectedElements = ((StereotypeDescriptor) selectedElements).resolve(resourceSet);
+		}
 		if (selectedElements instanceof Stereotype) {
 			setResult(Arrays.asList((Stereotype) selectedElements));
 		}
@@ -452,7 +498,8 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 				for (Object profile : profiles) {
 					Object[] stereotypes = contentProvider.getChildren(profile);
 					for (Object stereotype : stereotypes) {
-						if (stereotype instanceof Stereotype && initialValue.equals(((Stereotype) stereotype).getQualifiedName())) {
+						if (stereotype instanceof StereotypeDescriptor && initialValue.equals(((StereotypeDescriptor) stereotype).getQualifiedName())
+								|| stereotype instanceof Stereotype && initialValue.equals(((Stereotype) stereotype).getQualifiedName())) {
 							stereotypeTreeViewer.expandToLevel(profile, 1);
 							stereotypeTreeViewer.setSelection(new StructuredSelection(stereotype), true);
 							break;
@@ -677,12 +724,47 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 		return profiles;
 	}
 
+	/**
+	 * Gets the catalogues of all workspace profiles, loading only the profiles not catalogued yet.
+	 */
+	protected Collection<ProfileDescriptor> getWorkspaceProfileDescriptors() {
+		Collection<ProfileDescriptor> profiles = new ArrayList<>();
+		for (URI uri : ProfileWorkspaceModelIndex.getInstance().getWorkspaceProfilesURIs()) {
+			ProfileDescriptor descriptor = StereotypeCatalog.getInstance().getProfile(uri, resourceSet);
+			if (null != descriptor) {
+				profiles.add(descriptor);
+			}
+		}
+		return profiles;
+	}
+
+	/**
+	 * Gets the stereotypes to display of a catalogued profile.
+	 */
+	protected List<?> getStereotypes(final ProfileDescriptor profile) {
+		return profile.getStereotypes();
+	}
+
+	/**
+	 * Returns true if a profile element may have stereotypes to display, without loading it.
+	 */
+	protected boolean hasStereotypes(final Object profile) {
+		ProfileDescriptor descriptor = null;
+		if (profile instanceof ProfileDescriptor) {
+			descriptor = (ProfileDescriptor) profile;
+		} else if (profile instanceof IRegisteredProfile) {
+			descriptor = StereotypeCatalog.getInstance().getCachedProfile(((IRegisteredProfile) profile).getUri(), resourceSet);
+		}
+		// Not catalogued yet: it is known when expanded
+		return null == descriptor || !getStereotypes(descriptor).isEmpty();
+	}
+
 	/**
 	 * Refresh the Ok button according to the selection.
 	 */
 	protected void refreshOkButton() {
 		Object selectedElements = getSelectedElements();
-		if (selectedElements instanceof Stereotype) {
+		if (selectedElements instanceof Stereotype || selectedElements instanceof StereotypeDescriptor) {
 			updateStatus(new Status(IStatus.OK, Activator.ID, ""));//$NON-NLS-1$
 		} else {
 			updateStatus(new Status(IStatus.ERROR, Activator.ID, ""));//$NON-NLS-1$
@@ -696,6 +778,13 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 		Object selectedElements = getSelectedElements();
 		String label = "";//$NON-NLS-1$
 
+		// The comments are in the profile
+		if (selectedElements instanceof StereotypeDescriptor) {
+			selectedElements = ((StereotypeDescriptor) selectedElements).resolve(resourceSet);
+		} else if (selectedElements instanceof ProfileDescriptor) {
+			selectedElements = ((ProfileDescriptor) selectedElements).resolve(resourceSet);
+		}
+
 		if (selectedElements instanceof Stereotype) {
 			EList<Comment> comments = ((Element) ((Stereotype) selectedElements).getProfile()).getOwnedComments();
 			// Carrier return used if many comments.
@@ -744,13 +833,15 @@ public class StereotypeExplorerDialog extends SelectionStatusDialog {
 	 */
 	protected boolean isVisible(final Object element) {
 		boolean visible = true;
-		if (element instanceof IRegisteredProfile | element instanceof Profile | element instanceof String) {
+		if (element instanceof IRegisteredProfile | element instanceof Profile | element instanceof ProfileDescriptor | element instanceof String) {
 			visible = false;
 		} else if (element instanceof String) {
 			visible = true;
 		} else if (onlyApplicableStereotypes && element instanceof Stereotype && sourceUMLElement instanceof Element) {
 			// Check if the source uml element is applicable to the stereotype.
 			visible = isApplicableToSourceElement((Stereotype) element);
+		} else if (onlyApplicableStereotypes && element instanceof StereotypeDescriptor && sourceUMLElement instanceof Element) {
+			visible = ((StereotypeDescriptor) element).getExtendedMetaclasses().contains(sourceUMLElement.eClass().getName());
 		}
 		return visible;
 	}
@@ -0,0 +1,173 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.infra.gmfdiag.common.service.shape;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gmf.runtime.draw2d.ui.render.RenderedImage;
+import org.eclipse.gmf.runtime.notation.BasicCompartment;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.NotationFactory;
+import org.eclipse.gmf.runtime.notation.StringValueStyle;
+import org.eclipse.papyrus.infra.gmfdiag.common.editpart.ShapeDisplayCompartmentEditPart;
+import org.eclipse.swt.widgets.Display;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncShapeLoaderTest {
+
+	private static final long TIMEOUT = 10000;
+
+	@Before
+	public void setUp() {
+		display = Display.getCurrent();
+		accepted = new ArrayList<>();
+	}
+
+	@Test
+	public void test_CallbackCalled() {
+		List<RenderedImage> shapes = Collections.emptyList();
+		AsyncShapeLoader.getInstance().load(() -> shapes, display, accepted::add);
+
+		dispatchUntil(() -> !accepted.isEmpty());
+		assertEquals(1, accepted.size());
+		assertSame(shapes, accepted.get(0));
+	}
+
+	@Test
+	public void test_CallbackDroppedWhenCancelledWhileLoading() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch finished = new CountDownLatch(1);
+		Future<?> loading = AsyncShapeLoader.getInstance().load(() -> {
+			started.countDown();
+			try {
+				release.await(TIMEOUT, TimeUnit.MILLISECONDS);
+				return Collections.<RenderedImage> emptyList();
+			} finally {
+				finished.countDown();
+			}
+		}, display, accepted::add);
+
+		assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+		loading.cancel(false);
+		release.countDown();
+		assertTrue(finished.await(TIMEOUT, TimeUnit.MILLISECONDS));
+
+		flushDisplay();
+		assertTrue(accepted.isEmpty());
+	}
+
+	@Test
+	public void test_CallbackDroppedWhenCancelledAfterLoading() throws Exception {
+		Future<?> loading = AsyncShapeLoader.getInstance().load(() -> Collections.<RenderedImage> emptyList(), display, accepted::add);
+
+		// The shapes are computed, and their callback is posted to the display thread
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (!loading.isDone() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(loading.isDone());
+		loading.cancel(false);
+
+		flushDisplay();
+		assertTrue(accepted.isEmpty());
+	}
+
+	@Test
+	public void test_EditPartDropsCancelledShapes() {
+		Node view = NotationFactory.eINSTANCE.createShape();
+		StringValueStyle svgFile = NotationFactory.eINSTANCE.createStringValueStyle();
+		svgFile.setName("svgFile");
+		svgFile.setStringValue("platform:/plugin/org.eclipse.papyrus.infra.gmfdiag.common/icons/symbols/cross.svg");
+		view.getStyles().add(svgFile);
+		BasicCompartment compartment = NotationFactory.eINSTANCE.createBasicCompartment();
+		view.insertChild(compartment);
+		TestCompartmentEditPart editPart = new TestCompartmentEditPart(compartment);
+		IFigure contentPane = new Figure();
+
+		// Only the placeholder is displayed while the shapes are loading
+		editPart.refreshShapes(contentPane);
+		assertEquals(1, contentPane.getChildren().size());
+		IFigure placeholder = (IFigure) contentPane.getChildren().get(0);
+
+		editPart.cancelShapesLoading();
+		// Once cancelled, the loading either posts nothing or posts before the later request completes
+		Future<?> next = AsyncShapeLoader.getInstance().load(() -> Collections.<RenderedImage> emptyList(), display, accepted::add);
+		dispatchUntil(() -> next.isDone() && !accepted.isEmpty());
+
+		assertFalse(accepted.isEmpty());
+		assertEquals(Collections.singletonList(placeholder), contentPane.getChildren());
+	}
+
+	/**
+	 * Runs the pending events of the display, including the callbacks posted before this call.
+	 */
+	private void flushDisplay() {
+		boolean[] flushed = { false };
+		display.asyncExec(() -> flushed[0] = true);
+		dispatchUntil(() -> flushed[0]);
+	}
+
+	private void dispatchUntil(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			if (!display.readAndDispatch()) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Opens the loading of the shapes to the test.
+	 */
+	private static class TestCompartmentEditPart extends ShapeDisplayCompartmentEditPart {
+
+		public TestCompartmentEditPart(EObject model) {
+			super(model);
+		}
+
+		@Override
+		public void refreshShapes(IFigure contentPane) {
+			super.refreshShapes(contentPane);
+		}
+
+		@Override
+		public void cancelShapesLoading() {
+			super.cancelShapesLoading();
+		}
+	}
+
+	private Display display;
+	private List<List<RenderedImage>> accepted;
+}
@@ -0,0 +1,118 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.infra.gmfdiag.common.service.shape;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.transaction.RecordingCommand;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.gmf.runtime.diagram.core.listener.DiagramEventBroker;
+import org.eclipse.gmf.runtime.draw2d.ui.render.RenderedImage;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.NotationFactory;
+import org.eclipse.gmf.runtime.notation.StringValueStyle;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.svg.SVGDocument;
+
+public class ShapeServiceTest {
+
+	private static final String CROSS = "platform:/plugin/org.eclipse.papyrus.infra.gmfdiag.common/icons/symbols/cross.svg";
+	private static final String DIAMOND = "platform:/plugin/org.eclipse.papyrus.infra.gmfdiag.common/icons/symbols/diamond.svg";
+
+	@Before
+	public void setUp() {
+		domain = TransactionalEditingDomain.Factory.INSTANCE.createEditingDomain();
+		execute(() -> {
+			Resource resource = new ResourceImpl(URI.createURI("test.notation"));
+			domain.getResourceSet().getResources().add(resource);
+			view = NotationFactory.eINSTANCE.createShape();
+			svgFile = NotationFactory.eINSTANCE.createStringValueStyle();
+			svgFile.setName("svgFile");
+			svgFile.setStringValue(CROSS);
+			view.getStyles().add(svgFile);
+			resource.getContents().add(view);
+		});
+		DiagramEventBroker.startListening(domain);
+		manager = ShapeService.getInstance().createNotificationManager(
+				DiagramEventBroker.getInstance(domain), view, notification -> notifications++);
+	}
+
+	@After
+	public void tearDown() {
+		manager.dispose();
+		DiagramEventBroker.stopListening(domain);
+		domain.dispose();
+	}
+
+	@Test
+	public void test_SvgFileChangeInvalidatesShapes() {
+		ShapeService service = ShapeService.getInstance();
+		List<RenderedImage> cross = service.getShapesToDisplay(view);
+		assertFalse(cross.isEmpty());
+		assertTrue(svgFiles(service).contains(CROSS));
+		assertTrue(service.hasCachedShapes(view));
+
+		execute(() -> svgFile.setStringValue(DIAMOND));
+
+		assertTrue(notifications > 0);
+		assertFalse(service.hasCachedShapes(view));
+		List<RenderedImage> diamond = service.getShapesToDisplay(view);
+		assertFalse(diamond.isEmpty());
+		assertNotEquals(cross, diamond);
+		assertTrue(svgFiles(service).contains(DIAMOND));
+		assertFalse(svgFiles(service).contains(CROSS));
+	}
+
+	@Test
+	public void test_OtherChangesKeepShapes() {
+		ShapeService service = ShapeService.getInstance();
+		List<RenderedImage> cross = service.getShapesToDisplay(view);
+
+		execute(() -> view.setVisible(false));
+
+		assertEquals(0, notifications);
+		assertTrue(service.hasCachedShapes(view));
+		assertEquals(cross, service.getShapesToDisplay(view));
+	}
+
+	private List<String> svgFiles(ShapeService service) {
+		return service.getSVGDocumentToDisplay(view).stream().map(SVGDocument::getURL).collect(Collectors.toList());
+	}
+
+	private void execute(Runnable change) {
+		domain.getCommandStack().execute(new RecordingCommand(domain) {
+			@Override
+			protected void doExecute() {
+				change.run();
+			}
+		});
+	}
+
+	private TransactionalEditingDomain domain;
+	private Node view;
+	private StringValueStyle svgFile;
+	private NotificationManager manager;
+	private int notifications;
+}
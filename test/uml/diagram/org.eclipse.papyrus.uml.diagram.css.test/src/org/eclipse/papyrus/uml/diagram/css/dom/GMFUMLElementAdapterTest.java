@@ -0,0 +1,167 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.css.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.NotationFactory;
+import org.eclipse.gmf.runtime.notation.View;
+import org.eclipse.uml2.uml.Class;
+import org.eclipse.uml2.uml.Connector;
+import org.eclipse.uml2.uml.Model;
+import org.eclipse.uml2.uml.Profile;
+import org.eclipse.uml2.uml.Property;
+import org.eclipse.uml2.uml.Stereotype;
+import org.eclipse.uml2.uml.Type;
+import org.eclipse.uml2.uml.UMLFactory;
+import org.eclipse.uml2.uml.UMLPackage;
+import org.eclipse.uml2.uml.resource.UMLResource;
+import org.eclipse.uml2.uml.util.UMLUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GMFUMLElementAdapterTest {
+
+	@Before
+	public void setUp() {
+		resourceSet = new ResourceSetImpl();
+		model = UMLFactory.eINSTANCE.createModel();
+		model.setName("Model");
+		resource("test.uml").getContents().add(model);
+		diagram = NotationFactory.eINSTANCE.createDiagram();
+		diagram.setElement(model);
+		resource("test.notation").getContents().add(diagram);
+	}
+
+	@Test
+	public void test_StereotypePropertiesInvalidated() {
+		Stereotype stereotype = stereotype();
+		Class element = model.createOwnedClass("Element", false);
+		Class target = model.createOwnedClass("Target", false);
+		element.applyStereotype(stereotype);
+		element.setValue(stereotype, "label", "first");
+		element.setValue(stereotype, "target", target);
+		GMFUMLElementAdapter adapter = new GMFUMLElementAdapter(node(diagram, element), null);
+
+		assertEquals("first", adapter.getAttribute("label"));
+		assertEquals("Target", adapter.getAttribute("target"));
+		assertEquals("first", adapter.getAttribute("label"));
+
+		// A change of the stereotype application.
+		element.setValue(stereotype, "label", "second");
+		assertEquals("second", adapter.getAttribute("label"));
+
+		// A change of the referenced element, which is not tracked.
+		target.setName("Renamed");
+		assertEquals("Renamed", adapter.getAttribute("target"));
+	}
+
+	@Test
+	public void test_ConnectorEndTypeNotCached() {
+		Class type = model.createOwnedClass("Type", false);
+		Class other = model.createOwnedClass("Other", false);
+		Class owner = model.createOwnedClass("Owner", false);
+		Property role1 = owner.createOwnedAttribute("role1", type);
+		Property role2 = owner.createOwnedAttribute("role2", type);
+		Connector connector = owner.createOwnedConnector("connector");
+		connector.createEnd().setRole(role1);
+		connector.createEnd().setRole(role2);
+		GMFUMLElementAdapter adapter = new GMFUMLElementAdapter(node(diagram, connector), null);
+
+		assertEquals("Type", adapter.getAttribute("connectorEndType"));
+		role2.setType(other);
+		assertFalse("Type".equals(adapter.getAttribute("connectorEndType")));
+	}
+
+	@Test
+	public void test_FrameNotCached() {
+		Class element = model.createOwnedClass("Element", false);
+		Node view = node(diagram, element);
+		GMFUMLElementAdapter adapter = new GMFUMLElementAdapter(view, null);
+
+		assertEquals("true", adapter.getAttribute(GMFUMLElementAdapter.IS_FRAME));
+		node(diagram, model).insertChild(view);
+		assertEquals("false", adapter.getAttribute(GMFUMLElementAdapter.IS_FRAME));
+	}
+
+	@Test
+	public void test_ChangeStampsRemovedOnDispose() {
+		Stereotype stereotype = stereotype();
+		Class element = model.createOwnedClass("Element", false);
+		EObject application = element.applyStereotype(stereotype);
+		element.setValue(stereotype, "label", "first");
+		int elementAdapters = element.eAdapters().size();
+		int applicationAdapters = application.eAdapters().size();
+
+		GMFUMLElementAdapter adapter1 = new GMFUMLElementAdapter(node(diagram, element), null);
+		GMFUMLElementAdapter adapter2 = new GMFUMLElementAdapter(node(diagram, element), null);
+		assertEquals("first", adapter1.getAttribute("label"));
+		assertEquals("first", adapter2.getAttribute("label"));
+
+		// The change stamps are shared, the remaining adapter is still invalidated.
+		adapter1.dispose();
+		element.setValue(stereotype, "label", "second");
+		assertEquals("second", adapter2.getAttribute("label"));
+
+		adapter2.dispose();
+		assertEquals(elementAdapters, element.eAdapters().size());
+		assertEquals(applicationAdapters, application.eAdapters().size());
+	}
+
+	private Stereotype stereotype() {
+		Model metamodel = UMLUtil.load(resourceSet, URI.createURI(UMLResource.UML_METAMODEL_URI), UMLPackage.Literals.MODEL);
+		Class metaclass = (Class) metamodel.getOwnedType("Class");
+		org.eclipse.uml2.uml.Package primitiveTypes = UMLUtil.load(resourceSet,
+				URI.createURI(UMLResource.UML_PRIMITIVE_TYPES_LIBRARY_URI), UMLPackage.Literals.PACKAGE);
+		Type string = primitiveTypes.getOwnedType("String");
+
+		Profile profile = UMLFactory.eINSTANCE.createProfile();
+		profile.setName("Profile");
+		resource("test.profile.uml").getContents().add(profile);
+		profile.createMetaclassReference(metaclass);
+		Stereotype stereotype = profile.createOwnedStereotype("Stereotype", false);
+		stereotype.createExtension(metaclass, false);
+		stereotype.createOwnedAttribute("label", string);
+		stereotype.createOwnedAttribute("target", metaclass);
+		profile.define();
+		model.applyProfile(profile);
+		return stereotype;
+	}
+
+	private Resource resource(String uri) {
+		Resource resource = new ResourceImpl(URI.createURI(uri));
+		resourceSet.getResources().add(resource);
+		return resource;
+	}
+
+	private static Node node(View parent, EObject element) {
+		Node node = NotationFactory.eINSTANCE.createNode();
+		node.setElement(element);
+		parent.insertChild(node);
+		return node;
+	}
+
+	private ResourceSet resourceSet;
+	private Model model;
+	private Diagram diagram;
+}
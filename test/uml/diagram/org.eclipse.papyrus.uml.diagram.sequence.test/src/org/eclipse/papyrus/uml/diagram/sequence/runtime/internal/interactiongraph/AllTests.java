@@ -13,12 +13,15 @@
  *****************************************************************************/
 package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
 
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands.RepositionEListCommandTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ InteractionGraphTest.class, InteractionUseTest.class })
+@SuiteClasses({ InteractionGraphTest.class, InteractionUseTest.class, SlotListTest.class, NodeIntervalTreeTest.class, RepositionEListCommandTest.class, ViewIndexTest.class, HeadlessInteractionGraphTest.class, InteractionDiagramRepairTest.class, NodePartialOrderTest.class,
+		DeferredLayoutTest.class, InteractionLayoutStageTest.class, InteractionGraphStatisticsTest.class, InteractionGraphSnapshotTest.class,
+		ClusterChildrenBoundsTest.class, MoveNodeBlocksTest.class, InteractionGraphDragFeedbackTest.class })
 public class AllTests {
 
 }
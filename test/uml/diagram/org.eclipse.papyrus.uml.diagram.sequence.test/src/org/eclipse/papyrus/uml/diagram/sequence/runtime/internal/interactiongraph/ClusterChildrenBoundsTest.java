@@ -0,0 +1,61 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.HeadlessInteraction;
+import org.eclipse.uml2.uml.UMLFactory;
+import org.junit.Test;
+
+public class ClusterChildrenBoundsTest {
+
+	@Test
+	public void test_ChildBoundsModifiedInPlace() {
+		HeadlessInteraction headless = new HeadlessInteraction();
+		InteractionGraphImpl graph = headless.createGraph();
+		graph.layout();
+		graph.disableLayout();
+		ClusterImpl lifelineCluster = (ClusterImpl) graph.getLifeline(headless.getLifeline1());
+		ClusterImpl group = new ClusterImpl(UMLFactory.eINSTANCE.createComment());
+		NodeImpl first = new NodeImpl(null);
+		first.setBounds(new Rectangle(60, 100, 0, 0));
+		NodeImpl second = new NodeImpl(null);
+		second.setBounds(new Rectangle(60, 200, 0, 0));
+		lifelineCluster.addNode(group);
+		group.addNode(first);
+		group.addNode(second);
+		assertEquals(new Rectangle(60, 100, 0, 100), group.getChildrenBounds());
+		assertNull(lifelineCluster.getNodeAtVerticalPos(250));
+
+		NodeUtilities.nudgeNodes(Arrays.asList(first, second), 0, 100);
+		assertEquals(new Rectangle(60, 200, 0, 100), group.getChildrenBounds());
+		assertEquals(new Rectangle(60, 200, 0, 100), lifelineCluster.getChildrenBounds());
+		assertSame(group, lifelineCluster.getNodeAtVerticalPos(250));
+		assertNull(lifelineCluster.getNodeAtVerticalPos(150));
+
+		second.getBounds().y += 100;
+		second.setBounds(second.getBounds());
+		assertEquals(new Rectangle(60, 200, 0, 200), group.getChildrenBounds());
+		assertEquals(new Rectangle(60, 200, 0, 200), lifelineCluster.getChildrenBounds());
+		assertSame(second, group.getNodeAtVerticalPos(400));
+		assertSame(group, lifelineCluster.getNodeAtVerticalPos(350));
+		graph.enableLayout();
+	}
+}
@@ -0,0 +1,163 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.eclipse.papyrus.infra.emf.gmf.command.GMFtoEMFCommandWrapper;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraphFactory;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands.InteractionGraphCommand;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.HeadlessInteraction;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.SyntheticInteraction;
+import org.eclipse.uml2.uml.Lifeline;
+import org.eclipse.uml2.uml.Message;
+import org.eclipse.uml2.uml.UMLFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeferredLayoutTest {
+
+	@Before
+	public void setUp() {
+		headless = new HeadlessInteraction();
+		lifeline1 = headless.getLifeline1();
+	}
+
+	@Test
+	public void test_DeferredLayoutsAreCoalesced() {
+		InteractionGraphImpl graph = headless.createGraph();
+		int count = graph.getLayoutCount();
+
+		graph.beginDeferredLayout();
+		graph.layout();
+		graph.layout();
+		graph.beginDeferredLayout();
+		graph.layout();
+		graph.endDeferredLayout();
+		assertEquals(count, graph.getLayoutCount());
+		graph.endDeferredLayout();
+		assertEquals(count + 1, graph.getLayoutCount());
+
+		// Reading the grid runs the pending layout.
+		graph.beginDeferredLayout();
+		graph.layout();
+		graph.getRows();
+		assertEquals(count + 2, graph.getLayoutCount());
+		graph.getLifelineClusters().get(0).getBounds();
+		assertEquals(count + 2, graph.getLayoutCount());
+		graph.layout();
+		graph.getLifelineClusters().get(0).getBounds();
+		assertEquals(count + 3, graph.getLayoutCount());
+		graph.endDeferredLayout();
+		assertEquals(count + 3, graph.getLayoutCount());
+
+		graph.layout();
+		assertEquals(count + 4, graph.getLayoutCount());
+	}
+
+	@Test
+	public void test_DeferredLayoutFlushedOnReads() {
+		InteractionGraphImpl graph = headless.createGraph();
+		RowImpl row = (RowImpl) graph.getRows().get(0);
+		ColumnImpl column = (ColumnImpl) graph.getColumns().get(0);
+		int count = graph.getLayoutCount();
+
+		graph.beginDeferredLayout();
+		List<Consumer<InteractionGraphImpl>> reads = Arrays.asList(
+				g -> g.getOrderedNodes(),
+				g -> g.getLifeline(lifeline1).getNodes(),
+				g -> g.getLifeline(lifeline1).getAllNodes(),
+				g -> row.getYPosition(),
+				g -> column.getXPosition());
+		for (Consumer<InteractionGraphImpl> read : reads) {
+			graph.layout();
+			read.accept(graph);
+			assertEquals(++count, graph.getLayoutCount());
+		}
+
+		// The layout of a failed action is dropped.
+		graph.layout();
+		graph.cancelDeferredLayout();
+		assertEquals(count, graph.getLayoutCount());
+		graph.getRows();
+		assertEquals(count, graph.getLayoutCount());
+	}
+
+	@Test
+	public void test_MultiActionCommandLayouts() {
+		SyntheticInteraction synthetic = SyntheticInteraction.generate(2, 8);
+		try {
+			List<Message> messages = synthetic.getMessages();
+			List<Message> deleted = Arrays.asList(messages.get(1), messages.get(3), messages.get(5));
+
+			// The same actions applied one by one, without deferral.
+			InteractionGraphImpl graph = createGraph(synthetic);
+			InteractionGraphService service = new InteractionGraphService(graph, synthetic.getEditingDomain());
+			int count = graph.getLayoutCount();
+			deleted.forEach(service::deleteMessage);
+			int serviceLayouts = graph.getLayoutCount() - count;
+
+			graph = createGraph(synthetic);
+			InteractionGraphCommand command = new InteractionGraphCommand(synthetic.getEditingDomain(), "Delete messages",
+					graph, null);
+			deleted.forEach(command::deleteMessage);
+			count = graph.getLayoutCount();
+			synthetic.getEditingDomain().getCommandStack().execute(new GMFtoEMFCommandWrapper(command));
+			int commandLayouts = graph.getLayoutCount() - count;
+
+			assertTrue(command.getCommandResult().getStatus().isOK());
+			deleted.forEach(d -> assertFalse(synthetic.getInteraction().getMessages().contains(d)));
+			assertTrue(String.format("%d layouts in the command, %d without deferral", commandLayouts, serviceLayouts),
+					commandLayouts < serviceLayouts);
+		} finally {
+			synthetic.dispose();
+		}
+	}
+
+	@Test
+	public void test_InteractionGraphOfMovedNode() {
+		InteractionGraphImpl graph = headless.createGraph();
+		graph.disableLayout();
+		ClusterImpl group = new ClusterImpl(UMLFactory.eINSTANCE.createComment());
+		NodeImpl node = new NodeImpl(null);
+		group.addNode(node);
+		assertNull(node.getInteractionGraph());
+
+		graph.getLifeline(lifeline1).addNode(group);
+		assertSame(graph, node.getInteractionGraph());
+
+		graph.getLifeline(lifeline1).removeNode(group);
+		assertNull(node.getInteractionGraph());
+		graph.enableLayout();
+	}
+
+	private static InteractionGraphImpl createGraph(SyntheticInteraction synthetic) {
+		InteractionGraphImpl graph = (InteractionGraphImpl) InteractionGraphFactory.getInstance().createInteractionGraph(
+				synthetic.getInteraction(), synthetic.getDiagram(), synthetic.getViewer());
+		// As in the cache, so the command does not rebuild the graph before applying the actions.
+		graph.setTracked(true);
+		return graph;
+	}
+
+	private HeadlessInteraction headless;
+	private Lifeline lifeline1;
+}
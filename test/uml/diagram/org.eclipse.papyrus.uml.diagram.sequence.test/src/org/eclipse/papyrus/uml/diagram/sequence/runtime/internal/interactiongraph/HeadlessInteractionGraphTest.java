@@ -0,0 +1,112 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.gmf.runtime.notation.Bounds;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Cluster;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraph;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraphFactory;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.HeadlessInteraction;
+import org.eclipse.uml2.uml.ExecutionOccurrenceSpecification;
+import org.eclipse.uml2.uml.ExecutionSpecification;
+import org.eclipse.uml2.uml.Lifeline;
+import org.eclipse.uml2.uml.Message;
+import org.eclipse.uml2.uml.UMLPackage;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HeadlessInteractionGraphTest {
+
+	@Before
+	public void setUp() {
+		headless = new HeadlessInteraction();
+	}
+
+	@Test
+	public void test_LifelinesBoundsFromNotation() {
+		Node lifelineView1 = headless.getLifelineView1();
+		Node lifelineView2 = headless.getLifelineView2();
+		((Bounds) lifelineView1.getLayoutConstraint()).setWidth(-1);
+		((Bounds) lifelineView2.getLayoutConstraint()).setWidth(150);
+		assertEquals(new Rectangle(20, 10, ViewUtilities.LIFELINE_DEFAULT_WIDTH, 300),
+				ViewUtilities.getBounds(null, lifelineView1));
+
+		InteractionGraph graph = InteractionGraphFactory.getInstance().createHeadlessInteractionGraph(
+				headless.getInteraction(), headless.getDiagram());
+		assertNull(graph.getEditPartViewer());
+		assertEquals(2, graph.getLifelineClusters().size());
+
+		Cluster cluster1 = graph.getLifelineClusters().get(0);
+		Cluster cluster2 = graph.getLifelineClusters().get(1);
+		assertSame(lifelineView1, cluster1.getView());
+		assertSame(lifelineView2, cluster2.getView());
+		assertNull(cluster1.getEditPart());
+		assertEquals(ViewUtilities.LIFELINE_DEFAULT_WIDTH, cluster1.getBounds().width);
+		assertEquals(150, cluster2.getBounds().width);
+		assertTrue(cluster1.getBounds().right() <= cluster2.getBounds().x);
+	}
+
+	@Test
+	public void test_BuildOnWorkerThread() throws InterruptedException {
+		Lifeline lifeline2 = headless.getLifeline2();
+		Message message1 = headless.message(headless.getLifelineView1(), headless.getLifelineView2(), 0.2);
+		ExecutionOccurrenceSpecification start = headless.execEvent("ExecStart", lifeline2);
+		ExecutionSpecification exec = (ExecutionSpecification) headless.getInteraction().createFragment("Exec",
+				UMLPackage.Literals.ACTION_EXECUTION_SPECIFICATION);
+		exec.getCovereds().add(lifeline2);
+		ExecutionOccurrenceSpecification finish = headless.execEvent("ExecFinish", lifeline2);
+		start.setExecution(exec);
+		finish.setExecution(exec);
+		exec.setStart(start);
+		exec.setFinish(finish);
+		HeadlessInteraction.node(headless.getLifelineView2(), exec, new Rectangle(40, 100, -1, 80));
+		Message message2 = headless.message(headless.getLifelineView2(), headless.getLifelineView1(), 0.8);
+
+		AtomicReference<InteractionGraphImpl> result = new AtomicReference<>();
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		Thread worker = new Thread(() -> {
+			try {
+				result.set(headless.createGraph());
+			} catch (Throwable e) {
+				error.set(e);
+			}
+		}, "HeadlessInteractionGraphTest");
+		worker.start();
+		worker.join(30000);
+		assertNull(error.get());
+
+		InteractionGraphImpl graph = result.get();
+		assertTrue(graph != null);
+		ClusterImpl execCluster = graph.getClusterFor(exec);
+		assertTrue(execCluster != null);
+		assertSame(graph.getLifeline(lifeline2), execCluster.getParent());
+		assertSame(execCluster, graph.getNodeFor(exec.getStart()).getParent());
+		assertSame(execCluster, graph.getNodeFor(exec.getFinish()).getParent());
+		assertTrue(graph.getNodeFor(exec.getStart()).getBounds().y < graph.getNodeFor(exec.getFinish()).getBounds().y);
+		assertTrue(graph.getNodeFor(message1.getReceiveEvent()).getBounds().y < graph.getNodeFor(exec.getStart()).getBounds().y);
+		assertTrue(graph.getLinkFor(message1) != null);
+		assertTrue(graph.getLinkFor(message2) != null);
+	}
+
+	private HeadlessInteraction headless;
+}
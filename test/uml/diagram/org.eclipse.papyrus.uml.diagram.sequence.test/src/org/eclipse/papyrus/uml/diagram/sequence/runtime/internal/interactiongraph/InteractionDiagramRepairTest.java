@@ -0,0 +1,159 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.transaction.NotificationFilter;
+import org.eclipse.emf.transaction.RecordingCommand;
+import org.eclipse.emf.transaction.ResourceSetChangeEvent;
+import org.eclipse.emf.transaction.ResourceSetListener;
+import org.eclipse.emf.transaction.ResourceSetListenerImpl;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.gmf.runtime.notation.Bounds;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.NotationFactory;
+import org.eclipse.gmf.runtime.notation.View;
+import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.InteractionInteractionCompartmentEditPart;
+import org.eclipse.uml2.uml.Interaction;
+import org.eclipse.uml2.uml.Lifeline;
+import org.eclipse.uml2.uml.UMLFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InteractionDiagramRepairTest {
+
+	@Before
+	public void setUp() {
+		domain = TransactionalEditingDomain.Factory.INSTANCE.createEditingDomain();
+		Resource notation = new ResourceImpl(URI.createURI("test.notation"));
+		Resource uml = new ResourceImpl(URI.createURI("test.uml"));
+		diagram1 = diagram(notation, uml, "Diagram1");
+		diagram2 = diagram(notation, uml, "Diagram2");
+		domain.getResourceSet().getResources().add(notation);
+		domain.getResourceSet().getResources().add(uml);
+	}
+
+	@After
+	public void tearDown() {
+		domain.dispose();
+	}
+
+	@Test
+	public void test_OnlyChangedDiagramsAreWrittenBack() {
+		InteractionDiagramRepair repair = new InteractionDiagramRepair(domain);
+		InteractionDiagramRepair.Result result = repair.run(Arrays.asList(diagram1, diagram2), null);
+		assertEquals(2, result.getDiagramCount());
+		assertTrue(result.getFailedDiagrams().isEmpty());
+
+		// Both diagrams are in sync now.
+		Set<EObject> changed = new HashSet<>();
+		ResourceSetListener listener = new ResourceSetListenerImpl(NotificationFilter.NOT_TOUCH) {
+			@Override
+			public boolean isPostcommitOnly() {
+				return true;
+			}
+
+			@Override
+			public void resourceSetChanged(ResourceSetChangeEvent event) {
+				for (Notification notification : event.getNotifications()) {
+					if (notification.getNotifier() instanceof EObject) {
+						changed.add(EcoreUtil.getRootContainer((EObject) notification.getNotifier()));
+					}
+				}
+			}
+		};
+		domain.addResourceSetListener(listener);
+		try {
+			result = repair.run(Arrays.asList(diagram1, diagram2), null);
+			assertEquals(2, result.getDiagramCount());
+			assertEquals(0, result.getChangedCount());
+			assertTrue(changed.isEmpty());
+
+			// The lifelines of a diagram have the same height after the layout.
+			Bounds bounds = (Bounds) ((Node) ViewUtilities.getViewForElement(diagram2, lifeline(diagram2))).getLayoutConstraint();
+			domain.getCommandStack().execute(new RecordingCommand(domain) {
+				@Override
+				protected void doExecute() {
+					bounds.setHeight(bounds.getHeight() + 100);
+				}
+			});
+			changed.clear();
+
+			result = repair.run(Arrays.asList(diagram1, diagram2), null);
+			assertEquals(2, result.getDiagramCount());
+			assertEquals(1, result.getChangedCount());
+			assertEquals(Collections.singleton(diagram2), changed);
+		} finally {
+			domain.removeResourceSetListener(listener);
+		}
+	}
+
+	private static Lifeline lifeline(Diagram diagram) {
+		return ((Interaction) diagram.getElement()).getLifelines().get(1);
+	}
+
+	private static Diagram diagram(Resource notation, Resource uml, String name) {
+		Interaction interaction = UMLFactory.eINSTANCE.createInteraction();
+		interaction.setName(name);
+		uml.getContents().add(interaction);
+		Diagram diagram = NotationFactory.eINSTANCE.createDiagram();
+		diagram.setName(name);
+		diagram.setElement(interaction);
+		notation.getContents().add(diagram);
+
+		Node interactionView = node(diagram, interaction, new Rectangle(0, 0, 800, 600));
+		Node compartment = node(interactionView, null, null);
+		compartment.setType(InteractionInteractionCompartmentEditPart.VISUAL_ID);
+		node(compartment, interaction.createLifeline("Lifeline1"), new Rectangle(20, 10, 100, 300));
+		node(compartment, interaction.createLifeline("Lifeline2"), new Rectangle(200, 10, 100, 300));
+		return diagram;
+	}
+
+	private static Node node(View parent, EObject element, Rectangle r) {
+		Node node = NotationFactory.eINSTANCE.createNode();
+		if (element != null) {
+			node.setElement(element);
+		}
+		if (r != null) {
+			Bounds bounds = NotationFactory.eINSTANCE.createBounds();
+			bounds.setX(r.x);
+			bounds.setY(r.y);
+			bounds.setWidth(r.width);
+			bounds.setHeight(r.height);
+			node.setLayoutConstraint(bounds);
+		}
+		parent.insertChild(node);
+		return node;
+	}
+
+	private TransactionalEditingDomain domain;
+	private Diagram diagram1;
+	private Diagram diagram2;
+}
@@ -0,0 +1,146 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.emf.common.command.CommandStack;
+import org.eclipse.papyrus.infra.emf.gmf.command.GMFtoEMFCommandWrapper;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraphFactory;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands.InteractionGraphCommand;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.BenchmarkRunner;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.InteractionModelHelper;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.SyntheticInteraction;
+import org.eclipse.uml2.uml.Message;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Benchmarks of the interaction graph runtime on generated interactions, run on demand with the
+ * <code>benchmark</code> profile (it is not part of {@link AllTests}).<br>
+ * Each benchmark logs one line per size in the plugin log with the average time per operation, so the
+ * logs of two builds can be compared to spot regressions. See {@link BenchmarkRunner} for the tuning
+ * properties.
+ */
+public class InteractionGraphBenchmark {
+
+	@After
+	public void cleanUp() {
+		if (synthetic != null) {
+			synthetic.dispose();
+			synthetic = null;
+		}
+		InteractionModelHelper.clearTransactionStates();
+	}
+
+	@Test
+	public void benchmarkBuild() throws Exception {
+		for (int[] size : BenchmarkRunner.getSizes()) {
+			generate(size);
+			InteractionGraphBuilder[] builder = new InteractionGraphBuilder[1];
+			BenchmarkRunner.run("InteractionGraphBuilder.build", synthetic,
+					() -> builder[0] = new InteractionGraphBuilder(synthetic.getInteraction(), synthetic.getDiagram(), synthetic.getViewer()),
+					() -> builder[0].build());
+			dispose();
+		}
+	}
+
+	@Test
+	public void benchmarkLayout() throws Exception {
+		for (int[] size : BenchmarkRunner.getSizes()) {
+			generate(size);
+			InteractionGraphImpl graph = createGraph();
+			BenchmarkRunner.run("InteractionGraphImpl.layout", synthetic, null, graph::layout);
+			dispose();
+		}
+	}
+
+	@Test
+	public void benchmarkOrderedNodes() throws Exception {
+		for (int[] size : BenchmarkRunner.getSizes()) {
+			generate(size);
+			InteractionGraphImpl graph = createGraph();
+			List<?>[] nodes = new List<?>[1];
+			BenchmarkRunner.run("NodeOrderResolverNew.getOrderedNodes", synthetic, null,
+					() -> nodes[0] = new NodeOrderResolverNew(graph).getOrderedNodes());
+			assertTrue(nodes[0].size() >= size[1] * 2);
+			BenchmarkRunner.run("NodeOrderResolver.getOrderedNodes", synthetic, null,
+					() -> nodes[0] = new NodeOrderResolver(graph).getOrderedNodes());
+			assertTrue(nodes[0].size() >= size[1] * 2);
+			dispose();
+		}
+	}
+
+	@Test
+	public void benchmarkCommandExecute() throws Exception {
+		for (int[] size : BenchmarkRunner.getSizes()) {
+			generate(size);
+			CommandStack stack = synthetic.getEditingDomain().getCommandStack();
+			InteractionGraphCommand[] command = new InteractionGraphCommand[1];
+			BenchmarkRunner.run("InteractionGraphCommand.execute", synthetic,
+					() -> {
+						if (stack.canUndo()) {
+							stack.undo();
+						}
+						command[0] = createNudgeCommand();
+					},
+					() -> stack.execute(new GMFtoEMFCommandWrapper(command[0])));
+			dispose();
+		}
+	}
+
+	@Test
+	public void benchmarkCommandUndo() throws Exception {
+		for (int[] size : BenchmarkRunner.getSizes()) {
+			generate(size);
+			CommandStack stack = synthetic.getEditingDomain().getCommandStack();
+			BenchmarkRunner.run("InteractionGraphCommand.undo", synthetic,
+					() -> stack.execute(new GMFtoEMFCommandWrapper(createNudgeCommand())),
+					stack::undo);
+			dispose();
+		}
+	}
+
+	private void generate(int[] size) {
+		synthetic = SyntheticInteraction.generate(size[0], size[1]);
+	}
+
+	private void dispose() {
+		synthetic.dispose();
+		synthetic = null;
+	}
+
+	private InteractionGraphImpl createGraph() {
+		return (InteractionGraphImpl) InteractionGraphFactory.getInstance().createInteractionGraph(
+				synthetic.getInteraction(), synthetic.getDiagram(), synthetic.getViewer());
+	}
+
+	private InteractionGraphCommand createNudgeCommand() {
+		// Nudging the last message down is always allowed, whatever the size of the interaction.
+		List<Message> messages = synthetic.getMessages();
+		// A tracked graph is valid until the command changes the model, so the timed execute does not
+		// rebuild it, as with the graphs of the cache (see benchmarkBuild for the build time).
+		InteractionGraphImpl graph = createGraph();
+		graph.setTracked(true);
+		InteractionGraphCommand command = new InteractionGraphCommand(synthetic.getEditingDomain(), "Nudge message",
+				graph, null);
+		command.nudgeMessage(messages.get(messages.size() - 1), new Point(0, 20));
+		return command;
+	}
+
+	private SyntheticInteraction synthetic;
+}
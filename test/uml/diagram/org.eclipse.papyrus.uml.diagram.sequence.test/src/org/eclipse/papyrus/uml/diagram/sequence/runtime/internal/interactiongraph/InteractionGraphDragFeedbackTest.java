@@ -0,0 +1,140 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.gef.commands.Command;
+import org.eclipse.gmf.runtime.common.core.command.AbstractCommand;
+import org.eclipse.gmf.runtime.common.core.command.CommandResult;
+import org.eclipse.gmf.runtime.diagram.ui.commands.ICommandProxy;
+import org.eclipse.gmf.runtime.notation.BooleanValueStyle;
+import org.eclipse.gmf.runtime.notation.NotationFactory;
+import org.eclipse.papyrus.infra.gmfdiag.common.preferences.PreferencesConstantsHelper;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands.DragFeedbackCommandProxy;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.HeadlessInteraction;
+import org.eclipse.uml2.uml.Message;
+import org.eclipse.uml2.uml.UMLFactory;
+import org.junit.Test;
+
+public class InteractionGraphDragFeedbackTest {
+
+	@Test
+	public void test_DragFeedback() {
+		HeadlessInteraction headless = new HeadlessInteraction();
+		new ResourceImpl().getContents().add(headless.getInteraction());
+		headless.message(headless.getLifelineView1(), headless.getLifelineView2(), 0.3);
+		Message message = headless.message(headless.getLifelineView1(), headless.getLifelineView2(), 0.6);
+		InteractionGraphImpl graph = headless.createGraph();
+		InteractionGraphDragFeedback feedback = InteractionGraphService.getDragFeedback(graph);
+		assertSame(feedback, InteractionGraphService.getDragFeedback(graph));
+
+		// Nudging the message above the previous one is not legal.
+		InteractionGraphService service = new InteractionGraphService(graph, null);
+		Point up = new Point(0, -120);
+		Point down = new Point(0, 20);
+		assertFalse(service.canNudgeMessage(message, up));
+		assertFalse(feedback.canNudgeMessage(message, up));
+		assertEquals(service.canNudgeMessage(message, down), feedback.canNudgeMessage(message, down));
+		assertEquals(service.canMoveMessage(message, down), feedback.canMoveMessage(message, down));
+
+		// The answers are discarded once the graph changes.
+		service.nudgeMessage(message, new Point(0, 200));
+		assertTrue(service.canNudgeMessage(message, up));
+		assertTrue(feedback.canNudgeMessage(message, up));
+
+		// As in the command, messages not in the graph are not checked.
+		assertTrue(feedback.canNudgeMessage(UMLFactory.eINSTANCE.createMessage(), up));
+	}
+
+	@Test
+	public void test_MessageArea() {
+		HeadlessInteraction headless = new HeadlessInteraction();
+		Message message = headless.message(headless.getLifelineView1(), headless.getLifelineView2(), 0.5);
+		InteractionGraphImpl graph = headless.createGraph();
+		InteractionGraphDragFeedback feedback = InteractionGraphService.getDragFeedback(graph);
+		Rectangle bounds = graph.getLinkFor(message).getBounds().getCopy();
+		assertNull(feedback.getMessageArea(UMLFactory.eINSTANCE.createMessage(), new Point(0, 7)));
+
+		// Without snapping, each delta gets its own answer, even inside a grid cell.
+		assertEquals(bounds.getCopy().translate(0, 7), feedback.getMessageArea(message, new Point(0, 7)));
+		assertEquals(bounds.getCopy().translate(0, 13), feedback.getMessageArea(message, new Point(0, 13)));
+
+		// With snapping, the deltas of a grid cell go to the same place.
+		BooleanValueStyle snap = NotationFactory.eINSTANCE.createBooleanValueStyle();
+		snap.setName(PreferencesConstantsHelper.SNAP_TO_GRID_CONSTANT);
+		snap.setBooleanValue(true);
+		headless.getDiagram().getStyles().add(snap);
+		graph = headless.createGraph();
+		feedback = InteractionGraphService.getDragFeedback(graph);
+		int gridSpacing = graph.getGridSpacing();
+		bounds = graph.getLinkFor(message).getBounds().getCopy();
+		assertEquals(bounds.getCopy().translate(0, gridSpacing), feedback.getMessageArea(message, new Point(0, gridSpacing + 7)));
+		assertEquals(bounds.getCopy().translate(0, gridSpacing), feedback.getMessageArea(message, new Point(0, gridSpacing + 13)));
+	}
+
+	@Test
+	public void test_DragFeedbackCommandProxy() {
+		List<String> calls = new ArrayList<>();
+		DragFeedbackCommandProxy proxy = new DragFeedbackCommandProxy("Move Message", () -> calls.add("feedback"), () -> {
+			calls.add("build");
+			return new AbstractCommand("Move Message") {
+				@Override
+				protected CommandResult doExecuteWithResult(IProgressMonitor progressMonitor, IAdaptable info) {
+					calls.add("execute");
+					return CommandResult.newOKCommandResult();
+				}
+
+				@Override
+				protected CommandResult doRedoWithResult(IProgressMonitor progressMonitor, IAdaptable info) {
+					return CommandResult.newOKCommandResult();
+				}
+
+				@Override
+				protected CommandResult doUndoWithResult(IProgressMonitor progressMonitor, IAdaptable info) {
+					return CommandResult.newOKCommandResult();
+				}
+			};
+		});
+
+		// The edit policies unwrap it as any other proxy.
+		Command command = proxy;
+		assertTrue(command instanceof ICommandProxy);
+
+		// The feedback answers the tools without building the command.
+		assertTrue(proxy.canExecute());
+		assertTrue(proxy.canExecute());
+		assertFalse(proxy.canUndo());
+		assertEquals(Arrays.asList("feedback", "feedback"), calls);
+
+		proxy.execute();
+		assertEquals(Arrays.asList("feedback", "feedback", "build", "execute"), calls);
+		assertSame(proxy.getICommand(), proxy.getICommand());
+		assertEquals("Move Message", proxy.getICommand().getLabel());
+		assertEquals(4, calls.size());
+	}
+}
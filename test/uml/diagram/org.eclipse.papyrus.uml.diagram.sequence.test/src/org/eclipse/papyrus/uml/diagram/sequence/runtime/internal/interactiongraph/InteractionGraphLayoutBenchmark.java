@@ -0,0 +1,92 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.papyrus.uml.diagram.sequence.part.UMLDiagramEditorPlugin;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Cluster;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraphFactory;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.BenchmarkRunner;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.InteractionModelHelper;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.SyntheticInteraction;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Layout scalability benchmark, run on demand (it is not part of {@link AllTests}).<br>
+ * Builds and lays out generated interactions of increasing size and logs the times. The check does not
+ * depend on the wall-clock time: it counts the node ordinals stamped by the clusters while a graph is
+ * built and laid out, which grows linearly with the number of messages, and quadratically if they are
+ * stamped again for each comparison. No ordinal is stamped at all if the comparators fall back to
+ * scanning the node lists.
+ */
+public class InteractionGraphLayoutBenchmark {
+	private static final int LIFELINES = 2;
+	private static final int[] SIZES = { 1250, 2500, 5000, 10000 };
+	private static final double MAX_GROWTH = 3.0;
+
+	@After
+	public void cleanUp() {
+		if (synthetic != null) {
+			synthetic.dispose();
+			synthetic = null;
+		}
+		InteractionModelHelper.clearTransactionStates();
+	}
+
+	@Test
+	public void benchmarkLayout() throws Exception {
+		long prevCount = -1;
+		int prevSize = -1;
+		for (int size : SIZES) {
+			long count = measureLayout(size);
+			UMLDiagramEditorPlugin.log.info(String.format("Layout of %d messages: %d ordinals stamped", size, count));
+			assertTrue(String.format("No ordinal stamped in the layout of %d messages", size), count > 0);
+			if (prevSize > 0) {
+				double growth = (double) count / (double) prevCount;
+				assertTrue(String.format("Stamped ordinals grow %.2f times from %d to %d messages", growth, prevSize, size),
+						growth < MAX_GROWTH);
+			}
+			prevCount = count;
+			prevSize = size;
+		}
+	}
+
+	private long measureLayout(int messages) throws Exception {
+		synthetic = SyntheticInteraction.generate(LIFELINES, messages);
+		InteractionGraphImpl[] graph = new InteractionGraphImpl[1];
+		// The build sorts the nodes of the lifeline clusters
+		BenchmarkRunner.run("InteractionGraph build and layout", synthetic, null, () -> {
+			graph[0] = (InteractionGraphImpl) InteractionGraphFactory.getInstance().createInteractionGraph(
+					synthetic.getInteraction(), synthetic.getDiagram(), synthetic.getViewer());
+			graph[0].layout();
+		});
+		long stamped = getStampedOrdinalCount(graph[0]);
+
+		synthetic.dispose();
+		synthetic = null;
+		return stamped;
+	}
+
+	private static long getStampedOrdinalCount(InteractionGraphImpl graph) {
+		long count = graph.getStampedOrdinalCount();
+		for (Cluster cluster : graph.getAllClusters()) {
+			count += ((ClusterImpl) cluster).getStampedOrdinalCount();
+		}
+		return count;
+	}
+
+	private SyntheticInteraction synthetic;
+}
@@ -0,0 +1,63 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.Cluster;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.HeadlessInteraction;
+import org.eclipse.uml2.uml.Interaction;
+import org.eclipse.uml2.uml.Lifeline;
+import org.eclipse.uml2.uml.Message;
+import org.junit.Test;
+
+public class InteractionGraphSnapshotTest {
+
+	@Test
+	public void test_RestoreAfterFailedAction() {
+		HeadlessInteraction headless = new HeadlessInteraction();
+		Interaction interaction = headless.getInteraction();
+		Lifeline lifeline1 = headless.getLifeline1();
+		Lifeline lifeline2 = headless.getLifeline2();
+		InteractionGraphImpl graph = headless.createGraph();
+		graph.layout();
+		Cluster cluster1 = graph.getLifeline(lifeline1);
+		Rectangle bounds1 = cluster1.getBounds().getCopy();
+
+		// An action adds a lifeline and a message to the graph, then fails.
+		InteractionGraphSnapshot snapshot = graph.snapshot();
+		Lifeline lifeline3 = interaction.createLifeline("Lifeline3");
+		Message message = interaction.createMessage("Message1");
+		graph.disableLayout();
+		graph.addLifeline(lifeline3);
+		graph.addMessage(message);
+		assertSame(graph.getLifeline(lifeline3), graph.getNodeFor(lifeline3));
+		snapshot.restore();
+
+		assertNull(graph.getNodeFor(lifeline3));
+		assertNull(graph.getClusterFor(lifeline3));
+		assertNull(graph.getLinkFor(message));
+		assertNull(graph.getItemFor(message));
+		assertSame(cluster1, graph.getNodeFor(lifeline1));
+		assertSame(graph.getLifeline(lifeline2), graph.getClusterFor(lifeline2));
+		assertEquals(2, graph.getLifelineClusters().size());
+
+		// The restored graph is laid out as before the action.
+		graph.layout();
+		assertEquals(bounds1, cluster1.getBounds());
+	}
+}
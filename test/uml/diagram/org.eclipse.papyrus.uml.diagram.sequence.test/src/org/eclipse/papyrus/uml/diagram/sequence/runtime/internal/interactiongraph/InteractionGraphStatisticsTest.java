@@ -0,0 +1,82 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.HeadlessInteraction;
+import org.junit.Test;
+
+public class InteractionGraphStatisticsTest {
+
+	@Test
+	public void test_Statistics() {
+		HeadlessInteraction headless = new HeadlessInteraction();
+		Diagram diagram = headless.getDiagram();
+		boolean enabled = InteractionGraphStatistics.isEnabled();
+		InteractionGraphStatistics.setEnabled(true);
+		try {
+			InteractionGraphImpl graph = headless.createGraph();
+			graph.layout();
+
+			Map<String, InteractionGraphStatistics.Histogram> histograms = InteractionGraphStatistics.getHistograms(diagram);
+			assertEquals(1, histograms.get("build").getCount());
+			assertTrue(histograms.get("layoutGrid").getCount() >= graph.getLayoutCount());
+			assertEquals(histograms.get("layoutGrid").getCount(), histograms.get("layoutGrid.rows").getCount());
+			InteractionGraphStatistics.Histogram build = histograms.get("build");
+			assertEquals(1, Arrays.stream(build.getBuckets()).sum());
+			assertTrue(InteractionGraphStatistics.getReport(diagram).contains("layoutGrid.frame"));
+			for (String stage : graph.getLayoutManager().getStages().keySet()) {
+				assertTrue(stage, histograms.containsKey("layoutGrid." + stage));
+			}
+
+			// A failed stage is measured too.
+			long layouts = histograms.get("layoutGrid").getCount();
+			graph.getLayoutManager().setStage("fail", new InteractionLayoutStage() {
+				@Override
+				public void layout(InteractionGraphImpl g, InteractionLayoutManager.LayoutState state) {
+					throw new IllegalStateException();
+				}
+
+				@Override
+				public Object getCacheKey(InteractionGraphImpl g) {
+					return null;
+				}
+			});
+			try {
+				graph.layout();
+			} catch (IllegalStateException e) {
+				// Expected
+			} finally {
+				graph.getLayoutManager().setStage("fail", null);
+			}
+			histograms = InteractionGraphStatistics.getHistograms(diagram);
+			assertEquals(layouts + 1, histograms.get("layoutGrid").getCount());
+			assertEquals(1, histograms.get("layoutGrid.fail").getCount());
+
+			InteractionGraphStatistics.setEnabled(false);
+			graph.layout();
+			assertEquals(histograms.get("layoutGrid").getCount(),
+					InteractionGraphStatistics.getHistograms(diagram).get("layoutGrid").getCount());
+		} finally {
+			InteractionGraphStatistics.setEnabled(enabled);
+			InteractionGraphStatistics.reset();
+		}
+	}
+}
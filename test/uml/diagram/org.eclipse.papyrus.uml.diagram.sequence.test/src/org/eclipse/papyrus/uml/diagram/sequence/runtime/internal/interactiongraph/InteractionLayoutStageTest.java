@@ -0,0 +1,56 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.HeadlessInteraction;
+import org.junit.Test;
+
+public class InteractionLayoutStageTest {
+
+	@Test
+	public void test_LayoutStages() {
+		InteractionGraphImpl graph = new HeadlessInteraction().createGraph();
+		InteractionLayoutManager manager = graph.getLayoutManager();
+		assertEquals(Arrays.asList("rows", "columns", "clusters", "gates", "snap", "nodes", "frame"),
+				new ArrayList<>(manager.getStages().keySet()));
+
+		List<String> runs = new ArrayList<>();
+		manager.setStage("check", new InteractionLayoutStage() {
+			@Override
+			public void layout(InteractionGraphImpl g, InteractionLayoutManager.LayoutState state) {
+				runs.add("check");
+			}
+
+			@Override
+			public Object getCacheKey(InteractionGraphImpl g) {
+				return g.getLifelineClusters().size();
+			}
+		});
+		graph.layout();
+		graph.layout();
+		assertEquals(1, runs.size());
+		assertEquals("check", new ArrayList<>(manager.getStages().keySet()).get(7));
+
+		manager.setStage("check", null);
+		assertEquals(7, manager.getStages().size());
+		graph.layout();
+		assertEquals(1, runs.size());
+	}
+}
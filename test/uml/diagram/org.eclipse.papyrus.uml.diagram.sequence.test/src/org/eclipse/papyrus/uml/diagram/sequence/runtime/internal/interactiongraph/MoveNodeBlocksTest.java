@@ -0,0 +1,85 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.HeadlessInteraction.sendNode;
+import static org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.HeadlessInteraction.y;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils.HeadlessInteraction;
+import org.eclipse.uml2.uml.Message;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MoveNodeBlocksTest {
+
+	@Before
+	public void setUp() {
+		headless = new HeadlessInteraction();
+	}
+
+	@Test
+	public void test_MoveNodeBlocksDroppedInPlace() {
+		List<Message> messages = messages(4, 0.2);
+		InteractionGraphImpl graph = headless.createGraph();
+		int[] ys = messages.stream().mapToInt(d -> y(graph, d)).toArray();
+
+		NodeUtilities.moveNodeBlocks(graph, Arrays.asList(NodeUtilities.getBlock(sendNode(graph, messages.get(1))),
+				NodeUtilities.getBlock(sendNode(graph, messages.get(2)))), ys[1]);
+
+		// Back in place, the blocks keep their distance and nothing is nudged above them.
+		assertEquals(ys[0], y(graph, messages.get(0)));
+		assertEquals(ys[1], y(graph, messages.get(1)));
+		assertEquals(ys[2] - ys[1], y(graph, messages.get(2)) - y(graph, messages.get(1)));
+		assertTrue(y(graph, messages.get(2)) < y(graph, messages.get(3)));
+	}
+
+	@Test
+	public void test_MoveNodeBlocksKeepsNudgeLimits() {
+		List<Message> messages = messages(5, 0.15);
+		InteractionGraphImpl graph = headless.createGraph();
+		int[] ys = messages.stream().mapToInt(d -> y(graph, d)).toArray();
+
+		NodeUtilities.moveNodeBlocks(graph, Arrays.asList(NodeUtilities.getBlock(sendNode(graph, messages.get(1))),
+				NodeUtilities.getBlock(sendNode(graph, messages.get(3)))), ys[4] + 40);
+
+		// The space of the blocks is closed, but the nodes after them are not nudged above the nodes before.
+		int gridSpacing = graph.getGridSpacing();
+		assertEquals(ys[0], y(graph, messages.get(0)));
+		assertTrue(y(graph, messages.get(2)) >= ys[0] + gridSpacing);
+		assertTrue(y(graph, messages.get(2)) < ys[2]);
+		assertTrue(y(graph, messages.get(4)) >= y(graph, messages.get(2)) + gridSpacing);
+		// The blocks are stacked in order after the drop position.
+		assertTrue(y(graph, messages.get(4)) < y(graph, messages.get(1)));
+		assertTrue(y(graph, messages.get(1)) < y(graph, messages.get(3)));
+	}
+
+	/**
+	 * Adds messages from the first lifeline to the second one, spaced by the given relative step.
+	 */
+	private List<Message> messages(int count, double step) {
+		List<Message> messages = new ArrayList<>();
+		for (int i = 1; i <= count; i++) {
+			messages.add(headless.message(headless.getLifelineView1(), headless.getLifelineView2(), i * step));
+		}
+		return messages;
+	}
+
+	private HeadlessInteraction headless;
+}
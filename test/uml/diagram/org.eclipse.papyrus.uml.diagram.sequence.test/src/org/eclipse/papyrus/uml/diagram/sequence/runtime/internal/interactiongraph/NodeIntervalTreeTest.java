@@ -0,0 +1,100 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.junit.Test;
+
+public class NodeIntervalTreeTest {
+
+	@Test
+	public void test_FirstNodeInClusterOrderWins() {
+		NodeImpl execSpec = node(0, 10, 10, 100);
+		NodeImpl msgEnd = node(5, 50, 0, 0);
+		NodeImpl other = node(0, 200, 0, 0);
+		NodeImpl noBounds = new NodeImpl(null);
+		NodeIntervalTree tree = new NodeIntervalTree(Arrays.asList(msgEnd, noBounds, execSpec, other), true);
+
+		assertSame(msgEnd, tree.getFirstAt(50, null));
+		assertSame(execSpec, tree.getFirstAt(10, null));
+		assertSame(execSpec, tree.getFirstAt(110, null));
+		assertSame(other, tree.getFirstAt(200, null));
+		assertNull(tree.getFirstAt(111, null));
+		assertNull(tree.getFirstAt(9, null));
+		assertSame(execSpec, tree.getFirstAt(50, d -> d != msgEnd));
+	}
+
+	@Test
+	public void test_SameResultsAsLinearScan() {
+		Random random = new Random(7);
+		List<NodeImpl> nodes = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			nodes.add(node(random.nextInt(100), random.nextInt(1000), random.nextInt(40), random.nextInt(3) == 0 ? random.nextInt(200) : 0));
+		}
+		NodeIntervalTree vertical = new NodeIntervalTree(nodes, true);
+		NodeIntervalTree horizontal = new NodeIntervalTree(nodes, false);
+		assertSameAsLinearScan(nodes, vertical, horizontal);
+	}
+
+	@Test
+	public void test_MovedNodesAreUpdated() {
+		Random random = new Random(11);
+		List<NodeImpl> nodes = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			nodes.add(node(random.nextInt(100), random.nextInt(1000), random.nextInt(40), random.nextInt(3) == 0 ? random.nextInt(200) : 0));
+		}
+		NodeIntervalTree vertical = new NodeIntervalTree(nodes, true);
+		NodeIntervalTree horizontal = new NodeIntervalTree(nodes, false);
+		for (int round = 0; round < 20; round++) {
+			// A few moves are shifted in the tree, many moves build it again.
+			int moves = round % 2 == 0 ? 3 : 60;
+			for (int i = 0; i < moves; i++) {
+				NodeImpl node = nodes.get(random.nextInt(nodes.size()));
+				if (random.nextBoolean()) {
+					node.translate(random.nextInt(21) - 10, random.nextInt(401) - 200);
+				} else {
+					node.resize(random.nextInt(11), random.nextInt(41));
+				}
+				vertical.update(node);
+				horizontal.update(node);
+			}
+			assertSameAsLinearScan(nodes, vertical, horizontal);
+		}
+	}
+
+	private static void assertSameAsLinearScan(List<NodeImpl> nodes, NodeIntervalTree vertical, NodeIntervalTree horizontal) {
+		for (int pos = -250; pos < 1500; pos++) {
+			int y = pos;
+			assertSame(nodes.stream().filter(d -> NodeUtilities.isNodeAtVerticalPos(d, y)).findFirst().orElse(null),
+					vertical.getFirstAt(y, null));
+			int x = pos / 10;
+			assertSame(nodes.stream().filter(d -> NodeUtilities.isNodeAtHorizontalPos(d, x)).findFirst().orElse(null),
+					horizontal.getFirstAt(x, null));
+		}
+	}
+
+	private static NodeImpl node(int x, int y, int width, int height) {
+		NodeImpl node = new NodeImpl(null);
+		node.setBounds(new Rectangle(x, y, width, height));
+		return node;
+	}
+}
@@ -0,0 +1,133 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gmf.runtime.notation.Bounds;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.NotationFactory;
+import org.eclipse.gmf.runtime.notation.View;
+import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.InteractionInteractionCompartmentEditPart;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraphFactory;
+import org.eclipse.uml2.uml.Interaction;
+import org.eclipse.uml2.uml.Lifeline;
+import org.eclipse.uml2.uml.Message;
+import org.eclipse.uml2.uml.UMLFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodePartialOrderTest {
+
+	@Before
+	public void setUp() {
+		Diagram diagram = NotationFactory.eINSTANCE.createDiagram();
+		Node interactionView = node(diagram, interaction, new Rectangle(0, 0, 800, 600));
+		Node compartment = node(interactionView, null, null);
+		compartment.setType(InteractionInteractionCompartmentEditPart.VISUAL_ID);
+		node(compartment, lifeline1, new Rectangle(20, 10, 100, 300));
+		node(compartment, lifeline2, new Rectangle(200, 10, 100, 300));
+		graph = (InteractionGraphImpl) InteractionGraphFactory.getInstance().createHeadlessInteractionGraph(interaction, diagram);
+		// The nodes are added by hand, the layout would resolve the order on each change.
+		graph.disableLayout();
+	}
+
+	@After
+	public void tearDown() {
+		graph.enableLayout();
+	}
+
+	@Test
+	public void test_SameLifelineChain() {
+		// The lifeline order wins over the positions.
+		NodeImpl first = event(lifeline1, 100);
+		NodeImpl second = event(lifeline1, 50);
+		NodeImpl third = event(lifeline1, 200);
+
+		assertEquals(Arrays.asList(first, second, third), new NodePartialOrder(graph).getOrderedNodes());
+	}
+
+	@Test
+	public void test_CrossLifelineMessages() {
+		NodeImpl send1 = event(lifeline1, 100);
+		NodeImpl recv2 = event(lifeline1, 150);
+		// Drawn above its send, the receive is still after it.
+		NodeImpl recv1 = event(lifeline2, 50);
+		NodeImpl send2 = event(lifeline2, 140);
+		message(send1, recv1);
+		message(send2, recv2);
+
+		assertEquals(Arrays.asList(send1, recv1, send2, recv2), new NodePartialOrder(graph).getOrderedNodes());
+	}
+
+	@Test
+	public void test_CycleIsBrokenOnce() {
+		NodeImpl recv2 = event(lifeline1, 100);
+		NodeImpl send1 = event(lifeline1, 150);
+		NodeImpl recv1 = event(lifeline2, 100);
+		NodeImpl send2 = event(lifeline2, 150);
+		message(send1, recv1);
+		message(send2, recv2);
+
+		List<NodeImpl> ordered = new NodePartialOrder(graph).getOrderedNodes();
+		assertEquals(4, ordered.size());
+		assertEquals(new HashSet<>(Arrays.asList(recv2, send1, recv1, send2)), new HashSet<>(ordered));
+		assertTrue(ordered.indexOf(recv2) < ordered.indexOf(send1));
+		assertTrue(ordered.indexOf(recv1) < ordered.indexOf(send2));
+	}
+
+	private NodeImpl event(Lifeline lifeline, int y) {
+		NodeImpl node = new NodeImpl(UMLFactory.eINSTANCE.createMessageOccurrenceSpecification());
+		ClusterImpl cluster = graph.getLifeline(lifeline);
+		node.setBounds(new Rectangle(cluster.getBounds().getCenter().x, y, 0, 0));
+		cluster.addNode(node);
+		return node;
+	}
+
+	private void message(NodeImpl send, NodeImpl recv) {
+		Message message = interaction.createMessage("Message" + interaction.getMessages().size());
+		send.connectNode(recv, new LinkImpl(message));
+	}
+
+	private static Node node(View parent, EObject element, Rectangle r) {
+		Node node = NotationFactory.eINSTANCE.createNode();
+		if (element != null) {
+			node.setElement(element);
+		}
+		if (r != null) {
+			Bounds bounds = NotationFactory.eINSTANCE.createBounds();
+			bounds.setX(r.x);
+			bounds.setY(r.y);
+			bounds.setWidth(r.width);
+			bounds.setHeight(r.height);
+			node.setLayoutConstraint(bounds);
+		}
+		parent.insertChild(node);
+		return node;
+	}
+
+	private Interaction interaction = UMLFactory.eINSTANCE.createInteraction();
+	private Lifeline lifeline1 = interaction.createLifeline("Lifeline1");
+	private Lifeline lifeline2 = interaction.createLifeline("Lifeline2");
+	private InteractionGraphImpl graph;
+}
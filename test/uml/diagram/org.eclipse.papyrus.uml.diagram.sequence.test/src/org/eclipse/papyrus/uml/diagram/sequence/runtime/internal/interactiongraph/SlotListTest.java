@@ -0,0 +1,126 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class SlotListTest {
+
+	@Test
+	public void test_IndicesAfterInsertAndRemove() {
+		SlotList<RowImpl> rows = new SlotList<>();
+		RowImpl r0 = row(rows, 10);
+		RowImpl r1 = row(rows, 20);
+		RowImpl r2 = row(rows, 30);
+
+		RowImpl r15 = new RowImpl(null);
+		r15.setYPosition(15);
+		rows.add(1, r15);
+		assertEquals(0, r0.getIndex());
+		assertEquals(1, r15.getIndex());
+		assertEquals(2, r1.getIndex());
+		assertEquals(3, r2.getIndex());
+		assertEquals(3, rows.indexOf(r2));
+
+		rows.remove(r0);
+		assertEquals(0, r15.getIndex());
+		assertEquals(1, r1.getIndex());
+		assertEquals(2, r2.getIndex());
+		assertEquals(-1, rows.indexOf(r0));
+	}
+
+	@Test
+	public void test_PositionLookup() {
+		SlotList<RowImpl> rows = new SlotList<>();
+		RowImpl r0 = row(rows, 10);
+		RowImpl r1 = row(rows, 20);
+		RowImpl r2 = row(rows, 30);
+
+		assertSame(r1, rows.getAt(20));
+		assertNull(rows.getAt(21));
+		assertSame(r0, rows.getAfter(-5));
+		assertSame(r2, rows.getAfter(21));
+		assertNull(rows.getAfter(31));
+
+		// Moving a row must refresh the position index
+		r2.setYPosition(50);
+		assertNull(rows.getAt(30));
+		assertSame(r2, rows.getAfter(31));
+	}
+
+	@Test
+	public void test_PositionLookupWithSharedPositions() {
+		SlotList<RowImpl> rows = new SlotList<>();
+		RowImpl r0 = row(rows, 10);
+		RowImpl r1 = row(rows, 20);
+		RowImpl r2 = row(rows, 30);
+		assertSame(r1, rows.getAt(20));
+
+		// The first row of the list wins
+		r2.setYPosition(20);
+		assertSame(r1, rows.getAt(20));
+		assertNull(rows.getAt(30));
+		r0.setYPosition(20);
+		assertSame(r0, rows.getAt(20));
+
+		// Moving or removing one of them re-keys only that row
+		r0.setYPosition(5);
+		assertSame(r1, rows.getAt(20));
+		assertSame(r0, rows.getAfter(0));
+		rows.remove(r1);
+		assertSame(r2, rows.getAt(20));
+		assertSame(r2, rows.getAfter(6));
+
+		RowImpl r3 = new RowImpl(null);
+		r3.setYPosition(20);
+		rows.add(0, r3);
+		assertSame(r3, rows.getAt(20));
+		rows.clear();
+		assertNull(rows.getAfter(0));
+	}
+
+	@Test
+	public void test_VersionFollowsContentChanges() {
+		SlotList<RowImpl> rows = new SlotList<>();
+		RowImpl r0 = row(rows, 10);
+
+		int version = rows.getVersion();
+		r0.setYPosition(20);
+		assertEquals(version, rows.getVersion());
+
+		NodeImpl node = new NodeImpl(null);
+		r0.addNode(node);
+		assertNotEquals(version, rows.getVersion());
+
+		version = rows.getVersion();
+		r0.removeNode(node);
+		assertNotEquals(version, rows.getVersion());
+
+		version = rows.getVersion();
+		row(rows, 30);
+		assertNotEquals(version, rows.getVersion());
+	}
+
+	private static RowImpl row(SlotList<RowImpl> rows, int y) {
+		RowImpl row = new RowImpl(null);
+		row.setYPosition(y);
+		rows.add(row);
+		return row;
+	}
+}
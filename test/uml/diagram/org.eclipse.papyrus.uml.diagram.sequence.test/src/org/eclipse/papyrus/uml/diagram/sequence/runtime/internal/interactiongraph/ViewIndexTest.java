@@ -0,0 +1,91 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.gmf.runtime.notation.Edge;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.NotationFactory;
+import org.eclipse.gmf.runtime.notation.View;
+import org.eclipse.uml2.uml.Interaction;
+import org.eclipse.uml2.uml.Lifeline;
+import org.eclipse.uml2.uml.Message;
+import org.eclipse.uml2.uml.UMLFactory;
+import org.junit.Test;
+
+public class ViewIndexTest {
+
+	@Test
+	public void test_SameViewAsTreeWalk() {
+		Diagram diagram = NotationFactory.eINSTANCE.createDiagram();
+		Node interactionView = node(diagram, interaction);
+		Node lifelineView = node(interactionView, lifeline);
+		// A child without element of its own inherits the element of its parent.
+		Node compartment = node(lifelineView, null);
+		Edge messageView = NotationFactory.eINSTANCE.createEdge();
+		messageView.setElement(message);
+		diagram.insertEdge(messageView);
+
+		assertSame(interactionView, ViewUtilities.getViewForElement(diagram, interaction));
+		assertSame(lifelineView, ViewUtilities.getViewForElement(diagram, lifeline));
+		assertSame(messageView, ViewUtilities.getViewForElement(diagram, message));
+		assertEquals(2, ViewIndex.getIndex(diagram).getViews(lifeline).size());
+		assertSame(compartment, ViewUtilities.getViewForElement(lifelineView, lifeline));
+	}
+
+	@Test
+	public void test_FollowsNotationChanges() {
+		Diagram diagram = NotationFactory.eINSTANCE.createDiagram();
+		Node interactionView = node(diagram, interaction);
+		assertNull(ViewUtilities.getViewForElement(diagram, lifeline));
+
+		Node lifelineView = node(interactionView, lifeline);
+		assertSame(lifelineView, ViewUtilities.getViewForElement(diagram, lifeline));
+
+		// A second view of the same element, first in the tree order.
+		Node other = NotationFactory.eINSTANCE.createNode();
+		other.setElement(lifeline);
+		interactionView.insertChildAt(other, 0);
+		assertSame(other, ViewUtilities.getViewForElement(diagram, lifeline));
+
+		other.setElement(message);
+		assertSame(lifelineView, ViewUtilities.getViewForElement(diagram, lifeline));
+		assertSame(other, ViewUtilities.getViewForElement(diagram, message));
+
+		interactionView.removeChild(lifelineView);
+		assertNull(ViewUtilities.getViewForElement(diagram, lifeline));
+
+		diagram.removeChild(interactionView);
+		assertNull(ViewUtilities.getViewForElement(diagram, interaction));
+		assertNull(ViewUtilities.getViewForElement(diagram, message));
+	}
+
+	private static Node node(View parent, EObject element) {
+		Node node = NotationFactory.eINSTANCE.createNode();
+		if (element != null) {
+			node.setElement(element);
+		}
+		parent.insertChild(node);
+		return node;
+	}
+
+	private Interaction interaction = UMLFactory.eINSTANCE.createInteraction();
+	private Lifeline lifeline = interaction.createLifeline("Lifeline1");
+	private Message message = interaction.createMessage("Message1");
+}
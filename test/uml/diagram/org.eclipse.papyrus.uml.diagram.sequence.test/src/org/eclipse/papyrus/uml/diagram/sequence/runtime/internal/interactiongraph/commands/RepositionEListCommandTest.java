@@ -0,0 +1,54 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.commands;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.eclipse.emf.common.util.BasicEList;
+import org.eclipse.emf.common.util.EList;
+import org.junit.Test;
+
+public class RepositionEListCommandTest {
+
+	@Test
+	public void test_SortedListIsNotChanged() {
+		EList<String> list = list("a", "b", "c", "d");
+		assertEquals(0, RepositionEListCommand.reorder(list, Arrays.asList("a", "b", "c", "d")));
+		assertEquals(list("a", "b", "c", "d"), list);
+	}
+
+	@Test
+	public void test_OnlyOutOfPlaceElementsAreMoved() {
+		EList<String> list = list("a", "b", "c", "d", "e");
+		assertEquals(1, RepositionEListCommand.reorder(list, Arrays.asList("b", "c", "d", "e", "a")));
+		assertEquals(list("b", "c", "d", "e", "a"), list);
+
+		assertEquals(2, RepositionEListCommand.reorder(list, Arrays.asList("e", "b", "c", "a", "d")));
+		assertEquals(list("e", "b", "c", "a", "d"), list);
+	}
+
+	@Test
+	public void test_MissingAndExtraElements() {
+		// "x" is not in the list and "c" is not in the new order, so it goes to the end.
+		EList<String> list = list("c", "a", "b");
+		RepositionEListCommand.reorder(list, Arrays.asList("b", "x", "a"));
+		assertEquals(list("b", "a", "c"), list);
+	}
+
+	private static EList<String> list(String... values) {
+		return new BasicEList<>(Arrays.asList(values));
+	}
+}
@@ -0,0 +1,118 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.papyrus.uml.diagram.sequence.part.UMLDiagramEditorPlugin;
+
+/**
+ * Minimal micro-benchmark runner, in the spirit of JMH average-time mode, that can run inside the
+ * Eclipse test harness.<br>
+ * Each operation is run {@link #WARMUP_ITERATIONS} times to warm up the JIT, then timed
+ * {@link #MEASURE_ITERATIONS} times. A setup step can be given that runs before every iteration and is
+ * not timed.<br>
+ * The iteration counts and the benchmark sizes can be overridden with the system properties
+ * <code>benchmark.warmup</code>, <code>benchmark.iterations</code> and <code>benchmark.sizes</code>
+ * (comma separated list of <code>lifelines x messages</code>, e.g. <code>2x10,300x5000</code>).<br>
+ * The results are written to the plugin log.
+ *
+ * @author ETXACAM
+ */
+public class BenchmarkRunner {
+	public static final int WARMUP_ITERATIONS = Integer.getInteger("benchmark.warmup", 3);
+	public static final int MEASURE_ITERATIONS = Integer.getInteger("benchmark.iterations", 10);
+	public static final String DEFAULT_SIZES = "2x10,10x100,50x1000,300x5000";
+
+	@FunctionalInterface
+	public interface Operation {
+		void run() throws Exception;
+	}
+
+	/**
+	 * Returns the benchmark sizes as pairs of {lifelines, messages}.
+	 */
+	public static List<int[]> getSizes() {
+		List<int[]> sizes = new ArrayList<>();
+		for (String size : System.getProperty("benchmark.sizes", DEFAULT_SIZES).split(",")) {
+			String[] values = size.trim().split("x");
+			sizes.add(new int[] { Integer.parseInt(values[0].trim()), Integer.parseInt(values[1].trim()) });
+		}
+		return sizes;
+	}
+
+	public static Result run(String benchmark, Object params, Operation setup, Operation operation) throws Exception {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			if (setup != null) {
+				setup.run();
+			}
+			operation.run();
+		}
+
+		long[] samples = new long[MEASURE_ITERATIONS];
+		for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+			if (setup != null) {
+				setup.run();
+			}
+			long start = System.nanoTime();
+			operation.run();
+			samples[i] = System.nanoTime() - start;
+		}
+
+		Result result = new Result(benchmark, params.toString(), samples);
+		UMLDiagramEditorPlugin.log.info(result.toString());
+		return result;
+	}
+
+	public static class Result {
+		private Result(String benchmark, String params, long[] samples) {
+			this.benchmark = benchmark;
+			this.params = params;
+			this.samples = samples.clone();
+			Arrays.sort(this.samples);
+		}
+
+		public String getBenchmark() {
+			return benchmark;
+		}
+
+		public String getParams() {
+			return params;
+		}
+
+		public double getAverageMillis() {
+			return Arrays.stream(samples).average().orElse(0) / 1000000.0;
+		}
+
+		public double getMinMillis() {
+			return samples.length == 0 ? 0 : samples[0] / 1000000.0;
+		}
+
+		public double getMaxMillis() {
+			return samples.length == 0 ? 0 : samples[samples.length - 1] / 1000000.0;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-32s %-30s avgt %3d %12.3f ms/op  [min %.3f, max %.3f]",
+					benchmark, params, samples.length, getAverageMillis(), getMinMillis(), getMaxMillis());
+		}
+
+		private String benchmark;
+		private String params;
+		private long[] samples;
+	}
+}
@@ -0,0 +1,166 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gmf.runtime.notation.Bounds;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.gmf.runtime.notation.Edge;
+import org.eclipse.gmf.runtime.notation.IdentityAnchor;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.NotationFactory;
+import org.eclipse.gmf.runtime.notation.View;
+import org.eclipse.papyrus.uml.diagram.sequence.edit.parts.InteractionInteractionCompartmentEditPart;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.interactiongraph.InteractionGraphFactory;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.InteractionGraphImpl;
+import org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.interactiongraph.NodeImpl;
+import org.eclipse.uml2.uml.ExecutionOccurrenceSpecification;
+import org.eclipse.uml2.uml.Interaction;
+import org.eclipse.uml2.uml.Lifeline;
+import org.eclipse.uml2.uml.Message;
+import org.eclipse.uml2.uml.MessageOccurrenceSpecification;
+import org.eclipse.uml2.uml.UMLFactory;
+import org.eclipse.uml2.uml.UMLPackage;
+
+/**
+ * An interaction with two lifelines and its notation, without resource nor viewer, to build headless
+ * interaction graphs.<br>
+ * The messages are added with their views, at a relative position on the lifelines.
+ *
+ * @author ETXACAM
+ */
+public class HeadlessInteraction {
+	public HeadlessInteraction() {
+		interaction = UMLFactory.eINSTANCE.createInteraction();
+		lifeline1 = interaction.createLifeline("Lifeline1");
+		lifeline2 = interaction.createLifeline("Lifeline2");
+		diagram = NotationFactory.eINSTANCE.createDiagram();
+		Node interactionView = node(diagram, interaction, new Rectangle(0, 0, 800, 600));
+		Node compartment = node(interactionView, null, null);
+		compartment.setType(InteractionInteractionCompartmentEditPart.VISUAL_ID);
+		lifelineView1 = node(compartment, lifeline1, new Rectangle(20, 10, 100, 300));
+		lifelineView2 = node(compartment, lifeline2, new Rectangle(200, 10, 100, 300));
+	}
+
+	public InteractionGraphImpl createGraph() {
+		return (InteractionGraphImpl) InteractionGraphFactory.getInstance().createHeadlessInteractionGraph(interaction, diagram);
+	}
+
+	/**
+	 * Adds a message and its view between two lifeline views.
+	 *
+	 * @param position the position of the message ends, relative to the height of the lifelines.
+	 */
+	public Message message(Node sourceView, Node targetView, double position) {
+		Message message = interaction.createMessage("Message" + interaction.getMessages().size());
+		MessageOccurrenceSpecification send = event(message.getName() + "Send", (Lifeline) sourceView.getElement());
+		MessageOccurrenceSpecification receive = event(message.getName() + "Recv", (Lifeline) targetView.getElement());
+		send.setMessage(message);
+		receive.setMessage(message);
+		message.setSendEvent(send);
+		message.setReceiveEvent(receive);
+
+		Edge edge = NotationFactory.eINSTANCE.createEdge();
+		edge.setElement(message);
+		edge.setSource(sourceView);
+		edge.setTarget(targetView);
+		edge.setSourceAnchor(anchor(position));
+		edge.setTargetAnchor(anchor(position));
+		diagram.insertEdge(edge);
+		return message;
+	}
+
+	public MessageOccurrenceSpecification event(String name, Lifeline lifeline) {
+		MessageOccurrenceSpecification event = (MessageOccurrenceSpecification) interaction.createFragment(name,
+				UMLPackage.Literals.MESSAGE_OCCURRENCE_SPECIFICATION);
+		event.getCovereds().add(lifeline);
+		return event;
+	}
+
+	public ExecutionOccurrenceSpecification execEvent(String name, Lifeline lifeline) {
+		ExecutionOccurrenceSpecification event = (ExecutionOccurrenceSpecification) interaction.createFragment(name,
+				UMLPackage.Literals.EXECUTION_OCCURRENCE_SPECIFICATION);
+		event.getCovereds().add(lifeline);
+		return event;
+	}
+
+	public static NodeImpl sendNode(InteractionGraphImpl graph, Message message) {
+		return graph.getNodeFor(message.getSendEvent());
+	}
+
+	/**
+	 * @return the vertical position of the send event of the message in the graph.
+	 */
+	public static int y(InteractionGraphImpl graph, Message message) {
+		return sendNode(graph, message).getBounds().y;
+	}
+
+	/**
+	 * Adds a node to a view, with absolute bounds if r is not null.
+	 */
+	public static Node node(View parent, EObject element, Rectangle r) {
+		Node node = NotationFactory.eINSTANCE.createNode();
+		if (element != null) {
+			node.setElement(element);
+		}
+		if (r != null) {
+			Bounds bounds = NotationFactory.eINSTANCE.createBounds();
+			bounds.setX(r.x);
+			bounds.setY(r.y);
+			bounds.setWidth(r.width);
+			bounds.setHeight(r.height);
+			node.setLayoutConstraint(bounds);
+		}
+		parent.insertChild(node);
+		return node;
+	}
+
+	private static IdentityAnchor anchor(double position) {
+		IdentityAnchor anchor = NotationFactory.eINSTANCE.createIdentityAnchor();
+		anchor.setId("(0.5," + position + ")");
+		return anchor;
+	}
+
+	public Interaction getInteraction() {
+		return interaction;
+	}
+
+	public Lifeline getLifeline1() {
+		return lifeline1;
+	}
+
+	public Lifeline getLifeline2() {
+		return lifeline2;
+	}
+
+	public Diagram getDiagram() {
+		return diagram;
+	}
+
+	public Node getLifelineView1() {
+		return lifelineView1;
+	}
+
+	public Node getLifelineView2() {
+		return lifelineView2;
+	}
+
+	private Interaction interaction;
+	private Lifeline lifeline1;
+	private Lifeline lifeline2;
+	private Diagram diagram;
+	private Node lifelineView1;
+	private Node lifelineView2;
+}
@@ -0,0 +1,132 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.diagram.sequence.runtime.internal.test.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.emf.transaction.util.TransactionUtil;
+import org.eclipse.gef.EditPartViewer;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.papyrus.infra.core.resource.ModelSet;
+import org.eclipse.papyrus.uml.diagram.sequence.part.UMLDiagramEditorPlugin;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.uml2.uml.Interaction;
+import org.eclipse.uml2.uml.Lifeline;
+import org.eclipse.uml2.uml.Message;
+import org.eclipse.uml2.uml.MessageSort;
+
+/**
+ * Generates an interaction with a given number of lifelines and messages, together with its sequence
+ * diagram rendered in an offscreen viewer.<br>
+ * Messages go from each lifeline to the next one, round-robin, so every lifeline gets the same number of
+ * message ends.
+ *
+ * @author ETXACAM
+ */
+public class SyntheticInteraction {
+	private SyntheticInteraction(int lifelines, int messages) {
+		this.lifelineCount = lifelines;
+		this.messageCount = messages;
+	}
+
+	public static SyntheticInteraction generate(int lifelines, int messages) {
+		SyntheticInteraction synthetic = new SyntheticInteraction(lifelines, messages);
+		synthetic.build();
+		return synthetic;
+	}
+
+	private void build() {
+		modelSet = InteractionModelHelper.createModelSet();
+		diagram = InteractionNotationHelper.getDiagram(modelSet);
+		interaction = InteractionModelHelper.getInteraction(modelSet);
+		shell = new Shell(Display.getDefault());
+		viewer = OfflineDiagramHelper.loadDiagram(diagram, shell, UMLDiagramEditorPlugin.DIAGRAM_PREFERENCES_HINT);
+
+		InteractionModelHelper.startTransaction(modelSet);
+		try {
+			for (int i = 0; i < lifelineCount; i++) {
+				Lifeline lf = interaction.createLifeline("Lifeline" + i);
+				InteractionNotationHelper.createLifeline(viewer, diagram, lf);
+				lifelines.add(lf);
+			}
+
+			for (int i = 0; i < messageCount; i++) {
+				Lifeline from = lifelines.get(i % lifelineCount);
+				Lifeline to = lifelines.get((i + 1) % lifelineCount);
+				Message msg = InteractionModelHelper.createMessage(interaction, "msg" + i, from, to, MessageSort.ASYNCH_CALL_LITERAL);
+				InteractionNotationHelper.createMessage(viewer, diagram, msg);
+				messages.add(msg);
+			}
+		} finally {
+			InteractionModelHelper.endTransaction();
+		}
+		InteractionNotationHelper.refreshViewer(viewer);
+	}
+
+	public void dispose() {
+		if (shell != null && !shell.isDisposed()) {
+			shell.dispose();
+		}
+		TransactionalEditingDomain editingDomain = getEditingDomain();
+		if (editingDomain != null) {
+			editingDomain.dispose();
+		}
+	}
+
+	public ModelSet getModelSet() {
+		return modelSet;
+	}
+
+	public TransactionalEditingDomain getEditingDomain() {
+		return TransactionUtil.getEditingDomain(modelSet);
+	}
+
+	public Interaction getInteraction() {
+		return interaction;
+	}
+
+	public Diagram getDiagram() {
+		return diagram;
+	}
+
+	public EditPartViewer getViewer() {
+		return viewer;
+	}
+
+	public List<Lifeline> getLifelines() {
+		return lifelines;
+	}
+
+	public List<Message> getMessages() {
+		return messages;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("lifelines=%d, messages=%d", lifelineCount, messageCount);
+	}
+
+	private int lifelineCount;
+	private int messageCount;
+	private ModelSet modelSet;
+	private Interaction interaction;
+	private Diagram diagram;
+	private Shell shell;
+	private EditPartViewer viewer;
+	private List<Lifeline> lifelines = new ArrayList<>();
+	private List<Message> messages = new ArrayList<>();
+}
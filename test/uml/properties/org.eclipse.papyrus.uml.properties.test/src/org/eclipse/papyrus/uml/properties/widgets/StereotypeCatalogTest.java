@@ -0,0 +1,136 @@
+/*****************************************************************************
+ * (c) Copyright 2019 Telefonaktiebolaget LM Ericsson
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *  Antonio Campesino (Ericsson) - Initial API and implementation
+ *
+ *****************************************************************************/
+package org.eclipse.papyrus.uml.properties.widgets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.papyrus.uml.properties.widgets.StereotypeCatalog.ProfileDescriptor;
+import org.eclipse.papyrus.uml.properties.widgets.StereotypeCatalog.StereotypeDescriptor;
+import org.eclipse.uml2.uml.Profile;
+import org.eclipse.uml2.uml.UMLFactory;
+import org.eclipse.uml2.uml.resource.UMLResource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StereotypeCatalogTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void setUp() {
+		file = new File(folder.getRoot(), "stereotypeCatalog.dat"); //$NON-NLS-1$
+	}
+
+	@Test
+	public void test_SaveLoadFileProfile() throws IOException {
+		File profileFile = folder.newFile("test.profile.uml"); //$NON-NLS-1$
+		URI uri = URI.createFileURI(profileFile.getAbsolutePath());
+		ResourceSet resourceSet = new ResourceSetImpl();
+		Resource resource = resourceSet.createResource(uri);
+		Profile profile = UMLFactory.eINSTANCE.createProfile();
+		profile.setName("TestProfile"); //$NON-NLS-1$
+		profile.createOwnedStereotype("First", false); //$NON-NLS-1$
+		profile.createNestedPackage("nested").createOwnedStereotype("Second", false); //$NON-NLS-1$ //$NON-NLS-2$
+		resource.getContents().add(profile);
+		resource.save(null);
+
+		StereotypeCatalog catalog = new FileCatalog(file);
+		ProfileDescriptor built = catalog.getProfile(uri, resourceSet);
+		assertNotNull(built);
+		assertEquals(2, built.getStereotypes().size());
+		catalog.save();
+		assertTrue(file.isFile());
+
+		// The saved catalogue answers without loading the profile.
+		ResourceSet otherResourceSet = new ResourceSetImpl();
+		StereotypeCatalog loaded = new FileCatalog(file);
+		loaded.load();
+		ProfileDescriptor cached = loaded.getCachedProfile(uri, otherResourceSet);
+		assertSameCatalogue(built, cached);
+		assertTrue(otherResourceSet.getResources().isEmpty());
+
+		// A modified profile is catalogued again.
+		assertTrue(profileFile.setLastModified(profileFile.lastModified() + 2000));
+		assertNull(loaded.getCachedProfile(uri, otherResourceSet));
+	}
+
+	@Test
+	public void test_SaveLoadRegisteredProfile() {
+		URI uri = URI.createURI(UMLResource.STANDARD_PROFILE_URI);
+		ResourceSet resourceSet = new ResourceSetImpl();
+
+		// The profiles of the plug-ins are stamped with their bundle, so they are saved.
+		StereotypeCatalog catalog = new FileCatalog(file);
+		assertNotEquals(-1L, catalog.getTimeStamp(uri, resourceSet));
+		ProfileDescriptor built = catalog.getProfile(uri, resourceSet);
+		assertNotNull(built);
+		assertFalse(built.getStereotypes().isEmpty());
+		catalog.save();
+		assertTrue(file.isFile());
+
+		ResourceSet otherResourceSet = new ResourceSetImpl();
+		StereotypeCatalog loaded = new FileCatalog(file);
+		loaded.load();
+		assertSameCatalogue(built, loaded.getCachedProfile(uri, otherResourceSet));
+		assertTrue(otherResourceSet.getResources().isEmpty());
+	}
+
+	private static void assertSameCatalogue(ProfileDescriptor expected, ProfileDescriptor actual) {
+		assertNotNull(actual);
+		assertEquals(expected.getURI(), actual.getURI());
+		assertEquals(expected.getName(), actual.getName());
+		assertEquals(expected.getStereotypes().size(), actual.getStereotypes().size());
+		for (int i = 0; i < expected.getStereotypes().size(); i++) {
+			StereotypeDescriptor expectedStereotype = expected.getStereotypes().get(i);
+			StereotypeDescriptor actualStereotype = actual.getStereotypes().get(i);
+			assertEquals(expectedStereotype.getName(), actualStereotype.getName());
+			assertEquals(expectedStereotype.getQualifiedName(), actualStereotype.getQualifiedName());
+			assertEquals(expectedStereotype.getExtendedMetaclasses(), actualStereotype.getExtendedMetaclasses());
+		}
+	}
+
+	/**
+	 * A catalogue saved in the given file instead of the state location of the plug-in.
+	 */
+	private static class FileCatalog extends StereotypeCatalog {
+
+		private final File file;
+
+		FileCatalog(File file) {
+			this.file = file;
+		}
+
+		@Override
+		protected File getFile() {
+			return file;
+		}
+	}
+
+	private File file;
+}